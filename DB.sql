@@ -8,33 +8,44 @@ CREATE TABLE cliente (
     dui VARCHAR(10)     NOT NULL UNIQUE,
     primer_nombre VARCHAR(12) NOT NULL,
     apellido       VARCHAR(12) NOT NULL,
-    fecha_nacimiento DATE NOT NULL
+    fecha_nacimiento DATE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0, -- se incrementa en cada cambio; base del ETag
+    primer_nombre_busqueda VARCHAR(12) NOT NULL, -- minúsculas y sin tildes, para GET /api/clientes/search
+    apellido_busqueda VARCHAR(12) NOT NULL
 );
 
+-- Búsqueda por prefijo de apellido o de nombre (ver migraciones/008_busqueda_cliente.sql)
+CREATE INDEX idx_cliente_apellido_busqueda ON cliente (apellido_busqueda, primer_nombre_busqueda);
+CREATE INDEX idx_cliente_nombre_busqueda ON cliente (primer_nombre_busqueda, apellido_busqueda);
+
 select * from cliente
 
 CREATE TABLE cuenta (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     numero VARCHAR(20) NOT NULL,
-    saldo DOUBLE NOT NULL,
+    saldo_centavos BIGINT NOT NULL, -- saldo en centavos (punto fijo), nunca DOUBLE
     cliente_id BIGINT,
+    version BIGINT NOT NULL DEFAULT 0, -- se incrementa en cada cambio, también de saldo
     FOREIGN KEY (cliente_id) REFERENCES cliente(id)
 );
 
+-- Búsqueda de una cuenta por (cliente, número) en una sola lectura de índice
+CREATE INDEX idx_cuenta_cliente_numero ON cuenta (cliente_id, numero);
+
 select * from cuenta
 
 -- Inserta un cliente con DUI '12345678-9'
-INSERT INTO cliente (dui, primer_nombre, apellido, fecha_nacimiento)
-VALUES ('12345678-9', 'María', 'López', '1992-11-05');
+INSERT INTO cliente (dui, primer_nombre, apellido, fecha_nacimiento, primer_nombre_busqueda, apellido_busqueda)
+VALUES ('12345678-9', 'María', 'López', '1992-11-05', 'maria', 'lopez');
 
 -- Supongamos que el ID asignado al cliente es 1, inserta dos cuentas para ese cliente:
-INSERT INTO cuenta (numero, saldo, cliente_id) VALUES ('0001', 1000, 1);
-INSERT INTO cuenta (numero, saldo, cliente_id) VALUES ('0002', 500, 1);
+INSERT INTO cuenta (numero, saldo_centavos, cliente_id) VALUES ('0001', 100000, 1);
+INSERT INTO cuenta (numero, saldo_centavos, cliente_id) VALUES ('0002', 50000, 1);
 
 CREATE TABLE credenciales (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     correo VARCHAR(50) NOT NULL UNIQUE, -- Es buena práctica hacer el correo único también
-    contrasena VARCHAR(10) NOT NULL,
+    contrasena VARCHAR(100) NOT NULL, -- hash con prefijo de algoritmo ({bcrypt}...)
     tipo_cuenta ENUM('cliente','empleado') NOT NULL,
     cliente_dui VARCHAR(10),
     -- si es cliente, cliente_dui NO puede ser NULL; si es empleado, cliente_dui deberá quedar en NULL
@@ -42,3 +53,122 @@ CREATE TABLE credenciales (
     FOREIGN KEY (cliente_dui) REFERENCES cliente(dui),
     UNIQUE (cliente_dui) -- Agregamos esta restricción de unicidad
 );
+
+-- Historial inmutable de abonos y retiros; se inserta junto con cada cambio de saldo
+CREATE TABLE movimiento (
+    id BIGINT PRIMARY KEY,             -- asignado por Hibernate en bloques desde movimiento_seq
+    cuenta_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    monto_centavos BIGINT NOT NULL,
+    saldo_centavos BIGINT NOT NULL,    -- saldo de la cuenta después del movimiento
+    fecha DATETIME(6) NOT NULL,
+    FOREIGN KEY (cuenta_id) REFERENCES cuenta(id),
+    INDEX idx_movimiento_cuenta_fecha (cuenta_id, fecha)
+);
+
+-- MySQL no tiene secuencias: Hibernate las emula con esta tabla (incrementos de 50)
+CREATE TABLE movimiento_seq (next_val BIGINT);
+INSERT INTO movimiento_seq VALUES (1);
+
+-- Respuestas guardadas por Idempotency-Key (ver migraciones/005_idempotencia.sql)
+CREATE TABLE idempotencia (
+    llave VARCHAR(300) PRIMARY KEY,
+    huella CHAR(32) NOT NULL,
+    estado INT,
+    location VARCHAR(255),
+    cuerpo MEDIUMBLOB,
+    creada DATETIME(6) NOT NULL,
+    INDEX idx_idempotencia_creada (creada)
+);
+
+-- Secuencia del diario de MotorSaldos ya volcada, por partición (ver migraciones/006_punto_diario.sql)
+CREATE TABLE punto_diario (
+    particion INT PRIMARY KEY,
+    secuencia BIGINT NOT NULL
+);
+
+-- Cierre diario: tramos procesados y estados de cuenta (ver migraciones/007_cierre.sql)
+CREATE TABLE cierre (
+    fecha DATE PRIMARY KEY,
+    tamano_tramo INT NOT NULL,
+    max_id BIGINT NOT NULL,
+    iniciado DATETIME(6) NOT NULL,
+    terminado DATETIME(6)              -- NULL mientras falten tramos
+);
+
+CREATE TABLE cierre_tramo (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fecha DATE NOT NULL,
+    desde_id BIGINT NOT NULL,
+    hasta_id BIGINT NOT NULL,
+    cuentas INT NOT NULL,
+    UNIQUE KEY uk_cierre_tramo (fecha, desde_id)
+);
+
+CREATE TABLE estado_cuenta (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cuenta_id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    saldo_inicial BIGINT NOT NULL,
+    abonos BIGINT NOT NULL,
+    cargos BIGINT NOT NULL,
+    movimientos INT NOT NULL,
+    saldo_final BIGINT NOT NULL,       -- saldo al cierre del día, antes de interés y comisión
+    interes BIGINT NOT NULL,
+    comision BIGINT NOT NULL,
+    FOREIGN KEY (cuenta_id) REFERENCES cuenta(id),
+    UNIQUE KEY uk_estado_cuenta (cuenta_id, fecha)
+);
+
+-- Clientes archivados con su historial, mismos ids y sin llaves foráneas (ver migraciones/009_archivo.sql)
+CREATE TABLE cliente_archivo (
+    id BIGINT PRIMARY KEY,             -- el mismo id que tenía en cliente
+    dui VARCHAR(10) NOT NULL,
+    primer_nombre VARCHAR(12) NOT NULL,
+    apellido VARCHAR(12) NOT NULL,
+    fecha_nacimiento DATE NOT NULL,
+    archivado DATETIME(6) NOT NULL,
+    INDEX idx_cliente_archivo_dui (dui)
+);
+
+CREATE TABLE cuenta_archivo (
+    id BIGINT PRIMARY KEY,
+    numero VARCHAR(20) NOT NULL,
+    saldo_centavos BIGINT NOT NULL,
+    cliente_id BIGINT,
+    archivado DATETIME(6) NOT NULL,
+    INDEX idx_cuenta_archivo_cliente (cliente_id)
+);
+
+CREATE TABLE movimiento_archivo (
+    id BIGINT PRIMARY KEY,
+    cuenta_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    monto_centavos BIGINT NOT NULL,
+    saldo_centavos BIGINT NOT NULL,
+    fecha DATETIME(6) NOT NULL,
+    INDEX idx_movimiento_archivo_cuenta_fecha (cuenta_id, fecha)
+);
+
+CREATE TABLE estado_cuenta_archivo (
+    id BIGINT PRIMARY KEY,
+    cuenta_id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    saldo_inicial BIGINT NOT NULL,
+    abonos BIGINT NOT NULL,
+    cargos BIGINT NOT NULL,
+    movimientos INT NOT NULL,
+    saldo_final BIGINT NOT NULL,
+    interes BIGINT NOT NULL,
+    comision BIGINT NOT NULL,
+    INDEX idx_estado_cuenta_archivo_cuenta (cuenta_id, fecha)
+);
+
+CREATE TABLE credenciales_archivo (
+    id BIGINT PRIMARY KEY,
+    correo VARCHAR(50) NOT NULL,
+    contrasena VARCHAR(100) NOT NULL,
+    tipo_cuenta ENUM('cliente','empleado') NOT NULL,
+    cliente_dui VARCHAR(10),
+    archivado DATETIME(6) NOT NULL
+);
@@ -0,0 +1,12 @@
+-- Migra cuenta.saldo (DOUBLE) a cuenta.saldo_centavos (BIGINT, centavos).
+-- Para bases creadas con una versión anterior de DB.sql. Ejecutar con la aplicación detenida.
+
+USE banco_db;
+
+ALTER TABLE cuenta ADD COLUMN saldo_centavos BIGINT NOT NULL DEFAULT 0;
+
+-- ROUND corrige el error acumulado del DOUBLE al centavo más cercano
+UPDATE cuenta SET saldo_centavos = ROUND(saldo * 100);
+
+ALTER TABLE cuenta ALTER COLUMN saldo_centavos DROP DEFAULT;
+ALTER TABLE cuenta DROP COLUMN saldo;
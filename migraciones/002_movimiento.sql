@@ -0,0 +1,17 @@
+-- Crea el historial de movimientos y su generador de ids para bases existentes.
+
+USE banco_db;
+
+CREATE TABLE movimiento (
+    id BIGINT PRIMARY KEY,
+    cuenta_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    monto_centavos BIGINT NOT NULL,
+    saldo_centavos BIGINT NOT NULL,
+    fecha DATETIME(6) NOT NULL,
+    FOREIGN KEY (cuenta_id) REFERENCES cuenta(id),
+    INDEX idx_movimiento_cuenta_fecha (cuenta_id, fecha)
+);
+
+CREATE TABLE movimiento_seq (next_val BIGINT);
+INSERT INTO movimiento_seq VALUES (1);
@@ -0,0 +1,10 @@
+-- Amplía la columna para guardar hashes bcrypt y marca las contraseñas existentes
+-- como texto plano ({noop}); se re-hashean con bcrypt en el siguiente login exitoso.
+
+USE banco_db;
+
+ALTER TABLE credenciales MODIFY contrasena VARCHAR(100) NOT NULL;
+
+UPDATE credenciales
+SET contrasena = CONCAT('{noop}', contrasena)
+WHERE contrasena NOT LIKE '{%';
@@ -0,0 +1,8 @@
+-- Columna de versión por fila para los ETag de GET /api/clientes/{dui} y /api/cuentas/cliente/{dui}.
+-- Hibernate la incrementa en cada UPDATE de la entidad (@Version); los UPDATE directos de saldo
+-- la incrementan explícitamente.
+
+USE banco_db;
+
+ALTER TABLE cliente ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE cuenta ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
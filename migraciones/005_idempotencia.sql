@@ -0,0 +1,16 @@
+-- Llaves de Idempotency-Key compartidas entre instancias (idempotencia.persistente=true).
+-- La fila se inserta en la misma transacción que el abono, retiro o alta de cuenta y guarda la
+-- respuesta enviada; un reintento con la misma llave la devuelve sin repetir la operación.
+-- La aplicación borra cada hora las filas más viejas que idempotencia.ttl.
+
+USE banco_db;
+
+CREATE TABLE idempotencia (
+    llave VARCHAR(300) PRIMARY KEY,    -- id de credenciales + ':' + Idempotency-Key
+    huella CHAR(32) NOT NULL,          -- MD5 de la operación y sus datos
+    estado INT,                        -- código HTTP de la respuesta guardada
+    location VARCHAR(255),
+    cuerpo MEDIUMBLOB,                 -- cuerpo JSON de la respuesta
+    creada DATETIME(6) NOT NULL,
+    INDEX idx_idempotencia_creada (creada)
+);
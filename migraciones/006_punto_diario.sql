@@ -0,0 +1,10 @@
+-- Motor de saldos para cuentas recaudadoras (MotorSaldos, saldos.motor.cuentas).
+-- Una fila por partición con la última secuencia de su diario ya volcada a cuenta y movimiento;
+-- se actualiza en la misma transacción del volcado.
+
+USE banco_db;
+
+CREATE TABLE punto_diario (
+    particion INT PRIMARY KEY,
+    secuencia BIGINT NOT NULL
+);
@@ -0,0 +1,37 @@
+-- Cierre diario (CierreDiario): interés, comisión de mantenimiento y estado de cuenta por cuenta.
+-- 'cierre' fija los tramos de ids de cada fecha; 'cierre_tramo' es el punto de control por tramo
+-- (se inserta en la misma transacción que aplica el tramo) y permite reanudar un cierre interrumpido.
+
+USE banco_db;
+
+CREATE TABLE cierre (
+    fecha DATE PRIMARY KEY,
+    tamano_tramo INT NOT NULL,
+    max_id BIGINT NOT NULL,
+    iniciado DATETIME(6) NOT NULL,
+    terminado DATETIME(6)
+);
+
+CREATE TABLE cierre_tramo (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fecha DATE NOT NULL,
+    desde_id BIGINT NOT NULL,
+    hasta_id BIGINT NOT NULL,
+    cuentas INT NOT NULL,
+    UNIQUE KEY uk_cierre_tramo (fecha, desde_id)
+);
+
+CREATE TABLE estado_cuenta (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cuenta_id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    saldo_inicial BIGINT NOT NULL,
+    abonos BIGINT NOT NULL,
+    cargos BIGINT NOT NULL,
+    movimientos INT NOT NULL,
+    saldo_final BIGINT NOT NULL,
+    interes BIGINT NOT NULL,
+    comision BIGINT NOT NULL,
+    FOREIGN KEY (cuenta_id) REFERENCES cuenta(id),
+    UNIQUE KEY uk_estado_cuenta (cuenta_id, fecha)
+);
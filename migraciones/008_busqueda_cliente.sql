@@ -0,0 +1,24 @@
+-- Búsqueda de clientes por prefijo (GET /api/clientes/search, BusquedaClientes).
+-- Nombre y apellido normalizados (minúsculas, sin tildes) en columnas propias con un índice por
+-- orden de recorrido; la aplicación los mantiene en cada INSERT/UPDATE (Cliente.normalizarBusqueda).
+-- El relleno inicial quita las tildes del español con REPLACE; la aplicación los recalcula en el
+-- siguiente cambio de cada cliente.
+
+USE banco_db;
+
+ALTER TABLE cliente
+    ADD COLUMN primer_nombre_busqueda VARCHAR(12),
+    ADD COLUMN apellido_busqueda VARCHAR(12);
+
+UPDATE cliente SET
+    primer_nombre_busqueda = REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(
+        LOWER(TRIM(primer_nombre)), 'á', 'a'), 'é', 'e'), 'í', 'i'), 'ó', 'o'), 'ú', 'u'), 'ü', 'u'), 'ñ', 'n'),
+    apellido_busqueda = REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(REPLACE(
+        LOWER(TRIM(apellido)), 'á', 'a'), 'é', 'e'), 'í', 'i'), 'ó', 'o'), 'ú', 'u'), 'ü', 'u'), 'ñ', 'n');
+
+ALTER TABLE cliente
+    MODIFY primer_nombre_busqueda VARCHAR(12) NOT NULL,
+    MODIFY apellido_busqueda VARCHAR(12) NOT NULL;
+
+CREATE INDEX idx_cliente_apellido_busqueda ON cliente (apellido_busqueda, primer_nombre_busqueda);
+CREATE INDEX idx_cliente_nombre_busqueda ON cliente (primer_nombre_busqueda, apellido_busqueda);
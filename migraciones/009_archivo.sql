@@ -0,0 +1,58 @@
+-- Archivo de clientes (ArchivoClientes): POST /api/clientes/{dui}/archivo y POST /api/clientes/archivo
+-- mueven cliente, cuentas, movimientos, estados de cuenta y credenciales a estas tablas, con los
+-- mismos ids. Sin llaves foráneas: se escriben y borran por conjunto, y un DUI archivado puede
+-- volver a darse de alta (y archivarse otra vez) en las tablas en línea.
+
+USE banco_db;
+
+CREATE TABLE cliente_archivo (
+    id BIGINT PRIMARY KEY,             -- el mismo id que tenía en cliente
+    dui VARCHAR(10) NOT NULL,
+    primer_nombre VARCHAR(12) NOT NULL,
+    apellido VARCHAR(12) NOT NULL,
+    fecha_nacimiento DATE NOT NULL,
+    archivado DATETIME(6) NOT NULL,
+    INDEX idx_cliente_archivo_dui (dui)
+);
+
+CREATE TABLE cuenta_archivo (
+    id BIGINT PRIMARY KEY,
+    numero VARCHAR(20) NOT NULL,
+    saldo_centavos BIGINT NOT NULL,
+    cliente_id BIGINT,
+    archivado DATETIME(6) NOT NULL,
+    INDEX idx_cuenta_archivo_cliente (cliente_id)
+);
+
+CREATE TABLE movimiento_archivo (
+    id BIGINT PRIMARY KEY,
+    cuenta_id BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL,
+    monto_centavos BIGINT NOT NULL,
+    saldo_centavos BIGINT NOT NULL,
+    fecha DATETIME(6) NOT NULL,
+    INDEX idx_movimiento_archivo_cuenta_fecha (cuenta_id, fecha)
+);
+
+CREATE TABLE estado_cuenta_archivo (
+    id BIGINT PRIMARY KEY,
+    cuenta_id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    saldo_inicial BIGINT NOT NULL,
+    abonos BIGINT NOT NULL,
+    cargos BIGINT NOT NULL,
+    movimientos INT NOT NULL,
+    saldo_final BIGINT NOT NULL,
+    interes BIGINT NOT NULL,
+    comision BIGINT NOT NULL,
+    INDEX idx_estado_cuenta_archivo_cuenta (cuenta_id, fecha)
+);
+
+CREATE TABLE credenciales_archivo (
+    id BIGINT PRIMARY KEY,
+    correo VARCHAR(50) NOT NULL,
+    contrasena VARCHAR(100) NOT NULL,
+    tipo_cuenta ENUM('cliente','empleado') NOT NULL,
+    cliente_dui VARCHAR(10),
+    archivado DATETIME(6) NOT NULL
+);
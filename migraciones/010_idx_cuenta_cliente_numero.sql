@@ -0,0 +1,7 @@
+-- Búsqueda de una cuenta por (cliente, número) en una sola lectura de índice
+-- (CuentaRepository.findByClienteDuiAndNumero: transferencias, lotes, abonos y retiros).
+-- El índice que MySQL creó por su cuenta para la llave foránea cliente_id queda cubierto y lo descarta solo.
+
+USE banco_db;
+
+CREATE INDEX idx_cuenta_cliente_numero ON cuenta (cliente_id, numero);
@@ -0,0 +1,132 @@
+package com.banco.serviciocuentas.benchmark;
+
+import com.banco.serviciocuentas.ServiciocuentasApplication;
+import com.banco.serviciocuentas.controller.Respuesta;
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/cuentas/cliente/{dui} sin la capa HTTP: consulta + serialización del listado.
+// 'entidades' reproduce el camino anterior (entidades Cuenta con su Cliente, gestionadas
+// por un EntityManager abierto durante la petición como hace open-in-view) y 'proyeccion'
+// el actual (CuentaResumen armado por la consulta). Correr con "-prof gc" para comparar
+// los bytes asignados por petición además del tiempo.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListadoCuentasBenchmark {
+
+    private static final int CLIENTES = 200;
+    private static final int CUENTAS_POR_CLIENTE = 20;
+
+    private static final OutputStream DESCARTE = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ConfigurableApplicationContext contexto;
+    private EntityManagerFactory emf;
+    private CuentaRepository cuentaRepo;
+    private ObjectMapper mapper;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(ServiciocuentasApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        emf = contexto.getBean(EntityManagerFactory.class);
+        cuentaRepo = contexto.getBean(CuentaRepository.class);
+        mapper = contexto.getBean(ObjectMapper.class);
+        ClienteRepository clienteRepo = contexto.getBean(ClienteRepository.class);
+
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setDui(dui(i));
+            cliente.setPrimerNombre("Cliente");
+            cliente.setApellido("Bench");
+            cliente.setFechaNacimiento(LocalDate.of(1985, 6, 15));
+            clienteRepo.save(cliente);
+
+            List<Cuenta> cuentas = new ArrayList<>(CUENTAS_POR_CLIENTE);
+            for (int n = 0; n < CUENTAS_POR_CLIENTE; n++) {
+                Cuenta cuenta = new Cuenta();
+                cuenta.setNumero(String.format("%04d", n + 1));
+                cuenta.setSaldoCentavos(1_000_00L + n);
+                cuenta.setCliente(cliente);
+                cuentas.add(cuenta);
+            }
+            cuentaRepo.saveAll(cuentas);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public void entidades() throws IOException {
+        String dui = duiAleatorio();
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Cuenta> cuentas = em.createQuery(
+                            "select c from Cuenta c join fetch c.cliente cl where cl.dui = :dui order by c.id", Cuenta.class)
+                    .setParameter("dui", dui)
+                    .getResultList();
+            mapper.writeValue(DESCARTE, Respuesta.exito("Cuentas encontradas para cliente con DUI " + dui, cuentas));
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public void proyeccion() throws IOException {
+        String dui = duiAleatorio();
+        mapper.writeValue(DESCARTE, Respuesta.exito("Cuentas encontradas para cliente con DUI " + dui,
+                cuentaRepo.findResumenByClienteDui(dui)));
+    }
+
+    private static String duiAleatorio() {
+        return dui(ThreadLocalRandom.current().nextInt(CLIENTES));
+    }
+
+    private static String dui(int i) {
+        return String.format("%08d-%d", i, i % 10);
+    }
+}
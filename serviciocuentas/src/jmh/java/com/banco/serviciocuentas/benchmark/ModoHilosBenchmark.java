@@ -0,0 +1,129 @@
+package com.banco.serviciocuentas.benchmark;
+
+import com.banco.serviciocuentas.ServiciocuentasApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Throughput y latencia de cola (p99, p99.9 en SampleTime) de abonar y de la consulta por DUI
+// sobre HTTP real, con la aplicación completa en hilos de plataforma o en hilos virtuales.
+// Usa el perfil "test" (H2 en memoria en modo MySQL) como sustituto embebido de MySQL;
+// para medir contra MySQL local basta quitar "test" de los perfiles.
+// El modo "virtuales" solo es efectivo en Java 21 o superior; en Java 17 mide lo mismo que "plataforma".
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(64)
+@Fork(1)
+public class ModoHilosBenchmark {
+
+    private static final int CLIENTES = 32;
+
+    @Param({"plataforma", "virtuales"})
+    public String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient http;
+    private ObjectMapper mapper;
+    private String base;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void arrancar() throws Exception {
+        if (modo.equals("virtuales") && Runtime.version().feature() < 21) {
+            System.err.println("ADVERTENCIA: hilos virtuales requieren Java 21; este JDK es " + Runtime.version());
+        }
+        SpringApplication app = new SpringApplication(ServiciocuentasApplication.class);
+        app.setAdditionalProfiles(modo.equals("virtuales") ? new String[]{"test", "virtuales"} : new String[]{"test"});
+        contexto = app.run("--server.port=0", "--logging.level.root=WARN");
+        int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        base = "http://localhost:" + puerto;
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        mapper = new ObjectMapper();
+
+        enviar("POST", "/api/credenciales", Map.of("correo", "bench@banco.com", "contrasena", "bench",
+                "tipoCuenta", "empleado"));
+        token = enviar("POST", "/api/credenciales/login", Map.of("correo", "bench@banco.com",
+                "contrasena", "bench")).get("token").asText();
+        for (int i = 0; i < CLIENTES; i++) {
+            enviar("POST", "/api/clientes", Map.of("dui", dui(i), "primerNombre", "Cliente",
+                    "apellido", "Carga", "fechaNacimiento", "1985-06-15"));
+            enviar("POST", "/api/cuentas/cliente/" + dui(i), Map.of("numero", "0001", "saldo", 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int abonar() throws Exception {
+        String dui = dui(ThreadLocalRandom.current().nextInt(CLIENTES));
+        return estado(HttpRequest.newBuilder(URI.create(base + "/api/cuentas/cliente/" + dui + "/abonarefectivo"))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"numero\":\"0001\",\"monto\":1.25}"))
+                .build());
+    }
+
+    @Benchmark
+    public int findByDui() throws Exception {
+        String dui = dui(ThreadLocalRandom.current().nextInt(CLIENTES));
+        return estado(HttpRequest.newBuilder(URI.create(base + "/api/clientes/" + dui)).GET().build());
+    }
+
+    private int estado(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " en " + request.uri());
+        }
+        return response.statusCode();
+    }
+
+    private JsonNode enviar(String metodo, String ruta, Object cuerpo) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + ruta))
+                .header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(cuerpo)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " en " + ruta + ": "
+                    + new String(response.body()));
+        }
+        return mapper.readTree(response.body());
+    }
+
+    private static String dui(int i) {
+        return String.format("%08d-%d", i, i % 10);
+    }
+}
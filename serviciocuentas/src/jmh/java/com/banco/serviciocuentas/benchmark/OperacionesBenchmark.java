@@ -0,0 +1,132 @@
+package com.banco.serviciocuentas.benchmark;
+
+import com.banco.serviciocuentas.ServiciocuentasApplication;
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.ClienteResumen;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.service.ClienteCache;
+import com.banco.serviciocuentas.service.ContrasenaService;
+import com.banco.serviciocuentas.service.ResultadoMovimiento;
+import com.banco.serviciocuentas.service.SaldoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Caminos calientes del servicio contra H2 en memoria en modo MySQL (perfil "test"),
+// con el contexto de Spring completo pero sin servidor HTTP:
+// abonar/retirar (UPDATE condicional + movimiento), búsqueda de cliente por DUI con y sin
+// la cache, y login (búsqueda por correo + verificación bcrypt en su pool).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperacionesBenchmark {
+
+    private static final int CLIENTES = 1000;
+    private static final String CORREO = "bench@banco.com";
+    private static final String CONTRASENA = "bench";
+
+    private ConfigurableApplicationContext contexto;
+    private SaldoService saldoService;
+    private ClienteCache clienteCache;
+    private ClienteRepository clienteRepo;
+    private CredencialesRepository credRepo;
+    private ContrasenaService contrasenas;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = new SpringApplicationBuilder(ServiciocuentasApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--logging.level.root=WARN");
+        saldoService = contexto.getBean(SaldoService.class);
+        clienteCache = contexto.getBean(ClienteCache.class);
+        clienteRepo = contexto.getBean(ClienteRepository.class);
+        credRepo = contexto.getBean(CredencialesRepository.class);
+        contrasenas = contexto.getBean(ContrasenaService.class);
+        CuentaRepository cuentaRepo = contexto.getBean(CuentaRepository.class);
+
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setDui(dui(i));
+            cliente.setPrimerNombre("Cliente");
+            cliente.setApellido("Bench");
+            cliente.setFechaNacimiento(LocalDate.of(1985, 6, 15));
+            clienteRepo.save(cliente);
+
+            Cuenta cuenta = new Cuenta();
+            cuenta.setNumero("0001");
+            cuenta.setSaldoCentavos(1_000_000_000_00L);
+            cuenta.setCliente(cliente);
+            cuentaRepo.save(cuenta);
+        }
+        credRepo.save(new Credenciales(CORREO, contrasenas.hashear(CONTRASENA), TipoCuenta.empleado, null));
+        // duiConCache mide aciertos; las fallas cuestan lo mismo que duiSinCache
+        for (int i = 0; i < CLIENTES; i++) {
+            clienteCache.buscar(dui(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public ResultadoMovimiento abonar() {
+        return saldoService.abonar(duiAleatorio(), "0001", 1_25);
+    }
+
+    @Benchmark
+    public ResultadoMovimiento retirar() {
+        return saldoService.retirar(duiAleatorio(), "0001", 1_25);
+    }
+
+    @Benchmark
+    public Optional<ClienteResumen> duiConCache() {
+        return clienteCache.buscar(duiAleatorio());
+    }
+
+    @Benchmark
+    public Optional<ClienteResumen> duiSinCache() {
+        return clienteRepo.findResumenByDui(duiAleatorio());
+    }
+
+    @Benchmark
+    public boolean login() {
+        String hash = credRepo.findByCorreo(CORREO).map(Credenciales::getContrasena).orElse(null);
+        return contrasenas.verificar(CONTRASENA, hash).join();
+    }
+
+    private static String duiAleatorio() {
+        return dui(ThreadLocalRandom.current().nextInt(CLIENTES));
+    }
+
+    private static String dui(int i) {
+        return String.format("%08d-%d", i, i % 10);
+    }
+}
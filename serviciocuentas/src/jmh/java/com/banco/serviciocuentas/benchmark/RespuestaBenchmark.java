@@ -0,0 +1,91 @@
+package com.banco.serviciocuentas.benchmark;
+
+import com.banco.serviciocuentas.controller.CuentaController;
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Dinero;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Costo de armar y escribir la respuesta de abonar/retirar: el sobre HashMap anterior contra
+// el record RespuestaMovimiento, con y sin Blackbird. Correr con "-prof gc" para ver los bytes
+// asignados por operación (gc.alloc.rate.norm), que es lo que este cambio busca reducir.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RespuestaBenchmark {
+
+    // Como el buffer de salida de Tomcat: se escribe pero no se guarda nada (y close no lo invalida)
+    private static final OutputStream DESCARTE = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ObjectMapper reflexion;
+    private ObjectMapper blackbird;
+    private Cuenta cuenta;
+
+    @Setup
+    public void preparar() {
+        reflexion = Jackson2ObjectMapperBuilder.json().build();
+        blackbird = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        Cliente cliente = new Cliente();
+        cliente.setDui("12345678-9");
+        cliente.setPrimerNombre("Cliente");
+        cliente.setApellido("Prueba");
+        cliente.setFechaNacimiento(LocalDate.of(1985, 6, 15));
+        cuenta = new Cuenta();
+        cuenta.setId(42L);
+        cuenta.setNumero("0001");
+        cuenta.setSaldoCentavos(1_234_56L);
+        cuenta.setCliente(cliente);
+    }
+
+    @Benchmark
+    public void mapa() throws IOException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Abono exitoso.");
+        response.put("newSaldo", Dinero.aDecimal(cuenta.getSaldoCentavos()));
+        response.put("data", cuenta);
+        reflexion.writeValue(DESCARTE, response);
+    }
+
+    @Benchmark
+    public void registro() throws IOException {
+        reflexion.writeValue(DESCARTE, new CuentaController.RespuestaMovimiento(true, "Abono exitoso.",
+                Dinero.aDecimal(cuenta.getSaldoCentavos()), cuenta));
+    }
+
+    @Benchmark
+    public void registroBlackbird() throws IOException {
+        blackbird.writeValue(DESCARTE, new CuentaController.RespuestaMovimiento(true, "Abono exitoso.",
+                Dinero.aDecimal(cuenta.getSaldoCentavos()), cuenta));
+    }
+}
@@ -0,0 +1,115 @@
+package com.banco.serviciocuentas.benchmark;
+
+import com.banco.serviciocuentas.model.Dinero;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Compara la representación anterior del saldo (double) con centavos en long
+// y con BigDecimal (DECIMAL en la base) para la lógica de abonar/retirar:
+// sumar, restar y comparar saldo contra monto sobre una serie de movimientos.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaldoRepresentacionBenchmark {
+
+    private static final int MOVIMIENTOS = 1024;
+
+    private String[] textos;
+    private double[] montosDouble;
+    private long[] montosCentavos;
+    private BigDecimal[] montosDecimal;
+
+    @Setup
+    public void preparar() {
+        textos = new String[MOVIMIENTOS];
+        montosDouble = new double[MOVIMIENTOS];
+        montosCentavos = new long[MOVIMIENTOS];
+        montosDecimal = new BigDecimal[MOVIMIENTOS];
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            // Montos con centavos que el double no representa exactamente (0.10, 0.35, ...)
+            long centavos = 10 + (i * 37L) % 99_990;
+            textos[i] = Dinero.formatear(centavos);
+            montosDouble[i] = Double.parseDouble(textos[i]);
+            montosCentavos[i] = centavos;
+            montosDecimal[i] = new BigDecimal(textos[i]);
+        }
+    }
+
+    @Benchmark
+    public double movimientosDouble() {
+        double saldo = 0;
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            saldo += montosDouble[i];
+            if (!(saldo < montosDouble[(i + 1) % MOVIMIENTOS])) {
+                saldo -= montosDouble[(i + 1) % MOVIMIENTOS];
+            }
+        }
+        return saldo;
+    }
+
+    @Benchmark
+    public long movimientosCentavos() {
+        long saldo = 0;
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            saldo += montosCentavos[i];
+            if (saldo >= montosCentavos[(i + 1) % MOVIMIENTOS]) {
+                saldo -= montosCentavos[(i + 1) % MOVIMIENTOS];
+            }
+        }
+        return saldo;
+    }
+
+    @Benchmark
+    public BigDecimal movimientosBigDecimal() {
+        BigDecimal saldo = BigDecimal.ZERO;
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            saldo = saldo.add(montosDecimal[i]);
+            if (saldo.compareTo(montosDecimal[(i + 1) % MOVIMIENTOS]) >= 0) {
+                saldo = saldo.subtract(montosDecimal[(i + 1) % MOVIMIENTOS]);
+            }
+        }
+        return saldo;
+    }
+
+    // Costo de convertir el monto recibido en el JSON a la representación interna
+    @Benchmark
+    public double parsearDouble() {
+        double suma = 0;
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            suma += Double.parseDouble(textos[i]);
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public long parsearCentavos() {
+        long suma = 0;
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            suma += Dinero.parsear(textos[i]);
+        }
+        return suma;
+    }
+
+    @Benchmark
+    public BigDecimal parsearBigDecimal() {
+        BigDecimal suma = BigDecimal.ZERO;
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            suma = suma.add(new BigDecimal(textos[i]));
+        }
+        return suma;
+    }
+}
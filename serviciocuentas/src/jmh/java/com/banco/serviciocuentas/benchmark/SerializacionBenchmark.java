@@ -0,0 +1,78 @@
+package com.banco.serviciocuentas.benchmark;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialización a JSON de las entidades tal como salen en las respuestas:
+// un Cliente con sus cuentas (GET /api/clientes/{dui}) y una página de Cuenta (listados).
+// El ObjectMapper se arma con Jackson2ObjectMapperBuilder, igual que el de Spring Boot.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    private static final int CUENTAS_POR_CLIENTE = 5;
+    private static final int CUENTAS_POR_PAGINA = 100;
+
+    private ObjectMapper mapper;
+    private Cliente cliente;
+    private List<Cuenta> pagina;
+
+    @Setup
+    public void preparar() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        cliente = cliente("12345678-9", CUENTAS_POR_CLIENTE);
+        pagina = new ArrayList<>(CUENTAS_POR_PAGINA);
+        for (int i = 0; i < CUENTAS_POR_PAGINA / CUENTAS_POR_CLIENTE; i++) {
+            pagina.addAll(cliente(String.format("%08d-%d", i, i % 10), CUENTAS_POR_CLIENTE).getCuentas());
+        }
+    }
+
+    @Benchmark
+    public byte[] cliente() throws Exception {
+        return mapper.writeValueAsBytes(cliente);
+    }
+
+    @Benchmark
+    public byte[] paginaCuentas() throws Exception {
+        return mapper.writeValueAsBytes(pagina);
+    }
+
+    private static Cliente cliente(String dui, int cuentas) {
+        Cliente cliente = new Cliente();
+        cliente.setDui(dui);
+        cliente.setPrimerNombre("Cliente");
+        cliente.setApellido("Prueba");
+        cliente.setFechaNacimiento(LocalDate.of(1985, 6, 15));
+        List<Cuenta> lista = new ArrayList<>(cuentas);
+        for (int i = 0; i < cuentas; i++) {
+            Cuenta cuenta = new Cuenta();
+            cuenta.setNumero(String.format("%04d", i + 1));
+            cuenta.setSaldoCentavos(1_234_56L * (i + 1));
+            cuenta.setCliente(cliente);
+            lista.add(cuenta);
+        }
+        cliente.setCuentas(lista);
+        return cliente;
+    }
+}
@@ -0,0 +1,98 @@
+package com.banco.serviciocuentas.benchmark;
+
+import com.banco.serviciocuentas.config.AccesoInterceptor;
+import com.banco.serviciocuentas.config.TokenFilter;
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.service.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Sobrecosto por petición de la autenticación: TokenFilter valida el token (HMAC + JSON) y
+// AccesoInterceptor decide sobre el endpoint ya resuelto (patrón y {dui} como los deja Spring).
+// 'sinToken' es la referencia de una ruta sin token; la diferencia con 'rutaCliente' (filtro más
+// interceptor) es lo que agrega la autenticación a cada llamada de /api/cuentas/cliente/{dui}/**.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenFilterBenchmark {
+
+    private static final String DUI = "12345678-9";
+    private static final FilterChain NADA = (request, response) -> {
+    };
+
+    private TokenService tokens;
+    private TokenFilter filtro;
+    private AccesoInterceptor acceso;
+    private HandlerMethod endpoint;
+    private String token;
+    private MockHttpServletRequest rutaCliente;
+    private MockHttpServletRequest rutaAbierta;
+    private MockHttpServletResponse respuesta;
+
+    @Setup
+    public void preparar() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        tokens = new TokenService("", Duration.ofHours(8), mapper);
+        filtro = new TokenFilter(tokens);
+        acceso = new AccesoInterceptor(mapper);
+        // Cualquier método sirve: el interceptor solo revisa que el handler sea un HandlerMethod
+        endpoint = new HandlerMethod(this, "sinToken");
+        Credenciales credenciales = new Credenciales("cliente@banco.com", null, TipoCuenta.cliente, DUI);
+        token = tokens.emitir(credenciales);
+
+        rutaCliente = new MockHttpServletRequest("POST", "/api/cuentas/cliente/" + DUI + "/abonarefectivo");
+        rutaCliente.addHeader("Authorization", "Bearer " + token);
+        rutaCliente.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                "/api/cuentas/cliente/{dui}/abonarefectivo");
+        rutaCliente.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("dui", DUI));
+        // 'autorizar' mide solo el interceptor: la sesión queda puesta como la dejaría TokenFilter
+        rutaCliente.setAttribute(TokenFilter.ATRIBUTO_SESION, tokens.validar(token).orElseThrow());
+        rutaAbierta = new MockHttpServletRequest("GET", "/api/cuentas");
+        respuesta = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Optional<TokenService.Sesion> validar() {
+        return tokens.validar(token);
+    }
+
+    @Benchmark
+    public boolean autorizar() throws Exception {
+        return acceso.preHandle(rutaCliente, respuesta, endpoint);
+    }
+
+    @Benchmark
+    public boolean rutaCliente() throws Exception {
+        filtro.doFilter(rutaCliente, respuesta, NADA);
+        return acceso.preHandle(rutaCliente, respuesta, endpoint);
+    }
+
+    @Benchmark
+    public int sinToken() throws Exception {
+        filtro.doFilter(rutaAbierta, respuesta, NADA);
+        return respuesta.getStatus();
+    }
+}
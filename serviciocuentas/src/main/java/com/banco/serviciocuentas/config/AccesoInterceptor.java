@@ -0,0 +1,82 @@
+package com.banco.serviciocuentas.config;
+
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.service.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+// Quién puede usar cada endpoint de /api, con la sesión que dejó TokenFilter. Se decide sobre el
+// patrón del endpoint ya resuelto por Spring y la variable {dui} ya decodificada, no sobre la URL
+// cruda, así "//api/...", ";jsessionid=" o un prefijo codificado no se saltan la regla:
+// - el login queda abierto;
+// - un cliente solo usa las rutas de autoservicio (PROPIAS) y solo con su propio DUI;
+// - transferir y lote exigen sesión; el controlador revisa el DUI de cada cuenta de origen;
+// - todo lo demás (listados, altas, cambios, borrado, archivo, importación, cierres, credenciales)
+//   es de empleados, aunque la ruta lleve el DUI del cliente.
+// Registrar clientes y credenciales lo hace un empleado con su token; el primero de una instalación
+// nueva lo crea EmpleadoInicial a partir de seguridad.admin.* (ver README).
+public class AccesoInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Set<String> ABIERTAS = Set.of("/api/credenciales/login");
+    private static final Set<String> POR_ORIGEN = Set.of("/api/cuentas/transferir", "/api/cuentas/lote");
+    // Método y patrón: GET /api/clientes/{dui} sí, PUT o DELETE del mismo patrón no
+    private static final Set<String> PROPIAS = Set.of(
+            "GET /api/clientes/{dui}",
+            "GET /api/cuentas/cliente/{dui}",
+            "GET /api/cuentas/cliente/{dui}/eventos",
+            "GET /api/cuentas/cliente/{dui}/{numero}/movimientos",
+            "POST /api/cuentas/cliente/{dui}/abonarefectivo",
+            "POST /api/cuentas/cliente/{dui}/retirarefectivo");
+
+    private final ObjectMapper mapper;
+
+    public AccesoInterceptor(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod) || patron == null || !patron.toString().startsWith("/api/")
+                || ABIERTAS.contains(patron.toString())) {
+            return true;
+        }
+        if (!(request.getAttribute(TokenFilter.ATRIBUTO_SESION) instanceof TokenService.Sesion sesion)) {
+            return rechazar(response, HttpStatus.UNAUTHORIZED, "Token ausente, inválido o expirado");
+        }
+        if (sesion.tipo() == TipoCuenta.empleado || POR_ORIGEN.contains(patron.toString())) {
+            return true;
+        }
+        if (PROPIAS.contains(request.getMethod() + " " + patron)) {
+            String dui = duiDeLaRuta(request);
+            return dui != null && sesion.puedeAcceder(dui)
+                    || rechazar(response, HttpStatus.FORBIDDEN, "No tiene acceso a las cuentas de este cliente");
+        }
+        return rechazar(response, HttpStatus.FORBIDDEN, "Operación reservada a empleados");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String duiDeLaRuta(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables instanceof Map<?, ?> mapa ? ((Map<String, String>) mapa).get("dui") : null;
+    }
+
+    private boolean rechazar(HttpServletResponse response, HttpStatus estado, String mensaje) throws IOException {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        mapper.writeValue(response.getOutputStream(), Map.of("success", false, "message", mensaje));
+        return false;
+    }
+}
@@ -0,0 +1,25 @@
+package com.banco.serviciocuentas.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+
+@Configuration
+public class ContrasenaConfig {
+
+    // Las contraseñas nuevas se guardan como {bcrypt}...; las filas anteriores a la migración
+    // quedan como {noop}texto y se re-hashean en el siguiente login exitoso
+    @Bean
+    @SuppressWarnings("deprecation")
+    public PasswordEncoder passwordEncoder(@Value("${seguridad.bcrypt.costo:10}") int costo) {
+        return new DelegatingPasswordEncoder("bcrypt", Map.of(
+                "bcrypt", new BCryptPasswordEncoder(costo),
+                "noop", NoOpPasswordEncoder.getInstance()));
+    }
+}
@@ -0,0 +1,73 @@
+package com.banco.serviciocuentas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Envía las transacciones @Transactional(readOnly = true) a las réplicas (por turnos) y todo lo demás
+// al primario: escrituras, cambios de saldo y lecturas sin transacción o dentro de una de escritura.
+// El proxy perezoso es necesario: la conexión física se pide con la primera sentencia, cuando
+// Spring ya marcó la transacción como de solo lectura; sin él se elegiría al abrirla, antes de saberlo.
+// forzarPrimario() manda también al primario las lecturas de quien acaba de escribir (LecturaPropiaInterceptor).
+public class DataSourceRuteado extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARIO_FORZADO = new ThreadLocal<>();
+
+    private final List<HikariDataSource> replicas;
+
+    public DataSourceRuteado(HikariDataSource primario, List<HikariDataSource> replicas) {
+        this.replicas = List.copyOf(replicas);
+        Rutas rutas = new Rutas(replicas.size());
+        Map<Object, Object> destinos = new HashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            destinos.put(i, replicas.get(i));
+        }
+        rutas.setTargetDataSources(destinos);
+        rutas.setDefaultTargetDataSource(primario);
+        // Una réplica que no está en el mapa sería un error de configuración, no un motivo para ir al primario
+        rutas.setLenientFallback(false);
+        rutas.afterPropertiesSet();
+        setTargetDataSource(rutas);
+        afterPropertiesSet();
+    }
+
+    public static void forzarPrimario(boolean forzar) {
+        if (forzar) {
+            PRIMARIO_FORZADO.set(Boolean.TRUE);
+        } else {
+            PRIMARIO_FORZADO.remove();
+        }
+    }
+
+    // El primario es su propio bean y lo cierra Spring; las réplicas solo existen aquí
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+
+    private static final class Rutas extends AbstractRoutingDataSource {
+
+        private final int cantidad;
+        private final AtomicInteger turno = new AtomicInteger();
+
+        Rutas(int cantidad) {
+            this.cantidad = cantidad;
+        }
+
+        // null = primario (el destino por defecto)
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    || PRIMARIO_FORZADO.get() != null) {
+                return null;
+            }
+            return Math.floorMod(turno.getAndIncrement(), cantidad);
+        }
+    }
+}
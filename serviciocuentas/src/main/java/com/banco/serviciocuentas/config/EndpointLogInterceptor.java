@@ -0,0 +1,33 @@
+package com.banco.serviciocuentas.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Pone el endpoint en curso ("POST /api/cuentas/cliente/{dui}/abonarefectivo") en el MDC
+// como 'endpoint', para que el log de consultas lentas de Hibernate diga de qué endpoint vino.
+// Se usa el patrón de la ruta, no la URL, para poder agrupar por endpoint.
+public class EndpointLogInterceptor implements AsyncHandlerInterceptor {
+
+    static final String CLAVE_MDC = "endpoint";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        MDC.put(CLAVE_MDC, request.getMethod() + " " + (patron != null ? patron : request.getRequestURI()));
+        return true;
+    }
+
+    // Respuestas asíncronas (login, /stream): el hilo de Tomcat se libera aquí
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        MDC.remove(CLAVE_MDC);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        MDC.remove(CLAVE_MDC);
+    }
+}
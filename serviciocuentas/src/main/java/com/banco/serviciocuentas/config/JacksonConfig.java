@@ -0,0 +1,16 @@
+package com.banco.serviciocuentas.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Spring Boot registra en su ObjectMapper todo bean Module. Blackbird reemplaza la reflexión
+    // de getters y setters por accesos generados con LambdaMetafactory (entidades y records de respuesta)
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,60 @@
+package com.banco.serviciocuentas.config;
+
+import com.banco.serviciocuentas.service.TokenService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+// Lee-lo-que-escribiste con réplicas: quien acaba de hacer un POST/PUT/DELETE lee del primario
+// durante 'ventana' (datasource.replicas.lectura-propia), así no ve su propio abono "desaparecer"
+// mientras la réplica se pone al día. Se identifica por la sesión del token o, sin token, por la IP.
+// La marca se pone al empezar la escritura y se renueva al terminar, así una lectura que llega
+// apenas sale la respuesta ya la encuentra. Es por instancia: detrás de un balanceador sin afinidad
+// la lectura puede caer en otra instancia que no vio la escritura.
+public class LecturaPropiaInterceptor implements AsyncHandlerInterceptor {
+
+    private final Cache<String, Boolean> escritores;
+
+    public LecturaPropiaInterceptor(Duration ventana) {
+        this.escritores = Caffeine.newBuilder().expireAfterWrite(ventana).build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (esLectura(request)) {
+            DataSourceRuteado.forzarPrimario(escritores.getIfPresent(quien(request)) != null);
+        } else {
+            escritores.put(quien(request), Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        DataSourceRuteado.forzarPrimario(false);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!esLectura(request)) {
+            escritores.put(quien(request), Boolean.TRUE);
+        }
+        DataSourceRuteado.forzarPrimario(false);
+    }
+
+    private static boolean esLectura(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    private static String quien(HttpServletRequest request) {
+        if (request.getAttribute(TokenFilter.ATRIBUTO_SESION) instanceof TokenService.Sesion sesion) {
+            return "s" + sesion.credencialesId();
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,47 @@
+package com.banco.serviciocuentas.config;
+
+import com.banco.serviciocuentas.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Valida el token Bearer en memoria (TokenService), sin consultar credenciales. La sesión válida
+// queda en el atributo "sesion" de la petición; qué rutas la exigen lo decide AccesoInterceptor,
+// que ya conoce el endpoint resuelto. Un token ausente o inválido simplemente no deja sesión.
+@Component
+public class TokenFilter extends OncePerRequestFilter {
+
+    public static final String ATRIBUTO_SESION = "sesion";
+
+    private static final String PREFIJO_BEARER = "Bearer ";
+
+    private final TokenService tokens;
+
+    public TokenFilter(TokenService tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Las preconsultas CORS no llevan el header Authorization
+        return HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String autorizacion = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (autorizacion != null && autorizacion.startsWith(PREFIJO_BEARER)) {
+            tokens.validar(autorizacion.substring(PREFIJO_BEARER.length()))
+                    .ifPresent(s -> request.setAttribute(ATRIBUTO_SESION, s));
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,29 @@
+package com.banco.serviciocuentas.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final Duration lecturaPropia;
+    private final ObjectMapper mapper;
+
+    public WebConfig(@Value("${datasource.replicas.lectura-propia:5s}") Duration lecturaPropia, ObjectMapper mapper) {
+        this.lecturaPropia = lecturaPropia;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new EndpointLogInterceptor()).addPathPatterns("/api/**");
+        // Sin patrón de ruta: decide sobre el endpoint resuelto, no sobre la URL
+        registry.addInterceptor(new AccesoInterceptor(mapper));
+        registry.addInterceptor(new LecturaPropiaInterceptor(lecturaPropia)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,47 @@
+package com.banco.serviciocuentas.controller;
+
+import com.banco.serviciocuentas.service.CierreDiario;
+import com.banco.serviciocuentas.service.ResultadoCierre;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/cierres")
+@CrossOrigin(origins = "http://localhost:4200")
+public class CierreController {
+
+    private static final Respuesta<Void> CIERRE_EN_CURSO = Respuesta.error("Ya hay un cierre en curso");
+
+    private final CierreDiario cierreDiario;
+    private final ZoneId zona;
+
+    public CierreController(CierreDiario cierreDiario, @Value("${cierre.zona:America/El_Salvador}") ZoneId zona) {
+        this.cierreDiario = cierreDiario;
+        this.zona = zona;
+    }
+
+    // Ejecuta (o reanuda) el cierre de 'fecha', por defecto el día anterior. Responde al terminar;
+    // repetirlo sobre una fecha ya cerrada no vuelve a aplicar nada
+    @PostMapping
+    public ResponseEntity<?> cerrar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
+        LocalDate dia = fecha != null ? fecha : LocalDate.now(zona).minusDays(1);
+        Optional<ResultadoCierre> resultado = cierreDiario.ejecutar(dia);
+        if (resultado.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CIERRE_EN_CURSO);
+        }
+        ResultadoCierre r = resultado.get();
+        if (!r.terminado()) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new Respuesta<>(false,
+                    r.tramosFallidos() + " tramos fallaron; vuelva a ejecutar el cierre para reanudarlo", r));
+        }
+        return ResponseEntity.ok(Respuesta.exito("Cierre del " + dia + " terminado", r));
+    }
+}
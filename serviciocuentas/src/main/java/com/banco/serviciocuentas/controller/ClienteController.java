@@ -2,39 +2,175 @@ package com.banco.serviciocuentas.controller;
 
 import com.banco.serviciocuentas.model.Cliente;
 import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.ClienteResumen;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.CuentaResumen;
+import com.banco.serviciocuentas.repository.VersionFila;
+import com.banco.serviciocuentas.service.ArchivoClientes;
+import com.banco.serviciocuentas.service.BusquedaClientes;
+import com.banco.serviciocuentas.service.ClienteCache;
+import com.banco.serviciocuentas.service.ImportadorClientes;
+import com.banco.serviciocuentas.service.NdjsonExportador;
+import com.banco.serviciocuentas.service.ResultadoImportacion;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpStatus; // ¡Importa HttpStatus!
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import java.net.URI;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/clientes")
-@CrossOrigin(origins = "http://localhost:4200") // Permite peticiones desde tu aplicación Angular
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = {PaginaKeyset.HEADER_SIGUIENTE, HttpHeaders.ETAG}) // Permite peticiones desde tu aplicación Angular
 public class ClienteController {
 
+    private static final Respuesta<Void> CLIENTE_ACTUALIZADO = Respuesta.exito("Cliente actualizado exitosamente");
+    private static final Respuesta<Void> BUSQUEDA_INVALIDA =
+            Respuesta.error("Debe indicar el texto a buscar (q) y, para seguir, el token de página recibido");
+
     private final ClienteRepository clienteRepo;
+    private final CuentaRepository cuentaRepo;
+    private final ClienteCache clienteCache;
+    private final NdjsonExportador exportador;
+    private final BusquedaClientes busqueda;
+    private final ImportadorClientes importador;
+    private final ArchivoClientes archivo;
+    private final Duration inactividad;
+    private final TransactionTemplate soloLectura;
 
-    public ClienteController(ClienteRepository clienteRepo) {
+    public ClienteController(ClienteRepository clienteRepo,
+                             CuentaRepository cuentaRepo,
+                             ClienteCache clienteCache,
+                             NdjsonExportador exportador,
+                             BusquedaClientes busqueda,
+                             ImportadorClientes importador,
+                             ArchivoClientes archivo,
+                             PlatformTransactionManager txManager,
+                             @Value("${archivo.inactividad:730d}") Duration inactividad) {
         this.clienteRepo = clienteRepo;
+        this.cuentaRepo = cuentaRepo;
+        this.clienteCache = clienteCache;
+        this.exportador = exportador;
+        this.busqueda = busqueda;
+        this.importador = importador;
+        this.archivo = archivo;
+        this.inactividad = inactividad;
+        this.soloLectura = new TransactionTemplate(txManager);
+        this.soloLectura.setReadOnly(true);
     }
 
-    // Listar todos los clientes
+    // Listar clientes por páginas (keyset sobre id)
+    // GET /api/clientes?size=100&after={token}
     @GetMapping
-    public List<Cliente> findAll() {
-        return clienteRepo.findAll();
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> findAll(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size
+    ) {
+        return PaginaKeyset.responder(after, size, this::paginaDetalles, d -> d.cliente().id());
+    }
+
+    // Dos consultas por página sin importar su tamaño: los clientes y luego todas sus cuentas
+    private List<ClienteDetalle> paginaDetalles(Long despuesDe, Limit limit) {
+        List<ClienteResumen> clientes = clienteRepo.findResumenByIdGreaterThanOrderByIdAsc(despuesDe, limit);
+        if (clientes.isEmpty()) {
+            return List.of();
+        }
+        Map<String, List<CuentaResumen>> cuentas = cuentaRepo
+                .findResumenByClienteIdIn(clientes.stream().map(ClienteResumen::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(CuentaResumen::duiCliente));
+        return clientes.stream()
+                .map(c -> new ClienteDetalle(c, cuentas.getOrDefault(c.dui(), List.of())))
+                .toList();
+    }
+
+    // Buscar clientes por prefijo de nombre, apellido o DUI, sin distinguir mayúsculas ni tildes
+    // GET /api/clientes/search?q=maria lop&size=20&after={token}
+    // Mismo contrato de páginas que el listado: token en X-Next-Page-Token, ausente en la última
+    @GetMapping("/search")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size
+    ) {
+        BusquedaClientes.Pagina pagina;
+        try {
+            pagina = busqueda.buscar(q, after, PaginaKeyset.tamano(size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(BUSQUEDA_INVALIDA);
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (pagina.siguiente() != null) {
+            ok.header(PaginaKeyset.HEADER_SIGUIENTE, pagina.siguiente());
+        }
+        return ok.body(pagina.clientes());
+    }
+
+    // Exportar todos los clientes como NDJSON sin cargar la tabla en memoria
+    // GET /api/clientes/stream
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> stream() {
+        return ResponseEntity.ok()
+                .contentType(NdjsonExportador.NDJSON)
+                .body(exportador.exportar(clienteRepo::streamAll));
     }
 
-    // Obtener cliente por DUI
+    // Obtener cliente por DUI, con GET condicional (ETag / If-None-Match)
+    // Primero se leen solo las versiones; si el ETag coincide se responde 304 sin cargar nada más.
+    // Los datos del cliente salen del cache; las cuentas (con sus saldos) siempre se leen de la base.
+    // Versiones y cuentas salen de la misma transacción de solo lectura (la misma réplica). El cache se
+    // consulta después de cerrarla: lo que falte se carga del primario sin retener una segunda conexión
     @GetMapping("/{dui}")
-    public ResponseEntity<Cliente> findByDui(@PathVariable String dui) {
-        return clienteRepo.findByDui(dui)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<ClienteDetalle> findByDui(@PathVariable String dui, WebRequest request) {
+        LecturaCliente lectura = soloLectura.execute(estado -> {
+            List<VersionFila> versiones = clienteRepo.findVersionesByDui(dui);
+            if (versiones.isEmpty()) {
+                return null;
+            }
+            String etag = EtagVersiones.cliente(versiones);
+            if (request.checkNotModified(etag)) {
+                return new LecturaCliente(etag, versiones.get(0).versionCliente(), null);
+            }
+            return new LecturaCliente(etag, versiones.get(0).versionCliente(), cuentaRepo.findResumenByClienteDui(dui));
+        });
+        if (lectura == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (lectura.cuentas() == null) {
+            return null;
+        }
+        Optional<ClienteResumen> cliente = clienteCache.buscar(dui);
+        if (cliente.map(ClienteResumen::version).orElse(-1L) < lectura.versionCliente()) {
+            // El cache quedó atrás de la base (cambio hecho desde otra instancia): el cuerpo
+            // no puede ser más viejo que el ETag, o el navegador guardaría datos viejos como vigentes.
+            // Si el cache va por delante es la réplica la atrasada; el cuerpo ya es el del primario
+            clienteCache.invalidar(dui);
+            cliente = clienteCache.buscar(dui);
+        }
+        return cliente
+                .map(c -> ResponseEntity.ok()
+                        .eTag(lectura.etag())
+                        .cacheControl(EtagVersiones.REVALIDAR)
+                        .body(new ClienteDetalle(c, lectura.cuentas())))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -42,18 +178,14 @@ public class ClienteController {
     // POST /api/clientes
     @PostMapping
     public ResponseEntity<?> create(@RequestBody Cliente cliente) {
-        if (clienteRepo.existsByDui(cliente.getDui())) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Ya existe un cliente con el DUI: " + cliente.getDui());
-            return ResponseEntity.badRequest().body(response);
+        if (clienteCache.existe(cliente.getDui())) {
+            return ResponseEntity.badRequest().body(Respuesta.error("Ya existe un cliente con el DUI: " + cliente.getDui()));
         }
         Cliente saved = clienteRepo.save(cliente);
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("dui", saved.getDui()); // Puedes incluir el DUI creado
-        response.put("message", "Cliente creado exitosamente");
-        return ResponseEntity.created(URI.create("/api/clientes/" + saved.getDui())).body(response);
+        // El cache pudo haber guardado este DUI como inexistente
+        clienteCache.invalidar(saved.getDui());
+        return ResponseEntity.created(URI.create("/api/clientes/" + saved.getDui()))
+                .body(new ClienteCreado(true, saved.getDui(), "Cliente creado exitosamente"));
     }
 
     // Actualizar cliente (campos en el body)
@@ -69,38 +201,96 @@ public class ClienteController {
                     c.setApellido(updatedData.getApellido());
                     c.setFechaNacimiento(updatedData.getFechaNacimiento());
                     clienteRepo.save(c);
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("success", true);
-                    response.put("message", "Cliente actualizado exitosamente");
-                    return ResponseEntity.ok(response);
+                    clienteCache.invalidar(dui);
+                    return ResponseEntity.ok(CLIENTE_ACTUALIZADO);
                 })
-                .orElseGet(() -> {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("success", false);
-                    response.put("message", "No se encontró cliente con el DUI: " + dui);
-                    // **Corrección aquí**
-                    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-                });
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Respuesta.error("No se encontró cliente con el DUI: " + dui)));
     }
 
-    // Borrar cliente por DUI
+    // Borrar cliente por DUI, con sus cuentas y credenciales (ver ArchivoClientes)
     // DELETE /api/clientes/{dui}
+    // Un cliente con movimientos no se borra: se archiva con POST /api/clientes/{dui}/archivo
     @DeleteMapping("/{dui}")
     public ResponseEntity<?> delete(@PathVariable String dui) {
-        Optional<Cliente> opt = clienteRepo.findByDui(dui);
-        if (opt.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "No se encontró cliente con el DUI: " + dui);
-            // **Corrección aquí**
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        ArchivoClientes.Estado estado = archivo.eliminar(dui);
+        if (estado == ArchivoClientes.Estado.hecho) {
+            // ResponseEntity.noContent() es correcto aquí porque el 204 no lleva cuerpo.
+            return ResponseEntity.noContent().build();
         }
-        clienteRepo.delete(opt.get());
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", "Cliente eliminado exitosamente");
-        // ResponseEntity.noContent() es correcto aquí porque el 204 no lleva cuerpo.
-        return ResponseEntity.noContent().build();
+        return rechazoArchivo(dui, estado);
+    }
+
+    // Archivar cliente por DUI: cliente, cuentas, movimientos, estados de cuenta y credenciales
+    // pasan a las tablas *_archivo
+    // POST /api/clientes/{dui}/archivo
+    @PostMapping("/{dui}/archivo")
+    public ResponseEntity<?> archivar(@PathVariable String dui) {
+        ArchivoClientes.Estado estado = archivo.archivar(dui);
+        if (estado == ArchivoClientes.Estado.hecho) {
+            return ResponseEntity.ok(Respuesta.exito("Cliente archivado exitosamente"));
+        }
+        return rechazoArchivo(dui, estado);
+    }
+
+    // Archivar en bloques a los clientes sin saldo y sin movimientos desde 'antesDe'
+    // (por defecto, hace archivo.inactividad)
+    // POST /api/clientes/archivo?antesDe=2024-01-01T00:00:00Z&maximo=10000
+    @PostMapping("/archivo")
+    public ResponseEntity<?> archivarInactivos(
+            @RequestParam(required = false) Instant antesDe,
+            @RequestParam(defaultValue = "10000") int maximo
+    ) {
+        Instant corte = antesDe != null ? antesDe : Instant.now().minus(inactividad);
+        return ResponseEntity.ok(Respuesta.exito("Clientes inactivos archivados",
+                archivo.archivarInactivos(corte, Math.max(maximo, 0))));
+    }
+
+    private static ResponseEntity<?> rechazoArchivo(String dui, ArchivoClientes.Estado estado) {
+        return switch (estado) {
+            case no_encontrado -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Respuesta.error("No se encontró cliente con el DUI: " + dui));
+            case con_movimientos -> ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Respuesta.error("El cliente " + dui + " tiene movimientos registrados; archívelo en lugar de eliminarlo"));
+            case en_motor -> ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Respuesta.error("El cliente " + dui + " tiene cuentas en el motor de saldos"));
+            case hecho -> throw new IllegalArgumentException("No es un rechazo: " + estado);
+        };
+    }
+
+    // Importación masiva de clientes con cuenta y credenciales (ver ImportadorClientes)
+    // POST /api/clientes/importacion  Content-Type: text/csv (con encabezado) o application/x-ndjson
+    // El cuerpo se lee mientras llega, sin cargarlo completo; responde al terminar con los totales
+    // y las filas rechazadas (línea y motivo)
+    @PostMapping(value = "/importacion", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importar(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String tipo,
+            InputStream cuerpo
+    ) throws IOException {
+        ImportadorClientes.Formato formato = tipo.startsWith("text/csv")
+                ? ImportadorClientes.Formato.csv
+                : ImportadorClientes.Formato.ndjson;
+        ResultadoImportacion resultado;
+        try {
+            resultado = importador.importar(cuerpo, formato);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Respuesta.error(e.getMessage()));
+        }
+        return ResponseEntity.ok(new Respuesta<>(resultado.rechazadas() == 0,
+                resultado.rechazadas() == 0 ? "Importación terminada" : "Importación terminada con filas rechazadas",
+                resultado));
+    }
+
+    // Respuesta de GET /api/clientes/{dui} y de cada elemento del listado: mismos campos que la entidad Cliente con sus cuentas
+    public record ClienteDetalle(@JsonUnwrapped ClienteResumen cliente, List<CuentaResumen> cuentas) {
+    }
+
+    // Lo leído de la réplica en findByDui; sin cuentas cuando el ETag coincidió (304)
+    private record LecturaCliente(String etag, long versionCliente, List<CuentaResumen> cuentas) {
+    }
+
+    // Respuesta de POST /api/clientes
+    public record ClienteCreado(boolean success, String dui, String message) {
     }
 
 }
@@ -1,95 +1,150 @@
 package com.banco.serviciocuentas.controller;
 
 import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.TipoCuenta;
 import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.service.ContrasenaService;
+import com.banco.serviciocuentas.service.MetricasBanco;
+import com.banco.serviciocuentas.service.NdjsonExportador;
+import com.banco.serviciocuentas.service.TokenService;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.Optional;
 import org.springframework.http.HttpStatus;
 import java.net.URI;
 import java.util.List;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/credenciales")
-@CrossOrigin(origins = "http://localhost:4200") // Permite peticiones desde tu aplicación Angular
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = PaginaKeyset.HEADER_SIGUIENTE) // Permite peticiones desde tu aplicación Angular
 public class CredencialesController {
 
+    private static final Respuesta<Void> ACTUALIZADAS = Respuesta.exito("Credenciales actualizadas exitosamente");
+    private static final Respuesta<Void> ELIMINADAS = Respuesta.exito("Credenciales eliminadas exitosamente");
+    private static final Respuesta<Void> CREDENCIALES_INVALIDAS = Respuesta.error("Credenciales inválidas");
+    private static final Respuesta<Void> AUTENTICACION_OCUPADA =
+            Respuesta.error("Servicio de autenticación ocupado, intente de nuevo");
+
     private final CredencialesRepository credRepo;
+    private final ContrasenaService contrasenas;
+    private final TokenService tokens;
+    private final MetricasBanco metricas;
+    private final NdjsonExportador exportador;
 
-    public CredencialesController(CredencialesRepository credRepo) {
+    public CredencialesController(CredencialesRepository credRepo,
+                                  ContrasenaService contrasenas,
+                                  TokenService tokens,
+                                  MetricasBanco metricas,
+                                  NdjsonExportador exportador) {
         this.credRepo = credRepo;
+        this.contrasenas = contrasenas;
+        this.tokens = tokens;
+        this.metricas = metricas;
+        this.exportador = exportador;
     }
 
-    // Listar todas las credenciales
+    // Listar credenciales por páginas (keyset sobre id)
+    // GET /api/credenciales?size=100&after={token}
     @GetMapping
-    public List<Credenciales> findAll() {
-        return credRepo.findAll();
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> findAll(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size
+    ) {
+        return PaginaKeyset.responder(after, size, credRepo::findByIdGreaterThanOrderByIdAsc, Credenciales::getId);
+    }
+
+    // Exportar todas las credenciales como NDJSON sin cargar la tabla en memoria
+    // GET /api/credenciales/stream
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> stream() {
+        return ResponseEntity.ok()
+                .contentType(NdjsonExportador.NDJSON)
+                .body(exportador.exportar(credRepo::streamAll));
     }
 
     // Obtener credenciales por DUI
     @GetMapping("/{dui}")
+    @Transactional(readOnly = true)
     public List<Credenciales> findByClienteDui(@PathVariable String dui) {
         return credRepo.findByClienteDui(dui);
     }
 
     // Crear credenciales (body con datos)
     // POST /api/credenciales
+    // El hash corre en el pool de ContrasenaService, no en el hilo de la petición
     @PostMapping
-    public ResponseEntity<?> create(@RequestBody Credenciales cred) {
+    public CompletableFuture<ResponseEntity<?>> create(@RequestBody Credenciales cred) {
         List<Credenciales> existingCreds = credRepo.findByClienteDui(cred.getClienteDui());
         if (!existingCreds.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Ya existe una credencial registrada para el DUI: " + cred.getClienteDui());
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(response); // 409 Conflict
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT) // 409 Conflict
+                    .body(Respuesta.error("Ya existe una credencial registrada para el DUI: " + cred.getClienteDui())));
         }
-        try {
+        return conHash(cred.getContrasena(), hash -> {
+            cred.setContrasena(hash);
             Credenciales saved = credRepo.save(cred);
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("id", saved.getId());
-            response.put("message", "Credenciales creadas exitosamente");
-            return ResponseEntity.created(URI.create("/api/credenciales/" + saved.getId())).body(response);
-        } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Error al crear las credenciales: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
+            return ResponseEntity.created(URI.create("/api/credenciales/" + saved.getId()))
+                    .body(new CredencialesCreadas(true, saved.getId(), "Credenciales creadas exitosamente"));
+        }, "Error al crear las credenciales: ");
     }
 
 
     // Actualizar credenciales por DUI (body con nuevo correo y/o contraseña)
     // PUT /api/credenciales/{dui}
     @PutMapping("/{dui}")
-    public ResponseEntity<?> update(
+    public CompletableFuture<ResponseEntity<?>> update(
             @PathVariable String dui,
             @RequestBody Credenciales updated
     ) {
         List<Credenciales> creds = credRepo.findByClienteDui(dui);
         if (creds.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "No se encontraron credenciales con el DUI: " + dui);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            return CompletableFuture.completedFuture(noEncontradas(dui));
+        }
+        Credenciales c = creds.get(0);
+        c.setCorreo(updated.getCorreo());
+        if (updated.getContrasena() == null) {
+            try {
+                credRepo.save(c);
+                return CompletableFuture.completedFuture(ResponseEntity.ok(ACTUALIZADAS));
+            } catch (Exception e) {
+                return CompletableFuture.completedFuture(errorInterno("Error al actualizar las credenciales: ", e));
+            }
         }
+        return conHash(updated.getContrasena(), hash -> {
+            c.setContrasena(hash);
+            credRepo.save(c);
+            return ResponseEntity.ok(ACTUALIZADAS);
+        }, "Error al actualizar las credenciales: ");
+    }
+
+    // Hashea 'contrasena' y guarda con 'guardar' fuera del hilo de la petición. Pool de hash lleno: 503, como el login
+    private CompletableFuture<ResponseEntity<?>> conHash(String contrasena, Function<String, ResponseEntity<?>> guardar,
+                                                         String mensajeError) {
+        CompletableFuture<ResponseEntity<?>> resultado;
         try {
-            Credenciales c = creds.get(0);
-            c.setCorreo(updated.getCorreo());
-            c.setContrasena(updated.getContrasena());
-            Credenciales saved = credRepo.save(c);
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Credenciales actualizadas exitosamente");
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Error al actualizar las credenciales: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            resultado = contrasenas.hashearYGuardar(contrasena, guardar);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(AUTENTICACION_OCUPADA));
         }
+        return resultado.exceptionally(e -> {
+            Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (causa instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(AUTENTICACION_OCUPADA);
+            }
+            return errorInterno(mensajeError, causa);
+        });
+    }
+
+    private static ResponseEntity<?> errorInterno(String mensaje, Throwable e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Respuesta.error(mensaje + e.getMessage()));
     }
 
     // Borrar credenciales por DUI
@@ -98,25 +153,22 @@ public class CredencialesController {
     public ResponseEntity<?> delete(@PathVariable String dui) {
         List<Credenciales> creds = credRepo.findByClienteDui(dui);
         if (creds.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "No se encontraron credenciales con el DUI: " + dui);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            return noEncontradas(dui);
         }
         try {
             credRepo.deleteAll(creds);
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Credenciales eliminadas exitosamente");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ELIMINADAS);
         } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Error al eliminar las credenciales: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Respuesta.error("Error al eliminar las credenciales: " + e.getMessage()));
         }
     }
 
+    private static ResponseEntity<?> noEncontradas(String dui) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Respuesta.error("No se encontraron credenciales con el DUI: " + dui));
+    }
+
     // DTO simple para login
     public static class LoginRequest {
         private String correo;
@@ -128,28 +180,46 @@ public class CredencialesController {
     }
 
     // POST /api/credenciales/login
+    // La búsqueda por correo se hace en el hilo de la petición; el hash se verifica en el pool
+    // de ContrasenaService y la respuesta (solo armar el token) se completa de forma asíncrona desde allí
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest req) {
-        Optional<Credenciales> opt = credRepo.findByCorreoAndContrasena(
-                req.getCorreo(), req.getContrasena()
-        );
-        if (opt.isPresent()) {
-            Credenciales credenciales = opt.get(); // Obtenemos el objeto Credenciales
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("token", "un_token_seguro_generado"); // Para generar un token real mas adelante
-            response.put("message", "Login exitoso");
-            response.put("tipoUsuario", credenciales.getTipoCuenta());
-            if (credenciales.getClienteDui() != null) {
-                response.put("clienteDui", credenciales.getClienteDui());
-            }
-            return ResponseEntity.ok(response); // Devuelve 200 OK con el cuerpo de respuesta
-        } else {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Credenciales inválidas");
-            return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest req) {
+        Optional<Credenciales> opt = req.getCorreo() == null ? Optional.empty() : credRepo.findByCorreo(req.getCorreo());
+        String hash = opt.map(Credenciales::getContrasena).orElse(null);
+        CompletableFuture<Boolean> verificacion;
+        try {
+            verificacion = contrasenas.verificar(req.getContrasena(), hash);
+        } catch (RejectedExecutionException e) {
+            metricas.loginOcupado();
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(AUTENTICACION_OCUPADA));
         }
+        return verificacion.thenApply(valida -> {
+            metricas.login(valida);
+            if (valida) {
+                Credenciales credenciales = opt.get(); // Obtenemos el objeto Credenciales
+                // Filas migradas ({noop}) o con un costo de bcrypt anterior se actualizan en segundo plano,
+                // después de responder y fuera del pool de verificación
+                if (contrasenas.requiereRehash(hash)) {
+                    contrasenas.rehashear(req.getContrasena(),
+                            nuevo -> credRepo.actualizarContrasena(credenciales.getId(), nuevo));
+                }
+                // El token se envía después como "Authorization: Bearer <token>"
+                return ResponseEntity.ok(new LoginExitoso(true, "Login exitoso", tokens.emitir(credenciales),
+                        credenciales.getTipoCuenta(), credenciales.getClienteDui()));
+            } else {
+                return ResponseEntity.ok(CREDENCIALES_INVALIDAS);
+            }
+        });
+    }
+
+    // Respuesta de POST /api/credenciales
+    public record CredencialesCreadas(boolean success, Long id, String message) {
+    }
+
+    // Respuesta de un login exitoso; clienteDui no se escribe para empleados
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record LoginExitoso(boolean success, String message, String token, TipoCuenta tipoUsuario, String clienteDui) {
     }
 
-}
\ No newline at end of file
+}
@@ -1,209 +1,557 @@
 package com.banco.serviciocuentas.controller;
 
-import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.config.TokenFilter;
 import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Dinero;
 import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.ClienteResumen;
 import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.CuentaResumen;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import com.banco.serviciocuentas.repository.VersionFila;
+import com.banco.serviciocuentas.service.BloqueoCuentas;
+import com.banco.serviciocuentas.service.ClienteCache;
+import com.banco.serviciocuentas.service.InstruccionLote;
+import com.banco.serviciocuentas.service.LoteService;
+import com.banco.serviciocuentas.service.MetricasBanco;
+import com.banco.serviciocuentas.service.MotorSaldos;
+import com.banco.serviciocuentas.service.NdjsonExportador;
+import com.banco.serviciocuentas.service.ResultadoLote;
+import com.banco.serviciocuentas.service.ResultadoMovimiento;
+import com.banco.serviciocuentas.service.ResultadoTransferencia;
+import com.banco.serviciocuentas.service.SaldoEventos;
+import com.banco.serviciocuentas.service.SaldoService;
+import com.banco.serviciocuentas.service.TokenService;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
-import java.util.HashMap; // Importar HashMap
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;     // Importar Map
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/cuentas")
-@CrossOrigin(origins = "http://localhost:4200") // Permite peticiones desde tu aplicación Angular
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = {PaginaKeyset.HEADER_SIGUIENTE, HttpHeaders.ETAG, Idempotencia.HEADER_REPETIDA}) // Permite peticiones desde tu aplicación Angular
 public class CuentaController {
 
+    private static final Respuesta<Void> MONTO_INVALIDO = Respuesta.error(
+            "El monto debe ser mayor que cero y no mayor que " + Dinero.formatear(Dinero.MONTO_MAXIMO_CENTAVOS));
+    private static final Respuesta<Void> SALDO_MAXIMO_EXCEDIDO =
+            Respuesta.error("El abono excede el saldo máximo que admite la cuenta");
+    private static final Respuesta<Void> MISMA_CUENTA =
+            Respuesta.error("La cuenta de origen y la de destino deben ser distintas");
+    private static final Respuesta<Void> TAMANO_LOTE_INVALIDO =
+            Respuesta.error("El lote debe tener entre 1 y " + LoteService.MAX_INSTRUCCIONES + " instrucciones");
+    private static final Respuesta<Void> CUENTA_ELIMINADA = Respuesta.exito("Cuenta eliminada correctamente");
+    private static final Respuesta<Void> SIN_CONFIRMAR = Respuesta.error(
+            "El movimiento no se confirmó a tiempo y puede haberse aplicado; consulte el saldo antes de repetirlo");
+
     private final ClienteRepository clienteRepo;
+    private final ClienteCache clienteCache;
     private final CuentaRepository cuentaRepo;
+    private final MovimientoRepository movimientoRepo;
+    private final NdjsonExportador exportador;
+    private final SaldoService saldoService;
+    private final LoteService loteService;
+    private final MetricasBanco metricas;
+    private final SaldoEventos saldoEventos;
+    private final Idempotencia idempotencia;
+    private final MotorSaldos motor;
+    private final BloqueoCuentas bloqueo;
 
     public CuentaController(ClienteRepository clienteRepo,
-                            CuentaRepository cuentaRepo) {
+                            ClienteCache clienteCache,
+                            CuentaRepository cuentaRepo,
+                            MovimientoRepository movimientoRepo,
+                            NdjsonExportador exportador,
+                            SaldoService saldoService,
+                            LoteService loteService,
+                            MetricasBanco metricas,
+                            SaldoEventos saldoEventos,
+                            Idempotencia idempotencia,
+                            MotorSaldos motor,
+                            BloqueoCuentas bloqueo) {
         this.clienteRepo = clienteRepo;
+        this.clienteCache = clienteCache;
         this.cuentaRepo = cuentaRepo;
+        this.movimientoRepo = movimientoRepo;
+        this.exportador = exportador;
+        this.saldoService = saldoService;
+        this.loteService = loteService;
+        this.metricas = metricas;
+        this.saldoEventos = saldoEventos;
+        this.idempotencia = idempotencia;
+        this.motor = motor;
+        this.bloqueo = bloqueo;
     }
 
-    // Listar todas las cuentas
-    // Este método ya devuelve una lista, lo cual es estándar.
+    // Listar cuentas por páginas (keyset sobre id)
+    // GET /api/cuentas?size=100&after={token}
     // Una lista vacía es el caso de "no encontradas".
     @GetMapping
-    public List<Cuenta> findAll() {
-        return cuentaRepo.findAll();
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> findAll(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size
+    ) {
+        return PaginaKeyset.responder(after, size, cuentaRepo::findResumenByIdGreaterThan, CuentaResumen::id);
+    }
+
+    // Exportar todas las cuentas como NDJSON sin cargar la tabla en memoria
+    // GET /api/cuentas/stream
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> stream() {
+        return ResponseEntity.ok()
+                .contentType(NdjsonExportador.NDJSON)
+                .body(exportador.exportar(cuentaRepo::streamAll));
     }
 
-    // Listar cuentas de un cliente por DUI
+    // Listar cuentas de un cliente por DUI, con GET condicional (ETag / If-None-Match)
     // GET /api/cuentas/cliente/{dui}
+    // Si ninguna cuenta cambió desde el ETag recibido se responde 304 tras una consulta de solo versiones.
+    // Versiones y cuerpo salen de la misma transacción de solo lectura, es decir de la misma réplica
     @GetMapping("/cliente/{dui}")
-    public ResponseEntity<?> findByClienteDui(@PathVariable String dui) {
-        Optional<Cliente> optCliente = clienteRepo.findByDui(dui);
-        if (optCliente.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Cliente con DUI " + dui + " no encontrado");
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> findByClienteDui(@PathVariable String dui, WebRequest request) {
+        List<VersionFila> versiones = clienteRepo.findVersionesByDui(dui);
+        if (versiones.isEmpty()) {
+            return clienteNoEncontrado(dui);
+        }
+        String etag = EtagVersiones.cuentas(versiones);
+        if (request.checkNotModified(etag)) {
+            return null;
         }
+        List<CuentaResumen> cuentas = cuentaRepo.findResumenByClienteDui(dui);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(EtagVersiones.REVALIDAR)
+                .body(Respuesta.exito("Cuentas encontradas para cliente con DUI " + dui, cuentas));
+    }
 
-        List<Cuenta> cuentas = optCliente.get().getCuentas();
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", "Cuentas encontradas para cliente con DUI " + dui);
-        response.put("data", cuentas); // Incluimos la lista de cuentas en 'data'
-        return ResponseEntity.ok(response);
+    // Suscribirse a los cambios de saldo de las cuentas de un cliente (Server-Sent Events)
+    // GET /api/cuentas/cliente/{dui}/eventos
+    // Cada abono, retiro, transferencia o lote confirmado envía un evento "saldo" con {dui, numero, saldo}.
+    // Pide el mismo token Bearer que las demás rutas del cliente; como EventSource no permite headers,
+    // el front end abre el stream con fetch. El tipo de retorno debe nombrar SseEmitter para que MVC
+    // lo trate como stream; por eso el 404 va sin cuerpo
+    @GetMapping("/cliente/{dui}/eventos")
+    public ResponseEntity<SseEmitter> eventos(@PathVariable String dui) {
+        if (!clienteCache.existe(dui)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(saldoEventos.suscribir(dui));
     }
 
     // Crear cuenta para un cliente (recibe JSON con número y saldo)
     // POST /api/cuentas/cliente/{dui}
+    // Acepta Idempotency-Key, igual que abonar y retirar (ver Idempotencia)
     @PostMapping("/cliente/{dui}")
     public ResponseEntity<?> create(
             @PathVariable String dui,
-            @RequestBody Cuenta cuentaData
+            @RequestBody Cuenta cuentaData,
+            @RequestHeader(name = Idempotencia.HEADER, required = false) String clave,
+            @RequestAttribute(name = TokenFilter.ATRIBUTO_SESION, required = false) TokenService.Sesion sesion
     ) {
-        Optional<Cliente> optCliente = clienteRepo.findByDui(dui);
+        return idempotencia.ejecutar(clave, alcance(sesion),
+                "crear|" + dui + "|" + cuentaData.getNumero() + "|" + cuentaData.getSaldoCentavos(),
+                () -> crear(dui, cuentaData));
+    }
+
+    private ResponseEntity<?> crear(String dui, Cuenta cuentaData) {
+        Optional<ClienteResumen> optCliente = clienteCache.buscar(dui);
         if (optCliente.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Cliente con DUI " + dui + " no encontrado");
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            return clienteNoEncontrado(dui);
         }
-        Cliente cliente = optCliente.get();
 
         Cuenta nueva = new Cuenta();
         nueva.setNumero(cuentaData.getNumero());
-        nueva.setSaldo(cuentaData.getSaldo());
-        nueva.setCliente(cliente);
+        nueva.setSaldoCentavos(cuentaData.getSaldoCentavos());
+        // Solo hace falta la llave foránea; no cargamos el Cliente
+        nueva.setCliente(clienteRepo.getReferenceById(optCliente.get().id()));
 
         Cuenta saved = cuentaRepo.save(nueva);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", "Cuenta creada exitosamente");
-        response.put("data", saved); // Incluimos la cuenta creada en 'data'
-
-        // Usamos 201 Created, que es estándar para creaciones exitosas
+        // Usamos 201 Created, que es estándar para creaciones exitosas.
+        // Mismo JSON que la entidad, sin tocar la referencia perezosa al Cliente fuera de la sesión
         return ResponseEntity
                 .created(URI.create("/api/cuentas/" + saved.getNumero()))
-                .body(response);
+                .body(Respuesta.exito("Cuenta creada exitosamente",
+                        new CuentaResumen(saved.getId(), saved.getNumero(), saved.getSaldoCentavos(), dui)));
     }
 
     // Borrar cuenta por DUI y número
     // DELETE /api/cuentas/cliente/{dui}/{numero}
+    // La fila de la cuenta se bloquea antes de revisar movimientos: un abono o retiro concurrente
+    // espera al borrado (o el borrado a él), así no se cuela un movimiento entre la revisión y el DELETE
     @DeleteMapping("/cliente/{dui}/{numero}")
-    public ResponseEntity<Map<String, Object>> delete(
+    @Transactional
+    public ResponseEntity<Respuesta<Void>> delete(
             @PathVariable String dui,
             @PathVariable String numero
     ) {
-        Optional<Cuenta> opt = cuentaRepo.findByClienteDuiAndNumero(dui, numero);
-        Map<String, Object> response = new HashMap<>();
+        Optional<Long> id = cuentaRepo.findIdByClienteDuiAndNumero(dui, numero);
+        // Una cuenta borrada entre la consulta y el bloqueo cuenta como no encontrada
+        if (id.isEmpty() || bloqueo.bloquear(List.of(id.get())).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Respuesta.error(String.format(
+                    "No se encontró la cuenta %s para el cliente %s", numero, dui)));
+        }
+        if (motor.administra(dui, numero)) {
+            return cuentaEnMotor(dui, numero);
+        }
 
-        if (opt.isEmpty()) {
-            response.put("success", false);
-            response.put("message", String.format(
-                    "No se encontró la cuenta %s para el cliente %s", numero, dui));
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        // El historial de movimientos es inmutable; una cuenta con movimientos no se borra
+        if (movimientoRepo.existsByCuentaId(id.get())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Respuesta.error(String.format(
+                    "La cuenta %s tiene movimientos registrados y no puede eliminarse", numero)));
         }
 
-        cuentaRepo.delete(opt.get());
-        response.put("success", true);
-        response.put("message", "Cuenta eliminada correctamente");
-        return ResponseEntity.ok(response);
+        cuentaRepo.deleteById(id.get());
+        return ResponseEntity.ok(CUENTA_ELIMINADA);
     }
 
+    // Historial de movimientos de una cuenta, del más reciente al más antiguo (keyset sobre fecha e id)
+    // GET /api/cuentas/cliente/{dui}/{numero}/movimientos?size=100&after={token}
+    @GetMapping("/cliente/{dui}/{numero}/movimientos")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> movimientos(
+            @PathVariable String dui,
+            @PathVariable String numero,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer size
+    ) {
+        Optional<Long> cuentaId = cuentaRepo.findIdByClienteDuiAndNumero(dui, numero);
+        if (cuentaId.isEmpty()) {
+            return cuentaNoEncontrada(dui, numero);
+        }
+        return PaginaKeyset.responder(after, 2, size,
+                (cursor, limit) -> cursor == null
+                        ? movimientoRepo.findRecientes(cuentaId.get(), limit)
+                        : movimientoRepo.findAnteriores(cuentaId.get(), microsAInstant(cursor[0]), cursor[1], limit),
+                m -> new long[]{ChronoUnit.MICROS.between(Instant.EPOCH, m.getFecha()), m.getId()});
+    }
+
+    private static Instant microsAInstant(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
 
     // Abonar efectivo (recibe JSON con número de cuenta y monto)
     // POST /api/cuentas/cliente/{dui}/abonarefectivo
+    // Con Idempotency-Key un reintento del mismo abono devuelve la respuesta original sin abonar de nuevo
     @PostMapping("/cliente/{dui}/abonarefectivo")
     public ResponseEntity<?> abonar( // Cambiamos a <?>
                                      @PathVariable String dui,
-                                     @RequestBody CuentaAbonoRequest req
+                                     @RequestBody CuentaAbonoRequest req,
+                                     @RequestHeader(name = Idempotencia.HEADER, required = false) String clave,
+                                     @RequestAttribute(name = TokenFilter.ATRIBUTO_SESION, required = false) TokenService.Sesion sesion
     ) {
-        Optional<Cliente> optCliente = clienteRepo.findByDui(dui);
-        if (optCliente.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Cliente con DUI " + dui + " no encontrado");
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        // Un rechazo del motor (saturado o detenido) no aplicó nada: sale como excepción y libera la llave
+        try {
+            return idempotencia.ejecutar(clave, alcance(sesion),
+                    "abonar|" + dui + "|" + req.getNumero() + "|" + req.getMontoCentavos(),
+                    () -> abonar(dui, req));
+        } catch (RejectedExecutionException e) {
+            return motorNoDisponible(e);
         }
-        Cliente cliente = optCliente.get();
+    }
 
-        Optional<Cuenta> optCuenta = cliente.getCuentas().stream()
-                .filter(c -> c.getNumero().equals(req.getNumero()))
-                .findFirst();
-        if (optCuenta.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Cuenta con número " + req.getNumero() + " no encontrada para el cliente con DUI " + dui);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    private ResponseEntity<?> abonar(String dui, CuentaAbonoRequest req) {
+        if (!Dinero.montoValido(req.getMontoCentavos())) {
+            return montoInvalido();
         }
-
-        Cuenta cuenta = optCuenta.get();
-        cuenta.setSaldo(cuenta.getSaldo() + req.getMonto());
-        Cuenta updatedCuenta = cuentaRepo.save(cuenta); // Guardamos y obtenemos la cuenta actualizada
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", "Abono exitoso.");
-        response.put("newSaldo", updatedCuenta.getSaldo()); // Opcional: devolver el nuevo saldo
-        response.put("data", updatedCuenta); // Opcional: devolver la cuenta actualizada
-
-        return ResponseEntity.ok(response);
+        // Las cuentas recaudadoras configuradas en el motor no pasan por la base en cada abono
+        ResultadoMovimiento resultado = motor.administra(dui, req.getNumero())
+                ? motor.abonar(dui, req.getNumero(), req.getMontoCentavos())
+                : saldoService.abonar(dui, req.getNumero(), req.getMontoCentavos());
+        if (resultado.estado() == ResultadoMovimiento.Estado.CUENTA_NO_ENCONTRADA) {
+            return cuentaNoEncontrada(dui, req.getNumero());
+        }
+        if (resultado.estado() == ResultadoMovimiento.Estado.SIN_CONFIRMAR) {
+            // Se guarda con la llave de idempotencia: repetirla no lo aplica otra vez
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(SIN_CONFIRMAR);
+        }
+        if (resultado.estado() == ResultadoMovimiento.Estado.SALDO_MAXIMO_EXCEDIDO) {
+            return ResponseEntity.badRequest().body(SALDO_MAXIMO_EXCEDIDO);
+        }
+        metricas.movimiento(InstruccionLote.Tipo.abono, req.getMontoCentavos());
+        return ResponseEntity.ok(RespuestaMovimiento.de("Abono exitoso.", resultado.cuenta()));
     }
 
     // Retirar efectivo (recibe JSON con número de cuenta y monto)
     // POST /api/cuentas/cliente/{dui}/retirarefectivo
+    // Con Idempotency-Key un reintento del mismo retiro devuelve la respuesta original sin retirar de nuevo
     @PostMapping("/cliente/{dui}/retirarefectivo")
     public ResponseEntity<?> retirar( // Cambiamos a <?>
                                       @PathVariable String dui,
-                                      @RequestBody CuentaAbonoRequest req
+                                      @RequestBody CuentaAbonoRequest req,
+                                      @RequestHeader(name = Idempotencia.HEADER, required = false) String clave,
+                                      @RequestAttribute(name = TokenFilter.ATRIBUTO_SESION, required = false) TokenService.Sesion sesion
     ) {
-        Optional<Cliente> optCliente = clienteRepo.findByDui(dui);
-        if (optCliente.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Cliente con DUI " + dui + " no encontrado");
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-        }
-        Cliente cliente = optCliente.get();
-
-        Optional<Cuenta> optCuenta = cliente.getCuentas().stream()
-                .filter(c -> c.getNumero().equals(req.getNumero()))
-                .findFirst();
-        if (optCuenta.isEmpty()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Cuenta con número " + req.getNumero() + " no encontrada para el cliente con DUI " + dui);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-        }
-
-        Cuenta cuenta = optCuenta.get();
-        if (cuenta.getSaldo() < req.getMonto()) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Saldo insuficiente. Saldo actual: " + cuenta.getSaldo());
+        try {
+            return idempotencia.ejecutar(clave, alcance(sesion),
+                    "retirar|" + dui + "|" + req.getNumero() + "|" + req.getMontoCentavos(),
+                    () -> retirar(dui, req));
+        } catch (RejectedExecutionException e) {
+            return motorNoDisponible(e);
+        }
+    }
+
+    private ResponseEntity<?> retirar(String dui, CuentaAbonoRequest req) {
+        if (!Dinero.montoValido(req.getMontoCentavos())) {
+            return montoInvalido();
+        }
+        ResultadoMovimiento resultado = motor.administra(dui, req.getNumero())
+                ? motor.retirar(dui, req.getNumero(), req.getMontoCentavos())
+                : saldoService.retirar(dui, req.getNumero(), req.getMontoCentavos());
+        if (resultado.estado() == ResultadoMovimiento.Estado.CUENTA_NO_ENCONTRADA) {
+            return cuentaNoEncontrada(dui, req.getNumero());
+        }
+        if (resultado.estado() == ResultadoMovimiento.Estado.SIN_CONFIRMAR) {
+            // Se guarda con la llave de idempotencia: repetirla no lo aplica otra vez
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(SIN_CONFIRMAR);
+        }
+        if (resultado.estado() == ResultadoMovimiento.Estado.SALDO_INSUFICIENTE) {
+            metricas.saldoInsuficiente(InstruccionLote.Tipo.retiro);
             // Usamos 400 Bad Request para errores de lógica de negocio (saldo insuficiente)
-            return ResponseEntity.badRequest().body(response);
+            return saldoInsuficiente(resultado.cuenta().getSaldoCentavos());
         }
 
-        cuenta.setSaldo(cuenta.getSaldo() - req.getMonto());
-        Cuenta updatedCuenta = cuentaRepo.save(cuenta); // Guardamos y obtenemos la cuenta actualizada
+        metricas.movimiento(InstruccionLote.Tipo.retiro, req.getMontoCentavos());
+        return ResponseEntity.ok(RespuestaMovimiento.de("Retiro exitoso.", resultado.cuenta()));
+    }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", "Retiro exitoso.");
-        response.put("newSaldo", updatedCuenta.getSaldo()); // Opcional: devolver el nuevo saldo
-        response.put("data", updatedCuenta); // Opcional: devolver la cuenta actualizada
+    // Transferir entre dos cuentas: el débito y el crédito se aplican juntos o ninguno
+    // POST /api/cuentas/transferir
+    @PostMapping("/transferir")
+    public ResponseEntity<?> transferir(@RequestBody TransferenciaRequest req,
+                                        @RequestAttribute(name = TokenFilter.ATRIBUTO_SESION) TokenService.Sesion sesion) {
+        if (!sesion.puedeAcceder(req.getDuiOrigen())) {
+            return sinAcceso(req.getDuiOrigen());
+        }
+        if (!Dinero.montoValido(req.getMontoCentavos())) {
+            return montoInvalido();
+        }
+        if (Objects.equals(req.getDuiOrigen(), req.getDuiDestino())
+                && Objects.equals(req.getNumeroOrigen(), req.getNumeroDestino())) {
+            return ResponseEntity.badRequest().body(MISMA_CUENTA);
+        }
+        if (motor.administra(req.getDuiOrigen(), req.getNumeroOrigen())) {
+            return cuentaEnMotor(req.getDuiOrigen(), req.getNumeroOrigen());
+        }
+        if (motor.administra(req.getDuiDestino(), req.getNumeroDestino())) {
+            return cuentaEnMotor(req.getDuiDestino(), req.getNumeroDestino());
+        }
 
+        ResultadoTransferencia resultado = saldoService.transferir(
+                req.getDuiOrigen(), req.getNumeroOrigen(),
+                req.getDuiDestino(), req.getNumeroDestino(),
+                req.getMontoCentavos());
+        switch (resultado.estado()) {
+            case ORIGEN_NO_ENCONTRADO:
+                return cuentaNoEncontrada(req.getDuiOrigen(), req.getNumeroOrigen());
+            case DESTINO_NO_ENCONTRADO:
+                return cuentaNoEncontrada(req.getDuiDestino(), req.getNumeroDestino());
+            case SALDO_INSUFICIENTE: {
+                metricas.saldoInsuficiente(InstruccionLote.Tipo.transferencia);
+                return saldoInsuficiente(resultado.saldoOrigenCentavos());
+            }
+            default: {
+                metricas.movimiento(InstruccionLote.Tipo.transferencia, req.getMontoCentavos());
+                return ResponseEntity.ok(new RespuestaTransferencia(true, "Transferencia exitosa.",
+                        Dinero.aDecimal(resultado.saldoOrigenCentavos()),
+                        Dinero.aDecimal(resultado.saldoDestinoCentavos())));
+            }
+        }
+    }
+
+    // Aplicar un lote de abonos, retiros y transferencias (nómina, liquidaciones) en una sola llamada
+    // POST /api/cuentas/lote  { "atomico": true, "instrucciones": [ {"tipo": "abono", "dui": ..., "numero": ..., "monto": ...}, ... ] }
+    @PostMapping("/lote")
+    public ResponseEntity<?> lote(@RequestBody LoteRequest req,
+                                  @RequestAttribute(name = TokenFilter.ATRIBUTO_SESION) TokenService.Sesion sesion) {
+        List<InstruccionLote> instrucciones = req.getInstrucciones();
+        if (instrucciones == null || instrucciones.isEmpty() || instrucciones.size() > LoteService.MAX_INSTRUCCIONES) {
+            return ResponseEntity.badRequest().body(TAMANO_LOTE_INVALIDO);
+        }
+        for (InstruccionLote ins : instrucciones) {
+            // (dui, numero) es la cuenta que se debita en retiros y transferencias; un cliente solo opera las suyas
+            if (ins != null && !sesion.puedeAcceder(ins.dui())) {
+                return sinAcceso(ins.dui());
+            }
+            if (ins != null && motor.administra(ins.dui(), ins.numero())) {
+                return cuentaEnMotor(ins.dui(), ins.numero());
+            }
+            if (ins != null && motor.administra(ins.duiDestino(), ins.numeroDestino())) {
+                return cuentaEnMotor(ins.duiDestino(), ins.numeroDestino());
+            }
+        }
+
+        ResultadoLote resultado = loteService.aplicar(instrucciones, req.isAtomico());
+        for (ResultadoLote.Item item : resultado.resultados()) {
+            InstruccionLote ins = instrucciones.get(item.indice());
+            if (item.estado() == ResultadoLote.Estado.aplicado) {
+                metricas.movimiento(ins.tipo(), ins.montoCentavos());
+            } else if (item.estado() == ResultadoLote.Estado.saldo_insuficiente) {
+                metricas.saldoInsuficiente(ins.tipo());
+            }
+        }
+        RespuestaLote response = new RespuestaLote(resultado.rechazadas() == 0,
+                resultado.rechazadas() == 0
+                        ? "Lote aplicado exitosamente"
+                        : (req.isAtomico() ? "Lote rechazado: ninguna instrucción fue aplicada" : "Lote aplicado parcialmente"),
+                resultado.aplicadas(), resultado.rechazadas(), resultado.resultados());
+        // En modo atómico un rechazo anula el lote completo, igual que un retiro sin saldo
+        if (req.isAtomico() && resultado.rechazadas() > 0) {
+            return ResponseEntity.badRequest().body(response);
+        }
         return ResponseEntity.ok(response);
     }
 
-    // DTO para abono/retiro (sin cambios)
+    // Las llaves de idempotencia son por sesión; estas rutas siempre llevan token (AccesoInterceptor)
+    private static String alcance(TokenService.Sesion sesion) {
+        return sesion == null ? "-" : Long.toString(sesion.credencialesId());
+    }
+
+    // Distingue si lo que falta es el cliente o la cuenta; solo se consulta en el camino de error
+    private ResponseEntity<?> cuentaNoEncontrada(String dui, String numero) {
+        if (!clienteCache.existe(dui)) {
+            return clienteNoEncontrado(dui);
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Respuesta.error("Cuenta con número " + numero + " no encontrada para el cliente con DUI " + dui));
+    }
+
+    // Su saldo en la base se actualiza con retraso (MotorSaldos); solo admite abonos y retiros
+    private static ResponseEntity<Respuesta<Void>> cuentaEnMotor(String dui, String numero) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Respuesta.error(String.format(
+                "La cuenta %s del cliente %s solo admite abonos y retiros", numero, dui)));
+    }
+
+    private static ResponseEntity<?> motorNoDisponible(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Respuesta.error(e.getMessage()));
+    }
+
+    private static ResponseEntity<?> sinAcceso(String dui) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Respuesta.error("No tiene acceso a las cuentas del cliente " + dui));
+    }
+
+    private static ResponseEntity<?> clienteNoEncontrado(String dui) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Respuesta.error("Cliente con DUI " + dui + " no encontrado"));
+    }
+
+    private static ResponseEntity<?> montoInvalido() {
+        return ResponseEntity.badRequest().body(MONTO_INVALIDO);
+    }
+
+    private static ResponseEntity<?> saldoInsuficiente(long saldoCentavos) {
+        return ResponseEntity.badRequest().body(Respuesta.error("Saldo insuficiente. Saldo actual: " + Dinero.formatear(saldoCentavos)));
+    }
+
+    // Respuesta de abonar/retirar: el nuevo saldo y la cuenta actualizada
+    public record RespuestaMovimiento(boolean success, String message, double newSaldo, Cuenta data) {
+        static RespuestaMovimiento de(String message, Cuenta cuenta) {
+            return new RespuestaMovimiento(true, message, Dinero.aDecimal(cuenta.getSaldoCentavos()), cuenta);
+        }
+    }
+
+    public record RespuestaTransferencia(boolean success, String message, double saldoOrigen, double saldoDestino) {
+    }
+
+    public record RespuestaLote(boolean success, String message, int aplicadas, int rechazadas,
+                                List<ResultadoLote.Item> data) {
+    }
+
+    // DTO para transferencias entre cuentas
+    public static class TransferenciaRequest {
+        private String duiOrigen;
+        private String numeroOrigen;
+        private String duiDestino;
+        private String numeroDestino;
+        private long montoCentavos;
+
+        public String getDuiOrigen() {
+            return duiOrigen;
+        }
+
+        public void setDuiOrigen(String duiOrigen) {
+            this.duiOrigen = duiOrigen;
+        }
+
+        public String getNumeroOrigen() {
+            return numeroOrigen;
+        }
+
+        public void setNumeroOrigen(String numeroOrigen) {
+            this.numeroOrigen = numeroOrigen;
+        }
+
+        public String getDuiDestino() {
+            return duiDestino;
+        }
+
+        public void setDuiDestino(String duiDestino) {
+            this.duiDestino = duiDestino;
+        }
+
+        public String getNumeroDestino() {
+            return numeroDestino;
+        }
+
+        public void setNumeroDestino(String numeroDestino) {
+            this.numeroDestino = numeroDestino;
+        }
+
+        @JsonProperty("monto")
+        @JsonSerialize(using = Dinero.Serializador.class)
+        public long getMontoCentavos() {
+            return montoCentavos;
+        }
+
+        @JsonProperty("monto")
+        @JsonDeserialize(using = Dinero.Deserializador.class)
+        public void setMontoCentavos(long montoCentavos) {
+            this.montoCentavos = montoCentavos;
+        }
+    }
+
+    // DTO para lotes; 'atomico' indica si un rechazo anula todo el lote (todo o nada)
+    public static class LoteRequest {
+        private boolean atomico = true;
+        private List<InstruccionLote> instrucciones;
+
+        public boolean isAtomico() {
+            return atomico;
+        }
+
+        public void setAtomico(boolean atomico) {
+            this.atomico = atomico;
+        }
+
+        public List<InstruccionLote> getInstrucciones() {
+            return instrucciones;
+        }
+
+        public void setInstrucciones(List<InstruccionLote> instrucciones) {
+            this.instrucciones = instrucciones;
+        }
+    }
+
+    // DTO para abono/retiro; el monto llega como decimal en JSON y se guarda en centavos
     public static class CuentaAbonoRequest {
         private String numero;
-        private double monto;
+        private long montoCentavos;
 
         public String getNumero() {
             return numero;
@@ -213,12 +561,16 @@ public class CuentaController {
             this.numero = numero;
         }
 
-        public double getMonto() {
-            return monto;
+        @JsonProperty("monto")
+        @JsonSerialize(using = Dinero.Serializador.class)
+        public long getMontoCentavos() {
+            return montoCentavos;
         }
 
-        public void setMonto(double monto) {
-            this.monto = monto;
+        @JsonProperty("monto")
+        @JsonDeserialize(using = Dinero.Deserializador.class)
+        public void setMontoCentavos(long montoCentavos) {
+            this.montoCentavos = montoCentavos;
         }
     }
 }
\ No newline at end of file
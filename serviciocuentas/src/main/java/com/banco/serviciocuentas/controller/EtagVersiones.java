@@ -0,0 +1,46 @@
+package com.banco.serviciocuentas.controller;
+
+import com.banco.serviciocuentas.repository.VersionFila;
+import org.springframework.http.CacheControl;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// ETag fuerte a partir de las columnas version de cliente y cuentas (ClienteRepository.findVersionesByDui).
+// Cualquier cambio de saldo, de datos del cliente, o una cuenta creada o borrada cambia la lista
+// de versiones y con ella el ETag; así el GET condicional responde 304 con una consulta de
+// solo versiones, sin cargar ni serializar el cuerpo.
+final class EtagVersiones {
+
+    // El navegador guarda la respuesta pero la revalida siempre (If-None-Match) antes de usarla;
+    // 'private' porque son datos de un cliente y no deben quedar en caches compartidos
+    static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+
+    private EtagVersiones() {
+    }
+
+    // Cliente con sus cuentas: GET /api/clientes/{dui}
+    static String cliente(List<VersionFila> filas) {
+        return etag(filas, true);
+    }
+
+    // Solo las cuentas: GET /api/cuentas/cliente/{dui}
+    static String cuentas(List<VersionFila> filas) {
+        return etag(filas, false);
+    }
+
+    private static String etag(List<VersionFila> filas, boolean conCliente) {
+        StringBuilder texto = new StringBuilder();
+        if (conCliente && !filas.isEmpty()) {
+            texto.append(filas.get(0).versionCliente());
+        }
+        for (VersionFila fila : filas) {
+            if (fila.cuentaId() != null) {
+                texto.append(';').append(fila.cuentaId()).append(':').append(fila.versionCuenta());
+            }
+        }
+        // Largo fijo sin importar cuántas cuentas tenga el cliente, como ShallowEtagHeaderFilter
+        return "\"" + DigestUtils.md5DigestAsHex(texto.toString().getBytes(StandardCharsets.US_ASCII)) + "\"";
+    }
+}
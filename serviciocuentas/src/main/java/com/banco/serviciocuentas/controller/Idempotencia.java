@@ -0,0 +1,216 @@
+package com.banco.serviciocuentas.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Header Idempotency-Key en las escrituras de CuentaController (crear cuenta, abonar, retirar):
+// si el cliente reintenta por un corte de red, la segunda petición con la misma llave devuelve la
+// respuesta guardada de la primera sin volver a tocar la cuenta.
+// - Sin header no se hace nada (camino de siempre). Con header, el costo en memoria es un
+//   putIfAbsent en un mapa concurrente acotado (Caffeine: tamaño máximo y TTL) y un MD5 del pedido.
+// - La llave vale por sesión (credenciales del token): dos usuarios pueden usar la misma llave.
+// - La misma llave con otro pedido (otra ruta, cuenta o monto) responde 422; mientras la primera
+//   sigue en curso, un duplicado responde 409 y el cliente reintenta más tarde.
+// - Se guarda toda respuesta que devuelve la operación, también los 4xx (saldo insuficiente, cuenta
+//   no encontrada): reintentar no debe cambiar el resultado. Una excepción (500) libera la llave.
+// - Con idempotencia.persistente=true la llave además se registra en la tabla 'idempotencia' en la
+//   misma transacción que la operación: otra instancia con la misma llave espera el bloqueo de la
+//   fila y luego devuelve lo guardado, y si la operación falla la llave desaparece con el rollback.
+//   Las filas más viejas que el TTL se borran cada hora.
+// Las respuestas repetidas llevan el header Idempotent-Replayed: true.
+@Component
+class Idempotencia implements DisposableBean {
+
+    static final String HEADER = "Idempotency-Key";
+    static final String HEADER_REPETIDA = "Idempotent-Replayed";
+    private static final int LARGO_MAXIMO = 255;
+    private static final Duration PURGA = Duration.ofHours(1);
+
+    private static final Respuesta<Void> LLAVE_INVALIDA =
+            Respuesta.error("El header " + HEADER + " debe tener entre 1 y " + LARGO_MAXIMO + " caracteres");
+    private static final Respuesta<Void> EN_CURSO =
+            Respuesta.error("Hay una petición en curso con la misma " + HEADER + "; reintente en unos segundos");
+    private static final Respuesta<Void> OTRO_PEDIDO =
+            Respuesta.error("La " + HEADER + " ya se usó con un pedido distinto");
+
+    private final Cache<String, Entrada> entradas;
+    private final ObjectMapper mapper;
+    private final Counter repetidas;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ThreadPoolTaskScheduler limpieza;
+    private final Duration ttl;
+
+    Idempotencia(ObjectMapper mapper,
+                 MeterRegistry registry,
+                 JdbcTemplate jdbc,
+                 PlatformTransactionManager txManager,
+                 @Value("${idempotencia.tamano-maximo:100000}") long tamanoMaximo,
+                 @Value("${idempotencia.ttl:24h}") Duration ttl,
+                 @Value("${idempotencia.persistente:false}") boolean persistente) {
+        this.mapper = mapper;
+        this.ttl = ttl;
+        this.entradas = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, entradas, "idempotencia");
+        this.repetidas = Counter.builder("banco.idempotencia.repetidas")
+                .description("Peticiones repetidas respondidas con la respuesta guardada")
+                .register(registry);
+        if (persistente) {
+            this.jdbc = jdbc;
+            this.tx = new TransactionTemplate(txManager);
+            this.limpieza = new ThreadPoolTaskScheduler();
+            this.limpieza.setThreadNamePrefix("idempotencia-");
+            this.limpieza.initialize();
+            this.limpieza.scheduleWithFixedDelay(this::purgar, Instant.now().plus(PURGA), PURGA);
+        } else {
+            this.jdbc = null;
+            this.tx = null;
+            this.limpieza = null;
+        }
+    }
+
+    // 'pedido' identifica la operación y sus datos (ruta, DUI, número, monto); va como huella MD5
+    ResponseEntity<?> ejecutar(String clave, String alcance, String pedido, Supplier<ResponseEntity<?>> operacion) {
+        if (clave == null) {
+            return operacion.get();
+        }
+        if (clave.isBlank() || clave.length() > LARGO_MAXIMO) {
+            return ResponseEntity.badRequest().body(LLAVE_INVALIDA);
+        }
+        String llave = alcance + ":" + clave;
+        String huella = DigestUtils.md5DigestAsHex(pedido.getBytes(StandardCharsets.UTF_8));
+
+        Entrada previa = entradas.asMap().putIfAbsent(llave, new EnCurso(huella));
+        if (previa != null) {
+            return repetir(previa, huella);
+        }
+        try {
+            Guardada guardada;
+            if (tx == null) {
+                guardada = guardar(huella, operacion.get());
+            } else {
+                guardada = tx.execute(status -> ejecutarRegistrada(llave, huella, operacion));
+                if (guardada == null) {
+                    entradas.invalidate(llave);
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(EN_CURSO);
+                }
+                if (guardada.repetida()) {
+                    entradas.put(llave, guardada);
+                    return repetir(guardada, huella);
+                }
+            }
+            entradas.put(llave, guardada);
+            return guardada.respuesta(false);
+        } catch (RuntimeException e) {
+            entradas.invalidate(llave);
+            throw e;
+        }
+    }
+
+    // Dentro de la transacción: el INSERT de la llave espera si otra instancia la tiene sin confirmar.
+    // null si la llave existía pero ya no se encuentra
+    private Guardada ejecutarRegistrada(String llave, String huella, Supplier<ResponseEntity<?>> operacion) {
+        try {
+            jdbc.update("INSERT INTO idempotencia (llave, huella, creada) VALUES (?, ?, ?)",
+                    llave, huella, Timestamp.from(Instant.now()));
+        } catch (DuplicateKeyException e) {
+            List<Guardada> filas = jdbc.query(
+                    "SELECT huella, estado, location, cuerpo FROM idempotencia WHERE llave = ?",
+                    (rs, i) -> new Guardada(rs.getString(1), rs.getInt(2), rs.getString(3), rs.getBytes(4), true),
+                    llave);
+            // Vacío solo si la purga la borró entre el INSERT y el SELECT; el cliente puede reintentar
+            return filas.isEmpty() ? null : filas.get(0);
+        }
+        Guardada guardada = guardar(huella, operacion.get());
+        jdbc.update("UPDATE idempotencia SET estado = ?, location = ?, cuerpo = ? WHERE llave = ?",
+                guardada.estado(), guardada.location(), guardada.cuerpo(), llave);
+        return guardada;
+    }
+
+    private ResponseEntity<?> repetir(Entrada previa, String huella) {
+        if (!previa.huella().equals(huella)) {
+            return ResponseEntity.unprocessableEntity().body(OTRO_PEDIDO);
+        }
+        if (previa instanceof Guardada guardada) {
+            repetidas.increment();
+            return guardada.respuesta(true);
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(EN_CURSO);
+    }
+
+    // El cuerpo se serializa una vez; la primera respuesta y las repetidas son los mismos bytes
+    private Guardada guardar(String huella, ResponseEntity<?> respuesta) {
+        URI location = respuesta.getHeaders().getLocation();
+        try {
+            return new Guardada(huella, respuesta.getStatusCode().value(),
+                    location == null ? null : location.toString(),
+                    mapper.writeValueAsBytes(respuesta.getBody()), false);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        }
+    }
+
+    private void purgar() {
+        jdbc.update("DELETE FROM idempotencia WHERE creada < ?", Timestamp.from(Instant.now().minus(ttl)));
+    }
+
+    @Override
+    public void destroy() {
+        if (limpieza != null) {
+            limpieza.shutdown();
+        }
+    }
+
+    private sealed interface Entrada permits EnCurso, Guardada {
+        String huella();
+    }
+
+    private record EnCurso(String huella) implements Entrada {
+    }
+
+    // 'repetida' indica que vino de la tabla (otra petición la guardó); no cambia lo que se responde
+    private record Guardada(String huella, int estado, String location, byte[] cuerpo, boolean repetida)
+            implements Entrada {
+
+        ResponseEntity<byte[]> respuesta(boolean repetida) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(estado).contentType(MediaType.APPLICATION_JSON);
+            if (location != null) {
+                builder.header(HttpHeaders.LOCATION, location);
+            }
+            if (repetida) {
+                builder.header(HEADER_REPETIDA, "true");
+            }
+            return builder.body(cuerpo);
+        }
+    }
+}
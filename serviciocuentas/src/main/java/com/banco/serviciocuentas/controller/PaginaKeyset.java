@@ -0,0 +1,99 @@
+package com.banco.serviciocuentas.controller;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Paginación por llave (keyset / seek) sobre el id autoincremental.
+// En lugar de OFFSET se pide "id > último id entregado", así cada página cuesta
+// lo mismo sin importar cuán adentro de la tabla esté.
+// El token de continuación es opaco para el cliente y viaja en el header X-Next-Page-Token;
+// si el header no viene en la respuesta, es la última página.
+final class PaginaKeyset {
+
+    static final String HEADER_SIGUIENTE = "X-Next-Page-Token";
+    static final int TAMANO_POR_DEFECTO = 100;
+    static final int TAMANO_MAXIMO = 1000;
+
+    private static final Respuesta<Void> TOKEN_INVALIDO = Respuesta.error("Token de página inválido");
+
+    private PaginaKeyset() {
+    }
+
+    static <T> ResponseEntity<?> responder(
+            String token,
+            Integer size,
+            BiFunction<Long, Limit, List<T>> consulta,
+            ToLongFunction<T> id
+    ) {
+        return responder(token, 1, size,
+                (cursor, limit) -> consulta.apply(cursor == null ? 0L : cursor[0], limit),
+                fila -> new long[]{id.applyAsLong(fila)});
+    }
+
+    // Variante para llaves compuestas (por ejemplo fecha + id); 'cursor' es null en la primera página
+    static <T> ResponseEntity<?> responder(
+            String token,
+            int partes,
+            Integer size,
+            BiFunction<long[], Limit, List<T>> consulta,
+            Function<T, long[]> llave
+    ) {
+        long[] cursor;
+        try {
+            cursor = decodificar(token, partes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(TOKEN_INVALIDO);
+        }
+        int tamano = tamano(size);
+
+        // Pedimos una fila extra para saber si hay siguiente página sin otro COUNT
+        List<T> filas = consulta.apply(cursor, Limit.of(tamano + 1));
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (filas.size() > tamano) {
+            filas = filas.subList(0, tamano);
+            ok.header(HEADER_SIGUIENTE, codificar(llave.apply(filas.get(tamano - 1))));
+        }
+        return ok.body(filas);
+    }
+
+    static int tamano(Integer size) {
+        if (size == null) {
+            return TAMANO_POR_DEFECTO;
+        }
+        return Math.max(1, Math.min(size, TAMANO_MAXIMO));
+    }
+
+    static long[] decodificar(String token, int partes) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String[] texto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split(":");
+        if (texto.length != partes) {
+            throw new IllegalArgumentException("Token de página inválido: " + token);
+        }
+        long[] cursor = new long[partes];
+        for (int i = 0; i < partes; i++) {
+            cursor[i] = Long.parseLong(texto[i]);
+        }
+        return cursor;
+    }
+
+    static String codificar(long... cursor) {
+        StringBuilder texto = new StringBuilder();
+        for (long parte : cursor) {
+            if (!texto.isEmpty()) {
+                texto.append(':');
+            }
+            texto.append(parte);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(texto.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+}
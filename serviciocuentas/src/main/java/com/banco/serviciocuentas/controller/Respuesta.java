@@ -0,0 +1,23 @@
+package com.banco.serviciocuentas.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Sobre común de las respuestas JSON: {"success": ..., "message": ..., "data": ...}.
+// Es inmutable, así las respuestas con mensaje fijo se construyen una sola vez (constantes
+// en cada controlador) y se reutilizan en todas las peticiones. Un 'data' null no se escribe.
+// Las respuestas con campos propios (newSaldo, token, ...) usan records anidados en su controlador.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Respuesta<T>(boolean success, String message, T data) {
+
+    public static <T> Respuesta<T> exito(String message, T data) {
+        return new Respuesta<>(true, message, data);
+    }
+
+    public static Respuesta<Void> exito(String message) {
+        return new Respuesta<>(true, message, null);
+    }
+
+    public static Respuesta<Void> error(String message) {
+        return new Respuesta<>(false, message, null);
+    }
+}
@@ -0,0 +1,65 @@
+package com.banco.serviciocuentas.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Cierre diario de una fecha contable (CierreDiario). Fija el tamaño de tramo y el último id de
+// cuenta al empezar, así un cierre interrumpido se reanuda con exactamente los mismos tramos.
+@Entity
+@Table(name = "cierre")
+public class Cierre {
+
+    @Id
+    private LocalDate fecha;
+
+    @Column(name = "tamano_tramo", nullable = false)
+    private int tamanoTramo;
+
+    @Column(name = "max_id", nullable = false)
+    private long maxId;
+
+    @Column(nullable = false)
+    private Instant iniciado;
+
+    // null mientras falten tramos
+    private Instant terminado;
+
+    protected Cierre() {
+    }
+
+    public Cierre(LocalDate fecha, int tamanoTramo, long maxId, Instant iniciado) {
+        this.fecha = fecha;
+        this.tamanoTramo = tamanoTramo;
+        this.maxId = maxId;
+        this.iniciado = iniciado;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public int getTamanoTramo() {
+        return tamanoTramo;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public Instant getIniciado() {
+        return iniciado;
+    }
+
+    public Instant getTerminado() {
+        return terminado;
+    }
+
+    public void setTerminado(Instant terminado) {
+        this.terminado = terminado;
+    }
+}
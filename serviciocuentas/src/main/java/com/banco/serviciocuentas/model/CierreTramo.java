@@ -0,0 +1,59 @@
+package com.banco.serviciocuentas.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDate;
+
+// Tramo de ids ya procesado por el cierre de una fecha. CierreDiario lo inserta (por JDBC) al
+// comienzo de la transacción del tramo: si la transacción se revierte el tramo queda pendiente,
+// y dos procesos sobre el mismo tramo chocan con la llave única en vez de aplicarlo dos veces.
+@Entity
+@Table(name = "cierre_tramo", uniqueConstraints = @UniqueConstraint(columnNames = {"fecha", "desde_id"}))
+public class CierreTramo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "desde_id", nullable = false)
+    private long desdeId;
+
+    @Column(name = "hasta_id", nullable = false)
+    private long hastaId;
+
+    // Cuentas procesadas en el tramo
+    @Column(nullable = false)
+    private int cuentas;
+
+    protected CierreTramo() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public long getDesdeId() {
+        return desdeId;
+    }
+
+    public long getHastaId() {
+        return hastaId;
+    }
+
+    public int getCuentas() {
+        return cuentas;
+    }
+}
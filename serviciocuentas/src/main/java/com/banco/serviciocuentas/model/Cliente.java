@@ -1,18 +1,28 @@
 package com.banco.serviciocuentas.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "cliente")
+@Table(name = "cliente", indexes = {
+        @Index(name = "idx_cliente_apellido_busqueda", columnList = "apellido_busqueda, primer_nombre_busqueda"),
+        @Index(name = "idx_cliente_nombre_busqueda", columnList = "primer_nombre_busqueda, apellido_busqueda")
+})
 public class Cliente {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Se incrementa con cada cambio de la fila; junto con las versiones de sus cuentas
+    // forma el ETag de GET /api/clientes/{dui}
+    @Version
+    @JsonIgnore
+    private long version;
+
     @Column(unique = true, nullable = false, length = 10)
     private String dui;
 
@@ -25,6 +35,16 @@ public class Cliente {
     @Column(name = "fecha_nacimiento", nullable = false)
     private LocalDate fechaNacimiento;
 
+    // Nombre y apellido normalizados (TextoBusqueda) para GET /api/clientes/search; se recalculan
+    // en cada INSERT/UPDATE de la entidad
+    @JsonIgnore
+    @Column(name = "primer_nombre_busqueda", nullable = false, length = 12)
+    private String primerNombreBusqueda;
+
+    @JsonIgnore
+    @Column(name = "apellido_busqueda", nullable = false, length = 12)
+    private String apellidoBusqueda;
+
     @JsonManagedReference
     @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Cuenta> cuentas;
@@ -32,12 +52,23 @@ public class Cliente {
     public Cliente() {
     }
 
+    @PrePersist
+    @PreUpdate
+    void normalizarBusqueda() {
+        primerNombreBusqueda = TextoBusqueda.normalizar(primerNombre);
+        apellidoBusqueda = TextoBusqueda.normalizar(apellido);
+    }
+
     // Getters y setters
 
     public Long getId() {
         return id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getDui() {
         return dui;
     }
@@ -1,5 +1,6 @@
 package com.banco.serviciocuentas.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 @Entity
@@ -10,9 +11,11 @@ public class Credenciales {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, length = 50)
+    @Column(nullable = false, unique = true, length = 50)
     private String correo;
 
+    // Hash con prefijo de algoritmo ({bcrypt}...); se recibe en el JSON pero nunca se devuelve
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false, length = 100)
     private String contrasena;
 
@@ -1,19 +1,31 @@
 package com.banco.serviciocuentas.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "cuenta")
+@Table(name = "cuenta", indexes = @Index(name = "idx_cuenta_cliente_numero", columnList = "cliente_id, numero"))
 public class Cuenta {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Se incrementa con cada cambio de la fila, también en los UPDATE directos de saldo
+    // (CuentaRepository, LoteService), que no pasan por Hibernate
+    @Version
+    @JsonIgnore
+    private long version;
+
     private String numero;
-    private double saldo;
+
+    // Saldo en centavos (ver Dinero); en JSON se sigue exponiendo como "saldo" decimal
+    @Column(name = "saldo_centavos", nullable = false)
+    private long saldoCentavos;
 
     @JsonBackReference
     @ManyToOne
@@ -30,17 +42,24 @@ public class Cuenta {
     public void setId(Long id) {
         this.id = id;
     }
+    public long getVersion() {
+        return version;
+    }
     public String getNumero() {
         return numero;
     }
     public void setNumero(String numero) {
         this.numero = numero;
     }
-    public double getSaldo() {
-        return saldo;
+    @JsonProperty("saldo")
+    @JsonSerialize(using = Dinero.Serializador.class)
+    public long getSaldoCentavos() {
+        return saldoCentavos;
     }
-    public void setSaldo(double saldo) {
-        this.saldo = saldo;
+    @JsonProperty("saldo")
+    @JsonDeserialize(using = Dinero.Deserializador.class)
+    public void setSaldoCentavos(long saldoCentavos) {
+        this.saldoCentavos = saldoCentavos;
     }
     public Cliente getCliente() {
         return cliente;
@@ -0,0 +1,106 @@
+package com.banco.serviciocuentas.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+// Montos de dinero como long en centavos (punto fijo, dos decimales).
+// Las sumas y comparaciones son exactas y no crean objetos; la conversión a texto
+// solo ocurre en el borde JSON, donde se sigue exponiendo un número decimal (12.34).
+public final class Dinero {
+
+    private static final int MAX_DECIMALES = 2;
+    // Tope de un movimiento (1,000 millones): lejos del límite de long, así ninguna suma de saldo se desborda
+    public static final long MONTO_MAXIMO_CENTAVOS = 1_000_000_000_00L;
+
+    private Dinero() {
+    }
+
+    // "12.34" -> 1234. Acepta enteros y hasta dos decimales; rechaza exponentes y más decimales.
+    public static long parsear(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            throw new IllegalArgumentException("Monto vacío");
+        }
+        int i = 0;
+        boolean negativo = texto.charAt(0) == '-';
+        if (negativo || texto.charAt(0) == '+') {
+            i++;
+        }
+        long centavos = 0;
+        int decimales = -1;
+        boolean hayDigitos = false;
+        for (; i < texto.length(); i++) {
+            char ch = texto.charAt(i);
+            if (ch == '.' && decimales < 0) {
+                decimales = 0;
+                continue;
+            }
+            if (ch < '0' || ch > '9') {
+                throw new IllegalArgumentException("Monto inválido: " + texto);
+            }
+            if (decimales >= 0 && ++decimales > MAX_DECIMALES) {
+                // Se toleran ceros de relleno (10.500) pero no fracciones de centavo
+                if (ch != '0') {
+                    throw new IllegalArgumentException("El monto admite como máximo dos decimales: " + texto);
+                }
+                continue;
+            }
+            centavos = Math.addExact(Math.multiplyExact(centavos, 10), ch - '0');
+            hayDigitos = true;
+        }
+        if (!hayDigitos) {
+            throw new IllegalArgumentException("Monto inválido: " + texto);
+        }
+        for (int d = Math.max(decimales, 0); d < MAX_DECIMALES; d++) {
+            centavos = Math.multiplyExact(centavos, 10);
+        }
+        return negativo ? -centavos : centavos;
+    }
+
+    // Monto de abono, retiro o transferencia: mayor que cero y hasta MONTO_MAXIMO_CENTAVOS
+    public static boolean montoValido(long centavos) {
+        return centavos > 0 && centavos <= MONTO_MAXIMO_CENTAVOS;
+    }
+
+    // 1234 -> "12.34"
+    public static String formatear(long centavos) {
+        long abs = Math.abs(centavos);
+        long fraccion = abs % 100;
+        return (centavos < 0 ? "-" : "") + abs / 100 + (fraccion < 10 ? ".0" : ".") + fraccion;
+    }
+
+    // Para respuestas JSON: centavos / 100.0 siempre se imprime con a lo sumo dos decimales
+    // porque la división es correctamente redondeada y Jackson usa la representación más corta.
+    public static double aDecimal(long centavos) {
+        return centavos / 100.0;
+    }
+
+    public static class Serializador extends JsonSerializer<Long> {
+        @Override
+        public void serialize(Long centavos, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(aDecimal(centavos));
+        }
+    }
+
+    public static class Deserializador extends JsonDeserializer<Long> {
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                    && token != JsonToken.VALUE_STRING) {
+                return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+            }
+            try {
+                return parsear(p.getText().trim());
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.banco.serviciocuentas.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDate;
+
+// Estado de cuenta diario que genera el cierre (CierreDiario), uno por cuenta y fecha contable.
+// Saldos y montos en centavos. Resume los movimientos del día; el interés y la comisión son los
+// que el cierre aplicó sobre el saldo final, y quedan además como movimientos de la cuenta.
+@Entity
+@Table(name = "estado_cuenta", uniqueConstraints = @UniqueConstraint(columnNames = {"cuenta_id", "fecha"}))
+public class EstadoCuenta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cuenta_id", nullable = false)
+    private long cuentaId;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "saldo_inicial", nullable = false)
+    private long saldoInicial;
+
+    @Column(nullable = false)
+    private long abonos;
+
+    @Column(nullable = false)
+    private long cargos;
+
+    @Column(nullable = false)
+    private int movimientos;
+
+    @Column(name = "saldo_final", nullable = false)
+    private long saldoFinal;
+
+    @Column(nullable = false)
+    private long interes;
+
+    @Column(nullable = false)
+    private long comision;
+
+    protected EstadoCuenta() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getCuentaId() {
+        return cuentaId;
+    }
+
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    public long getSaldoInicial() {
+        return saldoInicial;
+    }
+
+    public long getAbonos() {
+        return abonos;
+    }
+
+    public long getCargos() {
+        return cargos;
+    }
+
+    public int getMovimientos() {
+        return movimientos;
+    }
+
+    public long getSaldoFinal() {
+        return saldoFinal;
+    }
+
+    public long getInteres() {
+        return interes;
+    }
+
+    public long getComision() {
+        return comision;
+    }
+}
@@ -0,0 +1,90 @@
+package com.banco.serviciocuentas.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+// Registro inmutable de un abono o retiro. Se inserta en la misma transacción que
+// actualiza cuenta.saldo_centavos y nunca se modifica ni se borra.
+@Entity
+@Immutable
+@Table(name = "movimiento", indexes = @Index(name = "idx_movimiento_cuenta_fecha", columnList = "cuenta_id, fecha"))
+public class Movimiento {
+
+    // Ids por bloques (pooled) en lugar de IDENTITY, que impide a Hibernate agrupar los INSERT en lotes JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimiento_seq")
+    @SequenceGenerator(name = "movimiento_seq", sequenceName = "movimiento_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "cuenta_id", nullable = false, updatable = false)
+    private Cuenta cuenta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false, length = 20)
+    private TipoMovimiento tipo;
+
+    @Column(name = "monto_centavos", nullable = false, updatable = false)
+    private long montoCentavos;
+
+    // Saldo de la cuenta inmediatamente después del movimiento
+    @Column(name = "saldo_centavos", nullable = false, updatable = false)
+    private long saldoCentavos;
+
+    @Column(nullable = false, updatable = false)
+    private Instant fecha;
+
+    protected Movimiento() {
+    }
+
+    public Movimiento(Cuenta cuenta, TipoMovimiento tipo, long montoCentavos, long saldoCentavos) {
+        // La columna guarda microsegundos; truncamos para que el cursor de paginación sea exacto
+        this(cuenta, tipo, montoCentavos, saldoCentavos, Instant.now().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    // Con la fecha en que se aplicó, cuando se inserta después (volcado de MotorSaldos)
+    public Movimiento(Cuenta cuenta, TipoMovimiento tipo, long montoCentavos, long saldoCentavos, Instant fecha) {
+        this.cuenta = cuenta;
+        this.tipo = tipo;
+        this.montoCentavos = montoCentavos;
+        this.saldoCentavos = saldoCentavos;
+        this.fecha = fecha;
+    }
+
+    // Getters (sin setters: el movimiento es inmutable)
+
+    public Long getId() {
+        return id;
+    }
+
+    public Cuenta getCuenta() {
+        return cuenta;
+    }
+
+    public TipoMovimiento getTipo() {
+        return tipo;
+    }
+
+    @JsonProperty("monto")
+    @JsonSerialize(using = Dinero.Serializador.class)
+    public long getMontoCentavos() {
+        return montoCentavos;
+    }
+
+    @JsonProperty("saldo")
+    @JsonSerialize(using = Dinero.Serializador.class)
+    public long getSaldoCentavos() {
+        return saldoCentavos;
+    }
+
+    public Instant getFecha() {
+        return fecha;
+    }
+}
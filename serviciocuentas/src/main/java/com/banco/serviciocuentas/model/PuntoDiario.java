@@ -0,0 +1,34 @@
+package com.banco.serviciocuentas.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Última secuencia del diario de cada partición de MotorSaldos ya volcada a la base.
+// Se escribe en la misma transacción que los saldos y movimientos volcados, así al arrancar
+// se reaplican exactamente los registros del diario posteriores a ella.
+@Entity
+@Table(name = "punto_diario")
+public class PuntoDiario {
+
+    @Id
+    private Integer particion;
+
+    private long secuencia;
+
+    protected PuntoDiario() {
+    }
+
+    public PuntoDiario(Integer particion, long secuencia) {
+        this.particion = particion;
+        this.secuencia = secuencia;
+    }
+
+    public Integer getParticion() {
+        return particion;
+    }
+
+    public long getSecuencia() {
+        return secuencia;
+    }
+}
@@ -0,0 +1,24 @@
+package com.banco.serviciocuentas.model;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Forma normalizada de nombres y apellidos para la búsqueda de clientes: minúsculas y sin tildes
+// ("María" -> "maria", "Núñez" -> "nunez"). Cliente la guarda en columnas propias e indexadas,
+// así la comparación por prefijo es un rango de índice igual en MySQL que en H2.
+public final class TextoBusqueda {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private TextoBusqueda() {
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto.strip(), Normalizer.Form.NFD)).replaceAll("");
+        return sinMarcas.toLowerCase(Locale.ROOT);
+    }
+}
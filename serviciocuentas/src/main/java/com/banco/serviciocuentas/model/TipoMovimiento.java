@@ -0,0 +1,12 @@
+package com.banco.serviciocuentas.model;
+
+// Los nuevos tipos van al final: DiarioSaldos guarda el ordinal
+public enum TipoMovimiento {
+    abono,
+    retiro,
+    cargo_transferencia,
+    abono_transferencia,
+    // Aplicados por el cierre diario (CierreDiario)
+    interes,
+    comision
+}
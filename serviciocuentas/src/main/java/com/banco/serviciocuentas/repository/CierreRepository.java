@@ -0,0 +1,9 @@
+package com.banco.serviciocuentas.repository;
+
+import com.banco.serviciocuentas.model.Cierre;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+
+public interface CierreRepository extends JpaRepository<Cierre, LocalDate> {
+}
@@ -0,0 +1,11 @@
+package com.banco.serviciocuentas.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+
+// Resultado de GET /api/clientes/search: los datos del cliente más sus columnas normalizadas,
+// que forman el cursor de la página siguiente y no se escriben en el JSON
+public record ClienteEncontrado(Long id, String dui, String primerNombre, String apellido, LocalDate fechaNacimiento,
+                                @JsonIgnore String primerNombreBusqueda, @JsonIgnore String apellidoBusqueda) {
+}
@@ -1,11 +1,65 @@
 package com.banco.serviciocuentas.repository;
 
 import com.banco.serviciocuentas.model.Cliente;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     Optional<Cliente> findByDui(String dui);
 
     boolean existsByDui(String dui);
+
+    // Proyección sin cuentas para ClienteCache
+    Optional<ClienteResumen> findResumenByDui(String dui);
+
+    // Solo versiones: la del cliente y la de cada cuenta (una fila con cuenta nula si no tiene);
+    // vacío si el DUI no existe. Alcanza para calcular el ETag sin cargar nada más
+    @Query("select new com.banco.serviciocuentas.repository.VersionFila(cl.version, c.id, c.version) "
+            + "from Cliente cl left join cl.cuentas c where cl.dui = :dui order by c.id")
+    List<VersionFila> findVersionesByDui(String dui);
+
+    // Página keyset: clientes con id mayor al último entregado, sin sus cuentas
+    List<ClienteResumen> findResumenByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Búsqueda de clientes (BusquedaClientes). Cada consulta recorre un solo índice en su orden, desde
+    // el cursor (llave completa del índice más id) y hasta 'limit': el costo no depende de cuántos
+    // clientes coincidan. Los prefijos vienen escapados con '!'
+    String ENCONTRADO = "select new com.banco.serviciocuentas.repository.ClienteEncontrado(c.id, c.dui, c.primerNombre, "
+            + "c.apellido, c.fechaNacimiento, c.primerNombreBusqueda, c.apellidoBusqueda) from Cliente c ";
+
+    @Query(ENCONTRADO + "where c.dui like :prefijo escape '!' and c.dui > :dui order by c.dui")
+    List<ClienteEncontrado> buscarPorDui(String prefijo, String dui, Limit limit);
+
+    // Apellido con el primer término y nombre con el segundo ('%' si no hay), por idx_cliente_apellido_busqueda
+    @Query(ENCONTRADO + "where c.apellidoBusqueda like :primero escape '!' and c.primerNombreBusqueda like :segundo escape '!' "
+            + "and (c.apellidoBusqueda > :apellido or (c.apellidoBusqueda = :apellido "
+            + "and (c.primerNombreBusqueda > :nombre or (c.primerNombreBusqueda = :nombre and c.id > :id)))) "
+            + "order by c.apellidoBusqueda, c.primerNombreBusqueda, c.id")
+    List<ClienteEncontrado> buscarPorApellido(String primero, String segundo, String apellido, String nombre, long id,
+                                              Limit limit);
+
+    // Nombre con el primer término y apellido con el segundo, por idx_cliente_nombre_busqueda; excluye
+    // los que ya salieron en buscarPorApellido
+    @Query(ENCONTRADO + "where c.primerNombreBusqueda like :primero escape '!' and c.apellidoBusqueda like :segundo escape '!' "
+            + "and not (c.apellidoBusqueda like :primero escape '!' and c.primerNombreBusqueda like :segundo escape '!') "
+            + "and (c.primerNombreBusqueda > :nombre or (c.primerNombreBusqueda = :nombre "
+            + "and (c.apellidoBusqueda > :apellido or (c.apellidoBusqueda = :apellido and c.id > :id)))) "
+            + "order by c.primerNombreBusqueda, c.apellidoBusqueda, c.id")
+    List<ClienteEncontrado> buscarPorNombre(String primero, String segundo, String nombre, String apellido, long id,
+                                            Limit limit);
+
+    // Recorrido completo con cursor; requiere una transacción abierta
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Cliente c order by c.id")
+    Stream<Cliente> streamAll();
 }
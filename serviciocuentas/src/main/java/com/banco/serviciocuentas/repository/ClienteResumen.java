@@ -0,0 +1,12 @@
+package com.banco.serviciocuentas.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+
+// Datos propios del cliente, sin la colección de cuentas; es lo que guarda ClienteCache,
+// así un saldo nunca puede salir del cache. 'version' permite detectar una entrada vieja
+// frente a la versión vigente en la base (ver ClienteController.findByDui)
+public record ClienteResumen(Long id, String dui, String primerNombre, String apellido, LocalDate fechaNacimiento,
+                             @JsonIgnore long version) {
+}
@@ -1,12 +1,42 @@
 package com.banco.serviciocuentas.repository;
 
 import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CredencialesRepository extends JpaRepository<Credenciales, Long> {
     List<Credenciales> findByClienteDui(String clienteDui);
 
-    Optional<Credenciales> findByCorreoAndContrasena(String correo, String contrasena);
+    // Búsqueda por el índice único de correo; la contraseña se verifica después contra el hash
+    Optional<Credenciales> findByCorreo(String correo);
+
+    // Si ya hay algún empleado (EmpleadoInicial solo crea el primero)
+    boolean existsByTipoCuenta(TipoCuenta tipoCuenta);
+
+    // Guarda un hash nuevo sin cargar ni fusionar la entidad (re-hash tras el login)
+    @Transactional
+    @Modifying
+    @Query("update Credenciales c set c.contrasena = :hash where c.id = :id")
+    int actualizarContrasena(Long id, String hash);
+
+    // Página keyset: credenciales con id mayor a la última entregada
+    List<Credenciales> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Recorrido completo con cursor; requiere una transacción abierta
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Credenciales c order by c.id")
+    Stream<Credenciales> streamAll();
 }
@@ -0,0 +1,5 @@
+package com.banco.serviciocuentas.repository;
+
+// Proyección mínima para resolver (dui, número) -> id sin hidratar entidades
+public record CuentaClave(Long id, String dui, String numero) {
+}
@@ -1,11 +1,71 @@
 package com.banco.serviciocuentas.repository;
 
 import com.banco.serviciocuentas.model.Cuenta;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CuentaRepository extends JpaRepository<Cuenta, Long> {
+    // Una sola consulta: cuenta y cliente en el mismo JOIN por el índice (cliente_id, numero)
+    @Query("select c from Cuenta c join fetch c.cliente cl where cl.dui = :clienteDui and c.numero = :numero")
     Optional<Cuenta> findByClienteDuiAndNumero(String clienteDui, String numero);
 
+    // Solo el id, sin hidratar la entidad; es lo único que necesitan los UPDATE de saldo
+    @Query("select c.id from Cuenta c where c.cliente.dui = :clienteDui and c.numero = :numero")
+    Optional<Long> findIdByClienteDuiAndNumero(String clienteDui, String numero);
+
+    // Resuelve muchas cuentas en una sola consulta; puede traer combinaciones de más que el llamador filtra
+    @Query("select new com.banco.serviciocuentas.repository.CuentaClave(c.id, cl.dui, c.numero) "
+            + "from Cuenta c join c.cliente cl where cl.dui in :duis and c.numero in :numeros")
+    List<CuentaClave> findClaves(Collection<String> duis, Collection<String> numeros);
+
+    // Cuentas de un cliente en una sola consulta, solo las columnas que se muestran
+    @Query("select new com.banco.serviciocuentas.repository.CuentaResumen(c.id, c.numero, c.saldoCentavos, cl.dui) "
+            + "from Cuenta c join c.cliente cl where cl.dui = :clienteDui order by c.id")
+    List<CuentaResumen> findResumenByClienteDui(String clienteDui);
+
+    // Cuentas de varios clientes a la vez, para armar una página de clientes sin una consulta por cliente
+    @Query("select new com.banco.serviciocuentas.repository.CuentaResumen(c.id, c.numero, c.saldoCentavos, cl.dui) "
+            + "from Cuenta c join c.cliente cl where cl.id in :clienteIds order by c.id")
+    List<CuentaResumen> findResumenByClienteIdIn(Collection<Long> clienteIds);
+
+    // Página keyset: cuentas con id mayor a la última entregada
+    @Query("select new com.banco.serviciocuentas.repository.CuentaResumen(c.id, c.numero, c.saldoCentavos, cl.dui) "
+            + "from Cuenta c join c.cliente cl where c.id > :id order by c.id")
+    List<CuentaResumen> findResumenByIdGreaterThan(Long id, Limit limit);
+
+    // Recorrido completo con cursor; requiere una transacción abierta
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select c from Cuenta c join fetch c.cliente order by c.id")
+    Stream<Cuenta> streamAll();
+
+    // Abono atómico: el motor suma sobre el valor vigente de la fila
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Cuenta c set c.saldoCentavos = c.saldoCentavos + :montoCentavos, c.version = c.version + 1 "
+            + "where c.id = :id")
+    int sumarSaldo(Long id, long montoCentavos);
+
+    // Abono atómico acotado: devuelve 0 si el saldo pasa de saldoMaximo (Long.MAX_VALUE - monto) y la fila no se toca
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Cuenta c set c.saldoCentavos = c.saldoCentavos + :montoCentavos, c.version = c.version + 1 "
+            + "where c.id = :id and c.saldoCentavos <= :saldoMaximo")
+    int sumarSaldoSiCabe(Long id, long montoCentavos, long saldoMaximo);
+
+    // Retiro atómico: devuelve 0 si el saldo no alcanza y la fila no se toca
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Cuenta c set c.saldoCentavos = c.saldoCentavos - :montoCentavos, c.version = c.version + 1 "
+            + "where c.id = :id and c.saldoCentavos >= :montoCentavos")
+    int restarSaldoSiAlcanza(Long id, long montoCentavos);
 }
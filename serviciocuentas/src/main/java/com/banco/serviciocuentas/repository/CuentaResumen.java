@@ -0,0 +1,15 @@
+package com.banco.serviciocuentas.repository;
+
+import com.banco.serviciocuentas.model.Dinero;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+// Proyección de solo lectura para listados: mismos campos JSON que la entidad Cuenta
+// (id, numero, saldo, duiCliente), pero armada por la consulta; no entra al contexto
+// de persistencia ni pasa por el dirty checking
+public record CuentaResumen(
+        Long id,
+        String numero,
+        @JsonProperty("saldo") @JsonSerialize(using = Dinero.Serializador.class) long saldoCentavos,
+        String duiCliente) {
+}
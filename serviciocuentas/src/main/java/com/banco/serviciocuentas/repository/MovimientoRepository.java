@@ -0,0 +1,38 @@
+package com.banco.serviciocuentas.repository;
+
+import com.banco.serviciocuentas.model.Movimiento;
+import com.banco.serviciocuentas.model.TipoMovimiento;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface MovimientoRepository extends JpaRepository<Movimiento, Long> {
+
+    // Primera página: movimientos más recientes de la cuenta, por el índice (cuenta_id, fecha)
+    @Query("select m from Movimiento m where m.cuenta.id = :cuentaId order by m.fecha desc, m.id desc")
+    List<Movimiento> findRecientes(Long cuentaId, Limit limit);
+
+    // Páginas siguientes: movimientos anteriores al último (fecha, id) entregado
+    @Query("select m from Movimiento m where m.cuenta.id = :cuentaId "
+            + "and (m.fecha < :fecha or (m.fecha = :fecha and m.id < :id)) "
+            + "order by m.fecha desc, m.id desc")
+    List<Movimiento> findAnteriores(Long cuentaId, Instant fecha, Long id, Limit limit);
+
+    boolean existsByCuentaId(Long cuentaId);
+
+    // Cierre diario de un tramo de cuentas: una fila por cuenta con movimientos desde 'inicio',
+    // por el índice (cuenta_id, fecha). 'creditos' son los tipos que suman al saldo
+    @Query("select new com.banco.serviciocuentas.repository.ResumenMovimientos(m.cuenta.id, "
+            + "sum(case when m.fecha < :fin then 1 else 0 end), "
+            + "sum(case when m.fecha < :fin and m.tipo in :creditos then m.montoCentavos else 0 end), "
+            + "sum(case when m.fecha < :fin and m.tipo not in :creditos then m.montoCentavos else 0 end), "
+            + "sum(case when m.fecha >= :fin then (case when m.tipo in :creditos then m.montoCentavos else -m.montoCentavos end) else 0 end)) "
+            + "from Movimiento m where m.cuenta.id between :desde and :hasta and m.fecha >= :inicio "
+            + "group by m.cuenta.id")
+    List<ResumenMovimientos> resumirDia(Long desde, Long hasta, Instant inicio, Instant fin,
+                                        Collection<TipoMovimiento> creditos);
+}
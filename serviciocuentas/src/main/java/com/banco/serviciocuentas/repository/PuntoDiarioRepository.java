@@ -0,0 +1,7 @@
+package com.banco.serviciocuentas.repository;
+
+import com.banco.serviciocuentas.model.PuntoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PuntoDiarioRepository extends JpaRepository<PuntoDiario, Integer> {
+}
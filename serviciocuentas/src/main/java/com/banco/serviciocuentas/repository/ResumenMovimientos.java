@@ -0,0 +1,7 @@
+package com.banco.serviciocuentas.repository;
+
+// Movimientos de una cuenta agrupados para el cierre diario (MovimientoRepository.resumirDia):
+// cantidad, abonos y cargos dentro del día, y el neto (abonos - cargos) de lo posterior al día,
+// con el que se reconstruye el saldo al cierre a partir del saldo actual
+public record ResumenMovimientos(Long cuentaId, Long movimientos, Long abonos, Long cargos, Long netoPosterior) {
+}
@@ -0,0 +1,6 @@
+package com.banco.serviciocuentas.repository;
+
+// Versión del cliente y de una de sus cuentas; cuentaId y versionCuenta son null
+// cuando el cliente no tiene cuentas
+public record VersionFila(long versionCliente, Long cuentaId, Long versionCuenta) {
+}
@@ -0,0 +1,209 @@
+package com.banco.serviciocuentas.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Borrado y archivo de clientes con sentencias por conjunto, sin cargar entidades: unas pocas
+// sentencias por tabla en una transacción, en el orden de las llaves foráneas
+// (estado_cuenta y movimiento -> cuenta -> cliente, y credenciales -> cliente por cliente_dui).
+// - eliminar: borra credenciales, cuentas y cliente; se niega si alguna cuenta tiene movimientos
+//   o estados de cuenta (ese historial se archiva, no se borra).
+// - archivar: copia cliente, cuentas, movimientos, estados de cuenta y credenciales a las tablas
+//   *_archivo (migraciones/009_archivo.sql) y los borra de las tablas en línea.
+// - archivarInactivos: lo mismo por bloques de archivo.bloque clientes, para clientes con saldo total
+//   cero cuyo último movimiento es anterior al corte; cada bloque es una transacción.
+// Primero se bloquea la fila del cliente y luego sus cuentas (en orden de id, como BloqueoCuentas),
+// así un abono en curso termina antes o encuentra la cuenta ya archivada. Los clientes con cuentas en MotorSaldos
+// no se tocan: su saldo en la base va atrasado.
+@Service
+public class ArchivoClientes {
+
+    public enum Estado {
+        hecho,
+        no_encontrado,
+        con_movimientos,
+        en_motor
+    }
+
+    // Cuentas (y a través de ellas movimientos y estados de cuenta) de los clientes :ids
+    private static final String CUENTAS = "select id from cuenta where cliente_id in (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final MotorSaldos motor;
+    private final ClienteCache clienteCache;
+    private final int tamanoBloque;
+
+    public ArchivoClientes(NamedParameterJdbcTemplate jdbc,
+                           PlatformTransactionManager txManager,
+                           MotorSaldos motor,
+                           ClienteCache clienteCache,
+                           @Value("${archivo.bloque:500}") int tamanoBloque) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(txManager);
+        this.motor = motor;
+        this.clienteCache = clienteCache;
+        this.tamanoBloque = tamanoBloque;
+    }
+
+    public record ResultadoArchivo(long clientes, long cuentas, long movimientos, double segundos) {
+    }
+
+    public Estado eliminar(String dui) {
+        Estado estado = tx.execute(status -> {
+            Long id = bloquearCliente(dui);
+            if (id == null) {
+                return Estado.no_encontrado;
+            }
+            List<Long> cuentas = bloquearCuentas(List.of(id)).getOrDefault(id, List.of());
+            if (cuentas.stream().anyMatch(motor::administraId)) {
+                return Estado.en_motor;
+            }
+            MapSqlParameterSource ids = new MapSqlParameterSource("ids", List.of(id));
+            Boolean conHistorial = jdbc.queryForObject("select exists (select 1 from movimiento where cuenta_id in ("
+                    + CUENTAS + ")) or exists (select 1 from estado_cuenta where cuenta_id in (" + CUENTAS + "))",
+                    ids, Boolean.class);
+            if (Boolean.TRUE.equals(conHistorial)) {
+                return Estado.con_movimientos;
+            }
+            jdbc.update("delete from credenciales where cliente_dui = :dui", Map.of("dui", dui));
+            jdbc.update("delete from cuenta where cliente_id in (:ids)", ids);
+            jdbc.update("delete from cliente where id in (:ids)", ids);
+            return Estado.hecho;
+        });
+        clienteCache.invalidar(dui);
+        return estado;
+    }
+
+    public Estado archivar(String dui) {
+        Estado estado = tx.execute(status -> {
+            Long id = bloquearCliente(dui);
+            if (id == null) {
+                return Estado.no_encontrado;
+            }
+            List<Long> cuentas = bloquearCuentas(List.of(id)).getOrDefault(id, List.of());
+            if (cuentas.stream().anyMatch(motor::administraId)) {
+                return Estado.en_motor;
+            }
+            mover(List.of(id));
+            return Estado.hecho;
+        });
+        clienteCache.invalidar(dui);
+        return estado;
+    }
+
+    // Archiva, hasta 'maximo' clientes, los inactivos desde 'corte'
+    public ResultadoArchivo archivarInactivos(Instant corte, int maximo) {
+        long t0 = System.nanoTime();
+        long[] totales = new long[3];
+        long despuesDe = 0;
+        while (totales[0] < maximo) {
+            // Candidatos fuera de la transacción; dentro se vuelven a comprobar ya con las cuentas bloqueadas
+            List<Long> candidatos = jdbc.queryForList("select cl.id from cliente cl where cl.id > :despues and "
+                            + inactivo() + " order by cl.id limit :n",
+                    new MapSqlParameterSource("despues", despuesDe).addValue("corte", corte)
+                            .addValue("n", (int) Math.min(tamanoBloque, maximo - totales[0])),
+                    Long.class);
+            if (candidatos.isEmpty()) {
+                break;
+            }
+            despuesDe = candidatos.get(candidatos.size() - 1);
+            List<String> duis = tx.execute(status -> {
+                // Cliente antes que cuentas, como en eliminar y archivar: nadie le agrega una cuenta mientras tanto
+                jdbc.queryForList("select id from cliente where id in (:ids) order by id for update",
+                        Map.of("ids", candidatos), Long.class);
+                Map<Long, List<Long>> cuentas = bloquearCuentas(candidatos);
+                Set<Long> conMotor = new HashSet<>();
+                cuentas.forEach((cliente, ids) -> {
+                    if (ids.stream().anyMatch(motor::administraId)) {
+                        conMotor.add(cliente);
+                    }
+                });
+                List<Long> vigentes = jdbc.queryForList("select cl.id from cliente cl where cl.id in (:ids) and "
+                                + inactivo(),
+                        new MapSqlParameterSource("ids", candidatos).addValue("corte", corte), Long.class);
+                List<Long> archivar = vigentes.stream().filter(id -> !conMotor.contains(id)).toList();
+                if (archivar.isEmpty()) {
+                    return List.<String>of();
+                }
+                List<String> archivados = jdbc.queryForList("select dui from cliente where id in (:ids)",
+                        Map.of("ids", archivar), String.class);
+                long[] movidos = mover(archivar);
+                totales[1] += movidos[0];
+                totales[2] += movidos[1];
+                return archivados;
+            });
+            duis.forEach(clienteCache::invalidar);
+            totales[0] += duis.size();
+        }
+        return new ResultadoArchivo(totales[0], totales[1], totales[2], (System.nanoTime() - t0) / 1e9);
+    }
+
+    // Con movimientos, ninguno desde :corte y sin saldo en ninguna cuenta. Los clientes sin
+    // movimientos no se eligen: sin fecha de alta no se distingue uno inactivo de uno recién creado
+    private static String inactivo() {
+        return "exists (select 1 from cuenta c join movimiento m on m.cuenta_id = c.id where c.cliente_id = cl.id) "
+                + "and not exists (select 1 from cuenta c join movimiento m on m.cuenta_id = c.id "
+                + "where c.cliente_id = cl.id and m.fecha >= :corte) "
+                + "and not exists (select 1 from cuenta c where c.cliente_id = cl.id and c.saldo_centavos <> 0)";
+    }
+
+    // Copia y borra, tabla por tabla; devuelve {cuentas, movimientos}
+    private long[] mover(List<Long> clientes) {
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", clientes)
+                .addValue("ahora", Instant.now().truncatedTo(ChronoUnit.MICROS));
+        String duis = "select dui from cliente where id in (:ids)";
+
+        jdbc.update("insert into cliente_archivo (id, dui, primer_nombre, apellido, fecha_nacimiento, archivado) "
+                + "select id, dui, primer_nombre, apellido, fecha_nacimiento, :ahora from cliente where id in (:ids)", ids);
+        long cuentas = jdbc.update("insert into cuenta_archivo (id, numero, saldo_centavos, cliente_id, archivado) "
+                + "select id, numero, saldo_centavos, cliente_id, :ahora from cuenta where cliente_id in (:ids)", ids);
+        long movimientos = jdbc.update("insert into movimiento_archivo (id, cuenta_id, tipo, monto_centavos, "
+                + "saldo_centavos, fecha) select id, cuenta_id, tipo, monto_centavos, saldo_centavos, fecha "
+                + "from movimiento where cuenta_id in (" + CUENTAS + ")", ids);
+        jdbc.update("insert into estado_cuenta_archivo (id, cuenta_id, fecha, saldo_inicial, abonos, cargos, "
+                + "movimientos, saldo_final, interes, comision) select id, cuenta_id, fecha, saldo_inicial, abonos, "
+                + "cargos, movimientos, saldo_final, interes, comision from estado_cuenta where cuenta_id in ("
+                + CUENTAS + ")", ids);
+        jdbc.update("insert into credenciales_archivo (id, correo, contrasena, tipo_cuenta, cliente_dui, archivado) "
+                + "select id, correo, contrasena, tipo_cuenta, cliente_dui, :ahora from credenciales "
+                + "where cliente_dui in (" + duis + ")", ids);
+
+        jdbc.update("delete from estado_cuenta where cuenta_id in (" + CUENTAS + ")", ids);
+        jdbc.update("delete from movimiento where cuenta_id in (" + CUENTAS + ")", ids);
+        jdbc.update("delete from credenciales where cliente_dui in (" + duis + ")", ids);
+        jdbc.update("delete from cuenta where cliente_id in (:ids)", ids);
+        jdbc.update("delete from cliente where id in (:ids)", ids);
+        return new long[]{cuentas, movimientos};
+    }
+
+    private Long bloquearCliente(String dui) {
+        List<Long> ids = jdbc.queryForList("select id from cliente where dui = :dui for update",
+                Map.of("dui", dui), Long.class);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    // cliente -> ids de sus cuentas, bloqueadas en orden de id
+    private Map<Long, List<Long>> bloquearCuentas(List<Long> clientes) {
+        Map<Long, List<Long>> cuentas = new HashMap<>();
+        jdbc.query("select id, cliente_id from cuenta where cliente_id in (:ids) order by id for update",
+                Map.of("ids", clientes),
+                rs -> {
+                    cuentas.computeIfAbsent(rs.getLong(2), k -> new ArrayList<>()).add(rs.getLong(1));
+                });
+        return cuentas;
+    }
+}
@@ -0,0 +1,40 @@
+package com.banco.serviciocuentas.service;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Bloqueo pesimista de varias cuentas a la vez, siempre en orden de id.
+// El SELECT recorre la llave primaria en orden, así que InnoDB toma los bloqueos de fila
+// en ese mismo orden; dos operaciones que comparten cuentas (por ejemplo transferencias
+// A->B y B->A) nunca se esperan en ciclo. Debe llamarse dentro de una transacción.
+@Component
+public class BloqueoCuentas {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public BloqueoCuentas(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // Devuelve id -> {saldo en centavos, version} (en un long[2] para poder actualizarlos en memoria);
+    // las cuentas que ya no existen simplemente no aparecen
+    public TreeMap<Long, long[]> bloquear(Collection<Long> ids) {
+        Set<Long> unicos = new HashSet<>(ids);
+        TreeMap<Long, long[]> saldos = new TreeMap<>();
+        if (unicos.isEmpty()) {
+            return saldos;
+        }
+        jdbc.query("select id, saldo_centavos, version from cuenta where id in (:ids) order by id for update",
+                Map.of("ids", unicos),
+                rs -> {
+                    saldos.put(rs.getLong(1), new long[]{rs.getLong(2), rs.getLong(3)});
+                });
+        return saldos;
+    }
+}
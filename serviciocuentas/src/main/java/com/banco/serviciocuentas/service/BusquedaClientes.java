@@ -0,0 +1,118 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.TextoBusqueda;
+import com.banco.serviciocuentas.repository.ClienteEncontrado;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Búsqueda de clientes por prefijo, sin distinguir mayúsculas ni tildes.
+// - Si el texto empieza con un dígito se busca por prefijo de DUI (índice único de dui).
+// - Si no, el primer término es prefijo del apellido o del primer nombre y el segundo, si lo hay,
+//   prefijo del otro campo ("lop mar" y "mar lop" encuentran a María López). Primero salen los
+//   que coinciden por apellido y luego por nombre: dos recorridos de índice encadenados, sin
+//   repetidos y sin ordenar en memoria.
+// La paginación es keyset como en PaginaKeyset, pero la llave lleva texto: el cursor es
+// (recorrido, valores del índice, id) codificado en base64.
+@Service
+public class BusquedaClientes {
+
+    private static final int POR_APELLIDO = 0;
+    private static final int POR_NOMBRE = 1;
+
+    private final ClienteRepository clienteRepo;
+
+    public BusquedaClientes(ClienteRepository clienteRepo) {
+        this.clienteRepo = clienteRepo;
+    }
+
+    public record Pagina(List<ClienteEncontrado> clientes, String siguiente) {
+    }
+
+    // IllegalArgumentException si el texto está vacío o el token no es de esta búsqueda
+    public Pagina buscar(String texto, String token, int tamano) {
+        String normalizado = TextoBusqueda.normalizar(texto);
+        if (normalizado == null || normalizado.isEmpty()) {
+            throw new IllegalArgumentException("Texto de búsqueda vacío");
+        }
+        Cursor cursor = Cursor.decodificar(token);
+        Limit limit = Limit.of(tamano + 1);
+
+        if (Character.isDigit(normalizado.charAt(0))) {
+            List<ClienteEncontrado> filas = clienteRepo.buscarPorDui(prefijo(normalizado), cursor.primero(), limit);
+            if (filas.size() <= tamano) {
+                return new Pagina(filas, null);
+            }
+            return new Pagina(filas.subList(0, tamano),
+                    new Cursor(POR_APELLIDO, filas.get(tamano - 1).dui(), "", 0).codificar());
+        }
+
+        String[] terminos = normalizado.split("\\s+", 2);
+        String primero = prefijo(terminos[0]);
+        String segundo = terminos.length > 1 ? prefijo(terminos[1]) : "%";
+        List<ClienteEncontrado> filas = new ArrayList<>();
+        if (cursor.recorrido() == POR_APELLIDO) {
+            filas.addAll(clienteRepo.buscarPorApellido(primero, segundo, cursor.primero(), cursor.segundo(),
+                    cursor.id(), limit));
+        }
+        int porApellido = filas.size();
+        if (porApellido <= tamano) {
+            // El segundo recorrido empieza desde el principio si el primero se terminó en esta página
+            Cursor desde = cursor.recorrido() == POR_NOMBRE ? cursor : Cursor.INICIO;
+            filas.addAll(clienteRepo.buscarPorNombre(primero, segundo, desde.primero(), desde.segundo(), desde.id(),
+                    Limit.of(tamano + 1 - porApellido)));
+        }
+        // Como en PaginaKeyset, la fila extra solo indica que hay página siguiente
+        if (filas.size() <= tamano) {
+            return new Pagina(filas, null);
+        }
+        ClienteEncontrado ultimo = filas.get(tamano - 1);
+        Cursor siguiente = tamano <= porApellido
+                ? new Cursor(POR_APELLIDO, ultimo.apellidoBusqueda(), ultimo.primerNombreBusqueda(), ultimo.id())
+                : new Cursor(POR_NOMBRE, ultimo.primerNombreBusqueda(), ultimo.apellidoBusqueda(), ultimo.id());
+        return new Pagina(filas.subList(0, tamano), siguiente.codificar());
+    }
+
+    // "mar%" con los comodines de LIKE escapados con '!'
+    private static String prefijo(String termino) {
+        return termino.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    // Posición en un recorrido: los dos valores de su índice y el id del último cliente entregado
+    private record Cursor(int recorrido, String primero, String segundo, long id) {
+
+        static final Cursor INICIO = new Cursor(POR_APELLIDO, "", "", 0);
+
+        static Cursor decodificar(String token) {
+            if (token == null || token.isBlank()) {
+                return INICIO;
+            }
+            String[] partes = texto(token).split(":", -1);
+            if (partes.length != 4) {
+                throw new IllegalArgumentException("Token de página inválido: " + token);
+            }
+            int recorrido = Integer.parseInt(partes[0]);
+            if (recorrido != POR_APELLIDO && recorrido != POR_NOMBRE) {
+                throw new IllegalArgumentException("Token de página inválido: " + token);
+            }
+            return new Cursor(recorrido, texto(partes[1]), texto(partes[2]), Long.parseLong(partes[3]));
+        }
+
+        String codificar() {
+            return base64(recorrido + ":" + base64(primero) + ":" + base64(segundo) + ":" + id);
+        }
+
+        private static String base64(String texto) {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static String texto(String base64) {
+            return new String(Base64.getUrlDecoder().decode(base64), StandardCharsets.UTF_8);
+        }
+    }
+}
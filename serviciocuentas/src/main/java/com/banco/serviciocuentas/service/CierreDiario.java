@@ -0,0 +1,286 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cierre;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Movimiento;
+import com.banco.serviciocuentas.model.TipoMovimiento;
+import com.banco.serviciocuentas.repository.CierreRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import com.banco.serviciocuentas.repository.ResumenMovimientos;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Cierre diario (fin de día) sobre todas las cuentas: interés diario sobre el saldo al cierre,
+// comisión de mantenimiento el último día del mes y un estado de cuenta por cuenta (estado_cuenta).
+// - Recorre las cuentas por tramos de ids [k*T+1, (k+1)*T], sin cargar la tabla: cada tramo es una
+//   transacción corta que bloquea sus filas en orden de id (como BloqueoCuentas, así no entra en
+//   ciclo con transferencias ni lotes), resume los movimientos del día con una consulta agrupada
+//   y escribe saldos, movimientos y estados de cuenta con lotes JDBC.
+// - Los tramos corren en paralelo en un ForkJoinPool propio de cierre.hilos hilos. Pocos hilos y
+//   tramos chicos: cada fila queda bloqueada unos milisegundos y el pool de conexiones sigue
+//   disponible para abonar/retirar.
+// - Punto de control por tramo (cierre_tramo) en la misma transacción: un cierre interrumpido se
+//   reanuda ejecutándolo de nuevo para la misma fecha y solo procesa los tramos que faltan.
+// - El saldo al cierre se reconstruye como saldo actual menos el neto de los movimientos posteriores
+//   al día, así el cierre puede correr después de medianoche con tráfico en línea.
+// - Las cuentas de MotorSaldos se omiten: su saldo en la base va atrasado y el volcado lo pisaría.
+// Se ejecuta con POST /api/cierres o, si cierre.cron está definido, cada noche para el día anterior.
+// Métrica banco.cierre.cuentas: cuentas procesadas (su tasa es cuentas por segundo).
+@Service
+public class CierreDiario implements DisposableBean {
+
+    private static final Set<TipoMovimiento> CREDITOS = EnumSet.of(
+            TipoMovimiento.abono, TipoMovimiento.abono_transferencia, TipoMovimiento.interes);
+    private static final int DIAS_ANIO = 365;
+
+    private final CierreRepository cierreRepo;
+    private final MovimientoRepository movimientoRepo;
+    private final MotorSaldos motor;
+    private final JdbcTemplate jdbc;
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final Counter procesadas;
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    private final ThreadPoolTaskScheduler programador;
+
+    private final int hilos;
+    private final int tamanoTramo;
+    private final BigDecimal tasaDiaria;
+    private final long comisionMensual;
+    private final ZoneId zona;
+
+    public CierreDiario(CierreRepository cierreRepo,
+                        MovimientoRepository movimientoRepo,
+                        MotorSaldos motor,
+                        JdbcTemplate jdbc,
+                        EntityManager em,
+                        PlatformTransactionManager txManager,
+                        MeterRegistry registry,
+                        @Value("${cierre.hilos:2}") int hilos,
+                        @Value("${cierre.tamano-tramo:500}") int tamanoTramo,
+                        @Value("${cierre.tasa-interes-anual:0}") BigDecimal tasaAnual,
+                        @Value("${cierre.comision-mensual-centavos:0}") long comisionMensual,
+                        @Value("${cierre.zona:America/El_Salvador}") ZoneId zona,
+                        @Value("${cierre.cron:-}") String cron) {
+        this.cierreRepo = cierreRepo;
+        this.movimientoRepo = movimientoRepo;
+        this.motor = motor;
+        this.jdbc = jdbc;
+        this.em = em;
+        this.tx = new TransactionTemplate(txManager);
+        this.hilos = hilos;
+        this.tamanoTramo = tamanoTramo;
+        this.tasaDiaria = tasaAnual.divide(BigDecimal.valueOf(DIAS_ANIO), MathContext.DECIMAL64);
+        this.comisionMensual = comisionMensual;
+        this.zona = zona;
+        this.procesadas = Counter.builder("banco.cierre.cuentas")
+                .description("Cuentas procesadas por el cierre diario")
+                .register(registry);
+        if (ScheduledTaskRegistrar.CRON_DISABLED.equals(cron)) {
+            this.programador = null;
+        } else {
+            this.programador = new ThreadPoolTaskScheduler();
+            this.programador.setThreadNamePrefix("cierre-");
+            this.programador.initialize();
+            this.programador.schedule(() -> ejecutar(LocalDate.now(zona).minusDays(1)), new CronTrigger(cron, zona));
+        }
+    }
+
+    // Vacío si ya hay un cierre corriendo en esta instancia
+    public Optional<ResultadoCierre> ejecutar(LocalDate fecha) {
+        if (!enCurso.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(cerrar(fecha));
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    private ResultadoCierre cerrar(LocalDate fecha) {
+        Cierre cierre = cierreRepo.findById(fecha).orElseGet(() -> iniciar(fecha));
+        Set<Long> hechos = new HashSet<>(jdbc.queryForList(
+                "select desde_id from cierre_tramo where fecha = ?", Long.class, fecha));
+        if (cierre.getTerminado() != null) {
+            return new ResultadoCierre(fecha, true, hechos.size(), hechos.size(), 0, 0, 0, 0);
+        }
+
+        // Tramos alineados a múltiplos del tamaño fijado al empezar: los mismos en cada reanudación
+        int tamano = cierre.getTamanoTramo();
+        Long minId = jdbc.queryForObject("select min(id) from cuenta", Long.class);
+        List<Long> pendientes = new ArrayList<>();
+        if (minId != null) {
+            for (long desde = (minId - 1) / tamano * tamano + 1; desde <= cierre.getMaxId(); desde += tamano) {
+                if (!hechos.contains(desde)) {
+                    pendientes.add(desde);
+                }
+            }
+        }
+
+        Instant inicio = fecha.atStartOfDay(zona).toInstant();
+        Instant fin = fecha.plusDays(1).atStartOfDay(zona).toInstant();
+        boolean cobraComision = comisionMensual > 0 && fecha.getDayOfMonth() == fecha.lengthOfMonth();
+        long t0 = System.nanoTime();
+        long cuentas = 0;
+        int previos = hechos.size();
+        int fallidos = 0;
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            List<ForkJoinTask<Integer>> tareas = new ArrayList<>(pendientes.size());
+            for (long desde : pendientes) {
+                long hasta = Math.min(desde + tamano - 1, cierre.getMaxId());
+                tareas.add(pool.submit(() -> procesarTramo(fecha, desde, hasta, inicio, fin, cobraComision)));
+            }
+            for (ForkJoinTask<Integer> tarea : tareas) {
+                try {
+                    int n = tarea.join();
+                    if (n < 0) {
+                        previos++;
+                    } else {
+                        cuentas += n;
+                    }
+                } catch (RuntimeException e) {
+                    fallidos++;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double segundos = (System.nanoTime() - t0) / 1e9;
+
+        if (fallidos == 0) {
+            cierre.setTerminado(Instant.now());
+            cierreRepo.save(cierre);
+        }
+        return new ResultadoCierre(fecha, fallidos == 0, hechos.size() + pendientes.size(), previos, fallidos, cuentas, segundos,
+                segundos > 0 ? cuentas / segundos : 0);
+    }
+
+    // Dos POST simultáneos (o dos instancias) pueden no encontrar el cierre a la vez: el primer INSERT
+    // gana y el otro reanuda ese mismo cierre, con los tramos que fijó el ganador
+    private Cierre iniciar(LocalDate fecha) {
+        try {
+            jdbc.update("insert into cierre (fecha, tamano_tramo, max_id, iniciado) values (?, ?, ?, ?)",
+                    fecha, tamanoTramo,
+                    Optional.ofNullable(jdbc.queryForObject("select max(id) from cuenta", Long.class)).orElse(0L),
+                    Timestamp.from(Instant.now()));
+        } catch (DuplicateKeyException e) {
+            // Lo creó otro proceso
+        }
+        return cierreRepo.findById(fecha).orElseThrow();
+    }
+
+    // Cuentas procesadas, o -1 si otro proceso ya hizo el tramo
+    private int procesarTramo(LocalDate fecha, long desde, long hasta, Instant inicio, Instant fin,
+                              boolean cobraComision) {
+        Integer n = tx.execute(status -> {
+            // Primero el punto de control: un segundo proceso sobre el mismo tramo espera aquí y luego choca
+            try {
+                jdbc.update("insert into cierre_tramo (fecha, desde_id, hasta_id, cuentas) values (?, ?, ?, 0)",
+                        fecha, desde, hasta);
+            } catch (DuplicateKeyException e) {
+                return -1;
+            }
+            Map<Long, Long> saldos = new HashMap<>();
+            List<Long> ids = new ArrayList<>();
+            jdbc.query("select id, saldo_centavos from cuenta where id between ? and ? order by id for update",
+                    rs -> {
+                        long id = rs.getLong(1);
+                        if (!motor.administraId(id)) {
+                            ids.add(id);
+                            saldos.put(id, rs.getLong(2));
+                        }
+                    }, desde, hasta);
+            Map<Long, ResumenMovimientos> resumenes = new HashMap<>();
+            // Después del bloqueo: ningún movimiento de estas cuentas puede confirmarse mientras tanto
+            for (ResumenMovimientos r : movimientoRepo.resumirDia(desde, hasta, inicio, fin, CREDITOS)) {
+                resumenes.put(r.cuentaId(), r);
+            }
+
+            List<Object[]> nuevosSaldos = new ArrayList<>();
+            List<Object[]> estados = new ArrayList<>(ids.size());
+            // Interés y comisión se anotan con la hora de la ejecución y el saldo vigente (ya con los
+            // movimientos posteriores al día), así el saldo corrido del libro no se rompe; el día al
+            // que corresponden queda en estado_cuenta.fecha
+            Instant ahora = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            for (long id : ids) {
+                long saldo = saldos.get(id);
+                ResumenMovimientos r = resumenes.get(id);
+                long abonos = r == null ? 0 : r.abonos();
+                long cargos = r == null ? 0 : r.cargos();
+                long saldoFinal = saldo - (r == null ? 0 : r.netoPosterior());
+                long saldoInicial = saldoFinal - abonos + cargos;
+
+                long interes = saldoFinal > 0
+                        ? BigDecimal.valueOf(saldoFinal).multiply(tasaDiaria).setScale(0, RoundingMode.HALF_EVEN).longValue()
+                        : 0;
+                long nuevo = saldo;
+                if (interes > 0) {
+                    nuevo += interes;
+                    em.persist(new Movimiento(em.getReference(Cuenta.class, id), TipoMovimiento.interes, interes, nuevo, ahora));
+                }
+                // La comisión no deja la cuenta en negativo: sin saldo suficiente no se cobra
+                long comision = cobraComision && nuevo >= comisionMensual ? comisionMensual : 0;
+                if (comision > 0) {
+                    nuevo -= comision;
+                    em.persist(new Movimiento(em.getReference(Cuenta.class, id), TipoMovimiento.comision, comision, nuevo, ahora));
+                }
+                if (nuevo != saldo) {
+                    nuevosSaldos.add(new Object[]{nuevo, id});
+                }
+                estados.add(new Object[]{id, fecha, saldoInicial, abonos, cargos,
+                        r == null ? 0 : r.movimientos().intValue(), saldoFinal, interes, comision});
+            }
+            em.flush();
+            em.clear();
+            jdbc.batchUpdate("update cuenta set saldo_centavos = ?, version = version + 1 where id = ?", nuevosSaldos);
+            jdbc.batchUpdate("insert into estado_cuenta (cuenta_id, fecha, saldo_inicial, abonos, cargos, movimientos, "
+                    + "saldo_final, interes, comision) values (?, ?, ?, ?, ?, ?, ?, ?, ?)", estados);
+            jdbc.update("update cierre_tramo set cuentas = ? where fecha = ? and desde_id = ?", ids.size(), fecha, desde);
+            return ids.size();
+        });
+        if (n > 0) {
+            procesadas.increment(n);
+        }
+        return n;
+    }
+
+    @Override
+    public void destroy() {
+        if (programador != null) {
+            programador.shutdown();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.ClienteResumen;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Cache de lectura (read-through) de clientes por DUI delante de ClienteRepository.
+// - Acotado por tamaño y por TTL, así un cambio hecho desde otra instancia se ve a más tardar al expirar.
+// - Si muchas peticiones piden el mismo DUI ausente a la vez, Caffeine ejecuta una sola carga
+//   y el resto espera ese resultado (sin estampida contra MySQL).
+// - Las cargas leen del primario: una réplica atrasada metería al cache datos viejos que se servirían
+//   hasta el TTL. Se unen a la transacción de escritura de quien pregunta (misma conexión) o, sin
+//   transacción, abren una de escritura. No se llama dentro de una readOnly: ahí se uniría a la réplica,
+//   y abrir otra transacción tomaría una segunda conexión del pool por petición. Depende de
+//   spring.jpa.open-in-view=false: con la sesión abierta toda la petición, la carga heredaría la
+//   conexión a la réplica de una lectura anterior aunque esa transacción ya hubiera terminado.
+// - También guarda los DUI inexistentes (Optional.empty) para el chequeo de duplicados al crear.
+// - Las escrituras de ClienteController invalidan la entrada.
+// Los aciertos, fallos y expulsiones se publican como métricas cache.* con cache=clientes.
+@Service
+public class ClienteCache {
+
+    private final LoadingCache<String, Optional<ClienteResumen>> cache;
+
+    public ClienteCache(ClienteRepository clienteRepo,
+                        PlatformTransactionManager txManager,
+                        MeterRegistry registry,
+                        @Value("${clientes.cache.tamano-maximo:100000}") long tamanoMaximo,
+                        @Value("${clientes.cache.ttl:5m}") Duration ttl) {
+        TransactionTemplate primario = new TransactionTemplate(txManager);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(dui -> primario.execute(estado -> clienteRepo.findResumenByDui(dui)));
+        CaffeineCacheMetrics.monitor(registry, cache, "clientes");
+    }
+
+    public Optional<ClienteResumen> buscar(String dui) {
+        return dui == null ? Optional.empty() : cache.get(dui);
+    }
+
+    public boolean existe(String dui) {
+        return buscar(dui).isPresent();
+    }
+
+    public void invalidar(String dui) {
+        if (dui != null) {
+            cache.invalidate(dui);
+        }
+    }
+}
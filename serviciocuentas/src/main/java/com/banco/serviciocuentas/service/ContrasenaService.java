@@ -0,0 +1,104 @@
+package com.banco.serviciocuentas.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+
+// Hash y verificación de contraseñas (bcrypt). La búsqueda de credenciales se hace solo
+// por correo; la contraseña nunca llega al WHERE.
+// La verificación corre en un pool acotado y exclusivo: una ráfaga de logins se encola
+// (y al llenarse la cola se rechaza) en vez de ocupar los hilos de Tomcat que atienden
+// los saldos. Lo mismo el hash de altas y cambios de contraseña (hashearYGuardar).
+// Lo que sigue al hash (guardar en la base, rehash después de un login) corre en un segundo pool
+// pequeño, 'escrituras': las esperas de JDBC no ocupan los hilos de bcrypt.
+// Los pools no se publican como bean para no desplazar al executor por defecto de Spring Boot,
+// que usan las respuestas asíncronas de MVC.
+@Service
+public class ContrasenaService implements DisposableBean {
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final ThreadPoolTaskExecutor escrituras;
+    // Rehash en segundo plano: un hilo y cola corta; si se llena se descarta y se reintenta en otro login
+    private final ThreadPoolTaskExecutor rehash;
+    // Hash de referencia para gastar el mismo tiempo cuando el correo no existe
+    private final String hashFicticio;
+
+    public ContrasenaService(PasswordEncoder encoder,
+                             @Value("${seguridad.hash.hilos:0}") int hilos,
+                             @Value("${seguridad.hash.cola:256}") int cola) {
+        this.encoder = encoder;
+        int tamano = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(tamano);
+        this.executor.setMaxPoolSize(tamano);
+        this.executor.setQueueCapacity(cola);
+        this.executor.setThreadNamePrefix("hash-");
+        this.executor.initialize();
+        this.escrituras = new ThreadPoolTaskExecutor();
+        this.escrituras.setCorePoolSize(2);
+        this.escrituras.setMaxPoolSize(2);
+        this.escrituras.setQueueCapacity(cola);
+        this.escrituras.setThreadNamePrefix("hash-escritura-");
+        this.escrituras.initialize();
+        this.rehash = new ThreadPoolTaskExecutor();
+        this.rehash.setCorePoolSize(1);
+        this.rehash.setMaxPoolSize(1);
+        this.rehash.setQueueCapacity(64);
+        this.rehash.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        this.rehash.setThreadNamePrefix("rehash-");
+        this.rehash.initialize();
+        this.hashFicticio = encoder.encode("contrasena-ficticia");
+    }
+
+    public String hashear(String contrasena) {
+        return encoder.encode(contrasena);
+    }
+
+    // Hashea en el pool y luego llama a 'guardar' con el hash en el pool de escrituras.
+    // Lanza TaskRejectedException si el pool de hash y su cola están llenos; si lo está el de
+    // escrituras, el resultado completa con TaskRejectedException.
+    public <T> CompletableFuture<T> hashearYGuardar(String contrasena, Function<String, T> guardar) {
+        return CompletableFuture.supplyAsync(() -> encoder.encode(contrasena), executor)
+                .thenApplyAsync(guardar, escrituras);
+    }
+
+    // Después de un login válido con un hash viejo: hash y escritura fuera del pool de verificación
+    // y sin demorar la respuesta. Un fallo solo deja el hash viejo hasta el próximo login.
+    public void rehashear(String contrasena, Function<String, ?> guardar) {
+        rehash.execute(() -> guardar.apply(encoder.encode(contrasena)));
+    }
+
+    // Completa con false si no coincide o si 'hash' es null (correo inexistente).
+    // Lanza TaskRejectedException si el pool y su cola están llenos.
+    public CompletableFuture<Boolean> verificar(String contrasena, String hash) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (contrasena == null) {
+                return false;
+            }
+            if (hash == null) {
+                encoder.matches(contrasena, hashFicticio);
+                return false;
+            }
+            return encoder.matches(contrasena, hash);
+        }, executor);
+    }
+
+    // true si el hash guardado usa un formato o costo anterior y conviene regenerarlo
+    public boolean requiereRehash(String hash) {
+        return encoder.upgradeEncoding(hash);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+        escrituras.shutdown();
+        rehash.shutdown();
+    }
+}
@@ -0,0 +1,139 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.TipoMovimiento;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Diario de escritura anticipada (write-ahead) de una partición de MotorSaldos, sobre un archivo
+// mapeado en memoria de tamaño fijo. Cada movimiento es un registro de 48 bytes:
+//   secuencia(8) cuentaId(8) monto(8) saldo(8) fechaMicros(8) tipo(1) relleno(3) crc32c(4)
+// - agregar() solo copia bytes al mapa; confirmar() hace un único force (fsync) por todo lo
+//   agregado desde el último confirmar: es el group commit de la partición.
+// - El saldo va absoluto (después del movimiento), así reaplicar un registro es idempotente.
+// - Al llenarse se vuelve a escribir desde el inicio, solo después de que MotorSaldos volcó a la
+//   base todo lo anterior. La lectura al arrancar se detiene en el primer registro con CRC inválido
+//   (escritura cortada por la caída) o con una secuencia que no crece (restos de la vuelta anterior).
+// Lo usa un solo hilo (el de su partición) salvo leer(), que corre antes de arrancarlo.
+final class DiarioSaldos implements AutoCloseable {
+
+    static final int TAMANO_REGISTRO = 48;
+    private static final TipoMovimiento[] TIPOS = TipoMovimiento.values();
+
+    private final FileChannel canal;
+    private final MappedByteBuffer mapa;
+    private final int capacidad;
+    private final CRC32C crc = new CRC32C();
+    private int posicion;
+    private int confirmadoHasta;
+
+    DiarioSaldos(Path archivo, int registros) {
+        this.capacidad = registros * TAMANO_REGISTRO;
+        try {
+            this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, capacidad);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el diario " + archivo, e);
+        }
+    }
+
+    // Registros válidos con secuencia mayor que 'desde', en orden; deja la posición de escritura al final de ellos
+    List<Registro> leer(long desde) {
+        List<Registro> registros = new ArrayList<>();
+        long anterior = Long.MIN_VALUE;
+        int pos = 0;
+        while (pos + TAMANO_REGISTRO <= capacidad) {
+            Registro r = leerEn(pos);
+            if (r == null || r.secuencia() <= anterior) {
+                break;
+            }
+            anterior = r.secuencia();
+            pos += TAMANO_REGISTRO;
+            if (r.secuencia() > desde) {
+                registros.add(r);
+            }
+        }
+        posicion = pos;
+        confirmadoHasta = pos;
+        return registros;
+    }
+
+    int registros() {
+        return capacidad / TAMANO_REGISTRO;
+    }
+
+    // Si queda lugar para 'registros' registros más antes del final del archivo
+    boolean cabe(int registros) {
+        return posicion + (long) registros * TAMANO_REGISTRO <= capacidad;
+    }
+
+    void agregar(Registro r) {
+        ByteBuffer b = mapa.slice(posicion, TAMANO_REGISTRO);
+        b.putLong(r.secuencia())
+                .putLong(r.cuentaId())
+                .putLong(r.montoCentavos())
+                .putLong(r.saldoCentavos())
+                .putLong(r.fechaMicros())
+                .put((byte) r.tipo().ordinal())
+                .put(new byte[3]);
+        crc.reset();
+        crc.update(b.flip().limit(TAMANO_REGISTRO - 4));
+        b.limit(TAMANO_REGISTRO).putInt((int) crc.getValue());
+        posicion += TAMANO_REGISTRO;
+    }
+
+    // Un solo fsync para todo lo agregado desde la última confirmación
+    void confirmar() {
+        if (posicion > confirmadoHasta) {
+            mapa.force(confirmadoHasta, posicion - confirmadoHasta);
+            confirmadoHasta = posicion;
+        }
+    }
+
+    // Solo cuando todo lo escrito ya está en la base: lo que quede detrás tiene secuencias menores
+    void reiniciar() {
+        posicion = 0;
+        confirmadoHasta = 0;
+    }
+
+    private Registro leerEn(int pos) {
+        ByteBuffer b = mapa.slice(pos, TAMANO_REGISTRO);
+        crc.reset();
+        crc.update(b.duplicate().limit(TAMANO_REGISTRO - 4));
+        if (b.getInt(TAMANO_REGISTRO - 4) != (int) crc.getValue()) {
+            return null;
+        }
+        long secuencia = b.getLong();
+        if (secuencia <= 0) {
+            // Archivo nuevo: ceros con CRC de ceros no es un registro
+            return null;
+        }
+        long cuentaId = b.getLong();
+        long monto = b.getLong();
+        long saldo = b.getLong();
+        long fecha = b.getLong();
+        int tipo = b.get();
+        if (tipo < 0 || tipo >= TIPOS.length) {
+            return null;
+        }
+        return new Registro(secuencia, cuentaId, TIPOS[tipo], monto, saldo, fecha);
+    }
+
+    @Override
+    public void close() throws IOException {
+        confirmar();
+        canal.close();
+    }
+
+    record Registro(long secuencia, long cuentaId, TipoMovimiento tipo, long montoCentavos, long saldoCentavos,
+                    long fechaMicros) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+// Primer empleado de una instalación nueva. Todo /api salvo el login pide token (AccesoInterceptor) y
+// crear credenciales es de empleados, así que sin este paso nadie podría entrar la primera vez.
+// Con seguridad.admin.correo y seguridad.admin.contrasena definidos, al arrancar se crea ese empleado
+// si todavía no hay ninguno; con empleados ya registrados (o sin configurar) no hace nada.
+@Component
+public class EmpleadoInicial implements ApplicationRunner {
+
+    private final CredencialesRepository credRepo;
+    private final ContrasenaService contrasenas;
+    private final String correo;
+    private final String contrasena;
+
+    public EmpleadoInicial(CredencialesRepository credRepo,
+                           ContrasenaService contrasenas,
+                           @Value("${seguridad.admin.correo:}") String correo,
+                           @Value("${seguridad.admin.contrasena:}") String contrasena) {
+        this.credRepo = credRepo;
+        this.contrasenas = contrasenas;
+        this.correo = correo;
+        this.contrasena = contrasena;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (correo.isBlank() || contrasena.isBlank() || credRepo.existsByTipoCuenta(TipoCuenta.empleado)) {
+            return;
+        }
+        if (credRepo.findByCorreo(correo).isPresent()) {
+            throw new IllegalStateException("seguridad.admin.correo ya pertenece a credenciales de un cliente: " + correo);
+        }
+        credRepo.save(new Credenciales(correo, contrasenas.hashear(contrasena), TipoCuenta.empleado, null));
+    }
+}
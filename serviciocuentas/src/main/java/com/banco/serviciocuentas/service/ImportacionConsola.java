@@ -0,0 +1,55 @@
+package com.banco.serviciocuentas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Importación masiva desde la línea de comandos, sin pasar por HTTP:
+//   java -jar serviciocuentas.jar --spring.main.web-application-type=none --importar=clientes.csv
+// Cada --importar es un archivo (.ndjson o .jsonl se leen como NDJSON; el resto como CSV). Imprime
+// el resultado de cada uno como JSON y termina la aplicación: código 0 si no hubo rechazos, 1 si los hubo.
+// Sin --importar no hace nada y la aplicación arranca normalmente.
+@Component
+public class ImportacionConsola implements ApplicationRunner {
+
+    private static final String OPCION = "importar";
+
+    private final ImportadorClientes importador;
+    private final ObjectMapper mapper;
+    private final ConfigurableApplicationContext contexto;
+
+    public ImportacionConsola(ImportadorClientes importador, ObjectMapper mapper, ConfigurableApplicationContext contexto) {
+        this.importador = importador;
+        this.mapper = mapper;
+        this.contexto = contexto;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption(OPCION)) {
+            return;
+        }
+        boolean hayRechazos = false;
+        for (String archivo : args.getOptionValues(OPCION)) {
+            String nombre = archivo.toLowerCase();
+            ImportadorClientes.Formato formato = nombre.endsWith(".ndjson") || nombre.endsWith(".jsonl")
+                    ? ImportadorClientes.Formato.ndjson
+                    : ImportadorClientes.Formato.csv;
+            ResultadoImportacion resultado;
+            try (InputStream entrada = Files.newInputStream(Path.of(archivo))) {
+                resultado = importador.importar(entrada, formato);
+            }
+            System.out.println(archivo + ": " + mapper.writeValueAsString(resultado));
+            hayRechazos |= resultado.rechazadas() > 0;
+        }
+        int codigo = hayRechazos ? 1 : 0;
+        System.exit(SpringApplication.exit(contexto, () -> codigo));
+    }
+}
@@ -0,0 +1,415 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Dinero;
+import com.banco.serviciocuentas.model.TextoBusqueda;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// Importación masiva de clientes con su cuenta y sus credenciales desde CSV o NDJSON.
+// - La entrada se lee fila por fila mientras llega; en memoria solo hay un bloque (importacion.bloque).
+// - Columnas (CSV con encabezado, o llaves NDJSON; "primer_nombre" y "primerNombre" valen igual):
+//   dui, primer_nombre, apellido, fecha_nacimiento (AAAA-MM-DD) y, opcionales, numero y saldo de la
+//   cuenta, correo y contrasena de las credenciales. Una contrasena {bcrypt}$2a$... con un hash bcrypt
+//   válido se guarda tal cual; cualquier otra que empiece con "{" ({noop}, un id desconocido) se rechaza,
+//   porque se guardaría como un hash que el login no sabe leer o en texto plano. El resto es texto
+//   plano y se hashea aquí, a costa de unos 100 ms por fila.
+// - Filas seguidas con el mismo DUI agregan cuentas al cliente de la primera (de esas solo se leen
+//   numero y saldo).
+// - Por bloque: DUI y correos existentes se descartan con una consulta IN cada uno, y los INSERT
+//   van en lotes JDBC (con rewriteBatchedStatements el driver de MySQL los envía como un INSERT
+//   de varias filas). Cada bloque es una transacción: lo importado queda aunque la importación
+//   se corte después.
+// - Una fila se importa completa o se rechaza con su línea y motivo; el resto sigue.
+@Service
+public class ImportadorClientes {
+
+    public enum Formato {
+        csv,
+        ndjson
+    }
+
+    private static final Pattern DUI = Pattern.compile("\\d{8}-\\d");
+    // El mismo formato que acepta BCryptPasswordEncoder, con el prefijo de DelegatingPasswordEncoder
+    private static final Pattern HASH_BCRYPT = Pattern.compile("\\{bcrypt\\}\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+    private static final int MAX_NOMBRE = 12;
+    private static final int MAX_NUMERO = 20;
+    private static final int MAX_CORREO = 50;
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate jdbcNombrado;
+    private final TransactionTemplate tx;
+    private final ContrasenaService contrasenas;
+    private final ClienteCache clienteCache;
+    private final ObjectMapper mapper;
+    private final int tamanoBloque;
+    private final int maxRechazos;
+
+    public ImportadorClientes(JdbcTemplate jdbc,
+                              NamedParameterJdbcTemplate jdbcNombrado,
+                              PlatformTransactionManager txManager,
+                              ContrasenaService contrasenas,
+                              ClienteCache clienteCache,
+                              ObjectMapper mapper,
+                              @Value("${importacion.bloque:1000}") int tamanoBloque,
+                              @Value("${importacion.max-rechazos:1000}") int maxRechazos) {
+        this.jdbc = jdbc;
+        this.jdbcNombrado = jdbcNombrado;
+        this.tx = new TransactionTemplate(txManager);
+        this.contrasenas = contrasenas;
+        this.clienteCache = clienteCache;
+        this.mapper = mapper;
+        this.tamanoBloque = tamanoBloque;
+        this.maxRechazos = maxRechazos;
+    }
+
+    // IllegalArgumentException si al CSV le faltan columnas obligatorias en el encabezado
+    public ResultadoImportacion importar(InputStream entrada, Formato formato) throws IOException {
+        long t0 = System.nanoTime();
+        Importacion imp = new Importacion();
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), 1 << 16);
+        Fuente fuente = formato == Formato.csv ? csv(lector) : ndjson(lector);
+        List<Fila> bloque = new ArrayList<>(tamanoBloque);
+        for (Fila fila = fuente.siguiente(); fila != null; fila = fuente.siguiente()) {
+            bloque.add(fila);
+            if (bloque.size() == tamanoBloque) {
+                guardar(bloque, imp);
+                bloque.clear();
+            }
+        }
+        guardar(bloque, imp);
+
+        double segundos = (System.nanoTime() - t0) / 1e9;
+        return new ResultadoImportacion(imp.filas, imp.clientes, imp.cuentas, imp.credenciales, imp.rechazadas,
+                imp.rechazos, segundos, segundos > 0 ? imp.filas / segundos : 0);
+    }
+
+    private void guardar(List<Fila> bloque, Importacion imp) {
+        if (bloque.isEmpty()) {
+            return;
+        }
+        // 1. Validación y agrupación de las filas que siguen a la primera de su cliente
+        Map<String, Fila> cabezas = new LinkedHashMap<>();
+        Set<String> correos = new HashSet<>();
+        for (Fila f : bloque) {
+            Fila anterior = imp.ultima;
+            imp.ultima = f;
+            if (f.rechazo != null) {
+                continue;
+            }
+            if (anterior != null && f.dui != null && f.dui.equals(anterior.dui)) {
+                f.cabeza = anterior.cabeza != null ? anterior.cabeza : anterior;
+                f.rechazo = validarCuenta(f);
+                continue;
+            }
+            f.rechazo = validarCliente(f);
+            if (f.rechazo == null && cabezas.containsKey(f.dui)) {
+                f.rechazo = "DUI repetido en el archivo";
+            } else if (f.rechazo == null && f.correo != null && !correos.add(f.correo)) {
+                f.rechazo = "Correo repetido en el archivo";
+            } else if (f.rechazo == null) {
+                cabezas.put(f.dui, f);
+            }
+        }
+
+        // 2. Lo que ya existe en la base, con una consulta IN por columna
+        if (!cabezas.isEmpty()) {
+            for (String dui : jdbcNombrado.queryForList("select dui from cliente where dui in (:duis)",
+                    Map.of("duis", cabezas.keySet()), String.class)) {
+                cabezas.remove(dui).rechazo = "Ya existe un cliente con el DUI " + dui;
+            }
+        }
+        Map<String, Fila> porCorreo = new HashMap<>();
+        cabezas.values().stream().filter(f -> f.correo != null).forEach(f -> porCorreo.put(f.correo, f));
+        if (!porCorreo.isEmpty()) {
+            for (String correo : jdbcNombrado.queryForList("select correo from credenciales where correo in (:correos)",
+                    Map.of("correos", porCorreo.keySet()), String.class)) {
+                Fila f = porCorreo.remove(correo.toLowerCase(Locale.ROOT));
+                if (f != null) {
+                    cabezas.remove(f.dui).rechazo = "Ya existe una credencial con el correo " + correo;
+                }
+            }
+        }
+        // Fuera de la transacción: bcrypt es lento y no debe alargar los bloqueos
+        for (Fila f : porCorreo.values()) {
+            // validarCliente ya rechazó todo lo que empieza con "{" y no es un hash bcrypt válido
+            f.hash = f.contrasena.startsWith("{") ? f.contrasena : contrasenas.hashear(f.contrasena);
+        }
+
+        // 3. Un bloque, una transacción
+        int[] totales;
+        try {
+            totales = tx.execute(status -> insertar(bloque, cabezas.values()));
+        } catch (DataAccessException e) {
+            // Otro proceso insertó el mismo DUI o correo entre la consulta y el INSERT
+            for (Fila f : bloque) {
+                f.clienteId = null;
+                if (f.rechazo == null) {
+                    f.rechazo = "Conflicto con otro registro al guardar el bloque; vuelva a importar la fila";
+                }
+            }
+            totales = new int[3];
+        }
+        for (Fila f : cabezas.values()) {
+            clienteCache.invalidar(f.dui);
+        }
+
+        imp.filas += bloque.size();
+        imp.clientes += totales[0];
+        imp.cuentas += totales[1];
+        imp.credenciales += totales[2];
+        for (Fila f : bloque) {
+            if (f.rechazo != null) {
+                imp.rechazar(f);
+            }
+        }
+    }
+
+    // Clientes, cuentas y credenciales del bloque ya depurado; devuelve cuántos de cada uno
+    private int[] insertar(List<Fila> bloque, Iterable<Fila> cabezas) {
+        List<Object[]> clientes = new ArrayList<>();
+        List<String> duis = new ArrayList<>();
+        for (Fila f : cabezas) {
+            clientes.add(new Object[]{f.dui, f.primerNombre, f.apellido, f.fecha,
+                    TextoBusqueda.normalizar(f.primerNombre), TextoBusqueda.normalizar(f.apellido)});
+            duis.add(f.dui);
+        }
+        Map<String, Long> ids = new HashMap<>();
+        if (!clientes.isEmpty()) {
+            jdbc.batchUpdate("insert into cliente (dui, primer_nombre, apellido, fecha_nacimiento, version, "
+                    + "primer_nombre_busqueda, apellido_busqueda) values (?, ?, ?, ?, 0, ?, ?)", clientes);
+            jdbcNombrado.query("select id, dui from cliente where dui in (:duis)", Map.of("duis", duis),
+                    rs -> {
+                        ids.put(rs.getString(2), rs.getLong(1));
+                    });
+        }
+
+        List<Object[]> cuentas = new ArrayList<>();
+        List<Object[]> credenciales = new ArrayList<>();
+        for (Fila f : bloque) {
+            if (f.rechazo != null) {
+                continue;
+            }
+            if (f.cabeza == null) {
+                f.clienteId = ids.get(f.dui);
+                if (f.hash != null) {
+                    credenciales.add(new Object[]{f.correo, f.hash, f.dui});
+                }
+            } else if (f.cabeza.clienteId == null) {
+                f.rechazo = "El cliente de la línea " + f.cabeza.linea + " no se importó";
+                continue;
+            }
+            if (f.numero != null) {
+                cuentas.add(new Object[]{f.numero, f.saldoCentavos, f.cabeza == null ? f.clienteId : f.cabeza.clienteId});
+            }
+        }
+        jdbc.batchUpdate("insert into cuenta (numero, saldo_centavos, cliente_id, version) values (?, ?, ?, 0)", cuentas);
+        jdbc.batchUpdate("insert into credenciales (correo, contrasena, tipo_cuenta, cliente_dui) "
+                + "values (?, ?, 'cliente', ?)", credenciales);
+        return new int[]{clientes.size(), cuentas.size(), credenciales.size()};
+    }
+
+    private static String validarCliente(Fila f) {
+        if (f.dui == null || !DUI.matcher(f.dui).matches()) {
+            return "DUI inválido (formato 00000000-0)";
+        }
+        if (f.primerNombre == null || f.primerNombre.length() > MAX_NOMBRE) {
+            return "primer_nombre es obligatorio y admite hasta " + MAX_NOMBRE + " caracteres";
+        }
+        if (f.apellido == null || f.apellido.length() > MAX_NOMBRE) {
+            return "apellido es obligatorio y admite hasta " + MAX_NOMBRE + " caracteres";
+        }
+        try {
+            f.fecha = LocalDate.parse(f.fechaNacimiento);
+        } catch (NullPointerException | DateTimeParseException e) {
+            return "fecha_nacimiento es obligatoria con formato AAAA-MM-DD";
+        }
+        if (f.correo != null && (f.correo.length() > MAX_CORREO || f.correo.indexOf('@') < 1)) {
+            return "Correo inválido";
+        }
+        if ((f.correo == null) != (f.contrasena == null)) {
+            return "correo y contrasena van juntos";
+        }
+        if (f.contrasena != null && f.contrasena.startsWith("{") && !HASH_BCRYPT.matcher(f.contrasena).matches()) {
+            return "contrasena: solo se aceptan hashes {bcrypt} válidos; el texto plano no puede empezar con \"{\"";
+        }
+        return validarCuenta(f);
+    }
+
+    private static String validarCuenta(Fila f) {
+        if (f.cabeza != null && f.numero == null) {
+            return "Fila repetida del DUI sin cuenta (numero)";
+        }
+        if (f.cabeza != null && f.correo != null) {
+            return "Las credenciales van en la primera fila del cliente";
+        }
+        if (f.numero == null) {
+            return f.saldo == null ? null : "saldo sin numero de cuenta";
+        }
+        if (f.numero.length() > MAX_NUMERO) {
+            return "numero admite hasta " + MAX_NUMERO + " caracteres";
+        }
+        try {
+            f.saldoCentavos = f.saldo == null ? 0 : Dinero.parsear(f.saldo);
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return "Saldo inválido: " + f.saldo;
+        }
+        return f.saldoCentavos < 0 ? "El saldo no puede ser negativo" : null;
+    }
+
+    private Fuente csv(BufferedReader lector) throws IOException {
+        LectorCsv csv = new LectorCsv(lector);
+        String[] encabezado = csv.siguiente();
+        if (encabezado == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < encabezado.length; i++) {
+            columnas.put(columna(encabezado[i]), i);
+        }
+        List<String> faltan = new ArrayList<>();
+        for (String obligatoria : List.of("dui", "primernombre", "apellido", "fechanacimiento")) {
+            if (!columnas.containsKey(obligatoria)) {
+                faltan.add(obligatoria);
+            }
+        }
+        if (!faltan.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas en el encabezado: " + faltan);
+        }
+        return () -> {
+            String[] valores = csv.siguiente();
+            if (valores == null) {
+                return null;
+            }
+            return new Fila(csv.linea(), nombre -> {
+                Integer i = columnas.get(nombre);
+                return i == null || i >= valores.length ? null : valores[i];
+            });
+        };
+    }
+
+    private Fuente ndjson(BufferedReader lector) {
+        long[] linea = {0};
+        return () -> {
+            String texto;
+            do {
+                texto = lector.readLine();
+                linea[0]++;
+            } while (texto != null && texto.isBlank());
+            if (texto == null) {
+                return null;
+            }
+            JsonNode nodo;
+            try {
+                nodo = mapper.readTree(texto);
+            } catch (JsonProcessingException e) {
+                nodo = null;
+            }
+            if (nodo == null || !nodo.isObject()) {
+                Fila invalida = new Fila(linea[0], nombre -> null);
+                invalida.rechazo = "JSON inválido";
+                return invalida;
+            }
+            Map<String, String> valores = new HashMap<>();
+            nodo.fields().forEachRemaining(e -> valores.put(columna(e.getKey()),
+                    e.getValue().isNull() ? null : e.getValue().asText()));
+            return new Fila(linea[0], valores::get);
+        };
+    }
+
+    // "primer_nombre", "primerNombre" y "Primer Nombre" son la misma columna
+    private static String columna(String nombre) {
+        return nombre.replace("_", "").replace(" ", "").strip().toLowerCase(Locale.ROOT);
+    }
+
+    @FunctionalInterface
+    private interface Fuente {
+        // null al terminar la entrada
+        Fila siguiente() throws IOException;
+    }
+
+    private static final class Fila {
+        final long linea;
+        final String dui;
+        final String primerNombre;
+        final String apellido;
+        final String fechaNacimiento;
+        final String numero;
+        final String saldo;
+        final String correo;
+        final String contrasena;
+        // Primera fila del mismo cliente si esta solo agrega una cuenta
+        Fila cabeza;
+        LocalDate fecha;
+        long saldoCentavos;
+        String hash;
+        Long clienteId;
+        String rechazo;
+
+        Fila(long linea, Function<String, String> valor) {
+            this.linea = linea;
+            this.dui = limpio(valor.apply("dui"));
+            this.primerNombre = limpio(valor.apply("primernombre"));
+            this.apellido = limpio(valor.apply("apellido"));
+            this.fechaNacimiento = limpio(valor.apply("fechanacimiento"));
+            this.numero = limpio(valor.apply("numero"));
+            this.saldo = limpio(valor.apply("saldo"));
+            String correo = limpio(valor.apply("correo"));
+            this.correo = correo == null ? null : correo.toLowerCase(Locale.ROOT);
+            // Sin recortar: los espacios pueden ser parte de la contraseña
+            String contrasena = valor.apply("contrasena");
+            this.contrasena = contrasena == null || contrasena.isEmpty() ? null : contrasena;
+        }
+
+        private static String limpio(String valor) {
+            if (valor == null) {
+                return null;
+            }
+            String sinEspacios = valor.strip();
+            return sinEspacios.isEmpty() ? null : sinEspacios;
+        }
+    }
+
+    private final class Importacion {
+        long filas;
+        long clientes;
+        long cuentas;
+        long credenciales;
+        long rechazadas;
+        final List<ResultadoImportacion.Rechazo> rechazos = new ArrayList<>();
+        // Última fila leída, para reconocer las filas que agregan cuentas al mismo cliente
+        Fila ultima;
+
+        void rechazar(Fila f) {
+            rechazadas++;
+            if (rechazos.size() < maxRechazos) {
+                rechazos.add(new ResultadoImportacion.Rechazo(f.linea, f.dui, f.rechazo));
+            }
+        }
+    }
+}
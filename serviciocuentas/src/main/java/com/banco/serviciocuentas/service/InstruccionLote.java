@@ -0,0 +1,23 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Dinero;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+// Una instrucción de POST /api/cuentas/lote. Para transferencias, (dui, numero) es la
+// cuenta de origen y (duiDestino, numeroDestino) la de destino.
+public record InstruccionLote(
+        Tipo tipo,
+        String dui,
+        String numero,
+        String duiDestino,
+        String numeroDestino,
+        @JsonProperty("monto") @JsonDeserialize(using = Dinero.Deserializador.class) long montoCentavos
+) {
+
+    public enum Tipo {
+        abono,
+        retiro,
+        transferencia
+    }
+}
@@ -0,0 +1,84 @@
+package com.banco.serviciocuentas.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lector CSV (RFC 4180) que avanza registro por registro sobre un Reader, sin cargar el archivo:
+// separador ',', campos entre comillas con "" como comilla literal y saltos de línea dentro de
+// comillas. Acepta finales de línea \n y \r\n. El Reader debe soportar mark (BufferedReader).
+final class LectorCsv {
+
+    private final Reader entrada;
+    private final StringBuilder campo = new StringBuilder();
+    private final List<String> campos = new ArrayList<>();
+    // Línea física en la que está el lector y línea donde empezó el último registro
+    private long lineaActual = 1;
+    private long linea;
+    private boolean fin;
+
+    LectorCsv(Reader entrada) {
+        this.entrada = entrada;
+    }
+
+    // Línea del archivo (desde 1) donde empezó el último registro leído
+    long linea() {
+        return linea;
+    }
+
+    // Siguiente registro, o null al final del archivo. Las líneas vacías se saltan.
+    String[] siguiente() throws IOException {
+        while (!fin) {
+            linea = lineaActual;
+            campos.clear();
+            campo.setLength(0);
+            boolean entreComillas = false;
+            boolean hayDatos = false;
+            while (true) {
+                int ch = entrada.read();
+                if (ch < 0) {
+                    fin = true;
+                    break;
+                }
+                if (ch == '\n') {
+                    lineaActual++;
+                    if (!entreComillas) {
+                        break;
+                    }
+                }
+                if (entreComillas) {
+                    if (ch != '"') {
+                        campo.append((char) ch);
+                        continue;
+                    }
+                    entrada.mark(1);
+                    if (entrada.read() == '"') {
+                        campo.append('"');
+                    } else {
+                        entrada.reset();
+                        entreComillas = false;
+                    }
+                    continue;
+                }
+                if (ch == '\r') {
+                    continue;
+                }
+                hayDatos = true;
+                if (ch == '"' && campo.isEmpty()) {
+                    entreComillas = true;
+                } else if (ch == ',') {
+                    campos.add(campo.toString());
+                    campo.setLength(0);
+                } else {
+                    campo.append((char) ch);
+                }
+            }
+            if (hayDatos) {
+                campos.add(campo.toString());
+                return campos.toArray(new String[0]);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,242 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Dinero;
+import com.banco.serviciocuentas.model.Movimiento;
+import com.banco.serviciocuentas.model.TipoMovimiento;
+import com.banco.serviciocuentas.repository.CuentaClave;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Aplica lotes de abonos, retiros y transferencias (nómina, liquidaciones) en una transacción:
+//  1. resuelve todas las cuentas del lote con una sola consulta IN,
+//  2. las bloquea con SELECT ... FOR UPDATE en orden de id, así dos lotes que comparten
+//     cuentas siempre toman los bloqueos en el mismo orden y no pueden caer en deadlock,
+//  3. aplica las instrucciones en memoria sobre los saldos bloqueados, en el orden recibido,
+//  4. escribe los saldos finales y los movimientos con lotes JDBC,
+//  5. publica un SaldoActualizado por cuenta tocada, con su saldo final (no uno por instrucción).
+// Con 'atomico' cualquier instrucción rechazada anula el lote completo; sin él,
+// las rechazadas se omiten y el resto se aplica.
+@Service
+public class LoteService {
+
+    public static final int MAX_INSTRUCCIONES = 10_000;
+
+    private static final int FILAS_POR_LOTE_JDBC = 500;
+
+    private final CuentaRepository cuentaRepo;
+    private final BloqueoCuentas bloqueo;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final EntityManager em;
+    private final ApplicationEventPublisher eventos;
+
+    public LoteService(CuentaRepository cuentaRepo,
+                       BloqueoCuentas bloqueo,
+                       NamedParameterJdbcTemplate jdbc,
+                       EntityManager em,
+                       ApplicationEventPublisher eventos) {
+        this.cuentaRepo = cuentaRepo;
+        this.bloqueo = bloqueo;
+        this.jdbc = jdbc;
+        this.em = em;
+        this.eventos = eventos;
+    }
+
+    @Transactional
+    public ResultadoLote aplicar(List<InstruccionLote> instrucciones, boolean atomico) {
+        Map<ClaveCuenta, Long> ids = resolver(instrucciones);
+        // TreeMap: las escrituras también salen en orden de id
+        TreeMap<Long, long[]> saldos = bloqueo.bloquear(ids.values());
+        // Una cuenta borrada entre la consulta y el bloqueo cuenta como no encontrada
+        ids.values().removeIf(id -> !saldos.containsKey(id));
+
+        List<ResultadoLote.Item> resultados = new ArrayList<>(instrucciones.size());
+        List<Pendiente> movimientos = new ArrayList<>();
+        int rechazadas = 0;
+        for (int i = 0; i < instrucciones.size(); i++) {
+            ResultadoLote.Item item = aplicar(i, instrucciones.get(i), ids, saldos, movimientos);
+            if (item.estado() != ResultadoLote.Estado.aplicado) {
+                rechazadas++;
+            }
+            resultados.add(item);
+        }
+
+        if (atomico && rechazadas > 0) {
+            // Nada se escribió todavía; basta con informar qué se habría aplicado
+            resultados.replaceAll(r -> r.estado() == ResultadoLote.Estado.aplicado
+                    ? new ResultadoLote.Item(r.indice(), ResultadoLote.Estado.revertido, null, null)
+                    : r);
+            return new ResultadoLote(0, rechazadas, resultados);
+        }
+
+        Set<Long> tocadas = new HashSet<>();
+        movimientos.forEach(m -> tocadas.add(m.cuentaId()));
+        escribir(saldos, tocadas, movimientos);
+        publicar(ids, saldos, tocadas);
+        return new ResultadoLote(instrucciones.size() - rechazadas, rechazadas, resultados);
+    }
+
+    private ResultadoLote.Item aplicar(int indice, InstruccionLote ins, Map<ClaveCuenta, Long> ids,
+                                       Map<Long, long[]> saldos, List<Pendiente> movimientos) {
+        if (!valida(ins)) {
+            return new ResultadoLote.Item(indice, ResultadoLote.Estado.instruccion_invalida, null, null);
+        }
+        Long origen = ids.get(new ClaveCuenta(ins.dui(), ins.numero()));
+        Long destino = ins.tipo() == InstruccionLote.Tipo.transferencia
+                ? ids.get(new ClaveCuenta(ins.duiDestino(), ins.numeroDestino()))
+                : null;
+        if (origen == null || (ins.tipo() == InstruccionLote.Tipo.transferencia && destino == null)) {
+            return new ResultadoLote.Item(indice, ResultadoLote.Estado.cuenta_no_encontrada, null, null);
+        }
+
+        long monto = ins.montoCentavos();
+        long[] saldo = saldos.get(origen);
+        switch (ins.tipo()) {
+            case abono -> {
+                Long nuevo = sumar(saldo[0], monto);
+                if (nuevo == null) {
+                    return new ResultadoLote.Item(indice, ResultadoLote.Estado.saldo_maximo_excedido, saldo[0], null);
+                }
+                saldo[0] = nuevo;
+                movimientos.add(new Pendiente(origen, TipoMovimiento.abono, monto, saldo[0]));
+                return new ResultadoLote.Item(indice, ResultadoLote.Estado.aplicado, saldo[0], null);
+            }
+            case retiro -> {
+                if (saldo[0] < monto) {
+                    return new ResultadoLote.Item(indice, ResultadoLote.Estado.saldo_insuficiente, saldo[0], null);
+                }
+                saldo[0] -= monto;
+                movimientos.add(new Pendiente(origen, TipoMovimiento.retiro, monto, saldo[0]));
+                return new ResultadoLote.Item(indice, ResultadoLote.Estado.aplicado, saldo[0], null);
+            }
+            default -> {
+                if (saldo[0] < monto) {
+                    return new ResultadoLote.Item(indice, ResultadoLote.Estado.saldo_insuficiente, saldo[0], null);
+                }
+                long[] saldoDestino = saldos.get(destino);
+                Long nuevoDestino = sumar(saldoDestino[0], monto);
+                if (nuevoDestino == null) {
+                    return new ResultadoLote.Item(indice, ResultadoLote.Estado.saldo_maximo_excedido, saldo[0], saldoDestino[0]);
+                }
+                saldo[0] -= monto;
+                saldoDestino[0] = nuevoDestino;
+                movimientos.add(new Pendiente(origen, TipoMovimiento.cargo_transferencia, monto, saldo[0]));
+                movimientos.add(new Pendiente(destino, TipoMovimiento.abono_transferencia, monto, saldoDestino[0]));
+                return new ResultadoLote.Item(indice, ResultadoLote.Estado.aplicado, saldo[0], saldoDestino[0]);
+            }
+        }
+    }
+
+    private static boolean valida(InstruccionLote ins) {
+        if (ins == null || ins.tipo() == null || ins.dui() == null || ins.numero() == null
+                || !Dinero.montoValido(ins.montoCentavos())) {
+            return false;
+        }
+        if (ins.tipo() == InstruccionLote.Tipo.transferencia) {
+            return ins.duiDestino() != null && ins.numeroDestino() != null
+                    && !(ins.duiDestino().equals(ins.dui()) && ins.numeroDestino().equals(ins.numero()));
+        }
+        return true;
+    }
+
+    // Saldo tras un crédito, o null si desbordaría: se rechaza solo esa instrucción, como en MotorSaldos,
+    // en vez de escribir un saldo negativo o tumbar el lote con la excepción
+    private static Long sumar(long saldo, long monto) {
+        try {
+            return Math.addExact(saldo, monto);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private Map<ClaveCuenta, Long> resolver(List<InstruccionLote> instrucciones) {
+        Set<ClaveCuenta> pedidas = new HashSet<>();
+        Set<String> duis = new HashSet<>();
+        Set<String> numeros = new HashSet<>();
+        for (InstruccionLote ins : instrucciones) {
+            if (ins == null) {
+                continue;
+            }
+            agregar(pedidas, duis, numeros, ins.dui(), ins.numero());
+            agregar(pedidas, duis, numeros, ins.duiDestino(), ins.numeroDestino());
+        }
+        Map<ClaveCuenta, Long> ids = new HashMap<>();
+        if (pedidas.isEmpty()) {
+            return ids;
+        }
+        for (CuentaClave c : cuentaRepo.findClaves(duis, numeros)) {
+            ClaveCuenta clave = new ClaveCuenta(c.dui(), c.numero());
+            // El IN por columnas separadas trae combinaciones no pedidas; esas no se bloquean
+            if (pedidas.contains(clave)) {
+                ids.put(clave, c.id());
+            }
+        }
+        return ids;
+    }
+
+    private static void agregar(Set<ClaveCuenta> pedidas, Set<String> duis, Set<String> numeros,
+                                String dui, String numero) {
+        if (dui != null && numero != null) {
+            pedidas.add(new ClaveCuenta(dui, numero));
+            duis.add(dui);
+            numeros.add(numero);
+        }
+    }
+
+    private void escribir(Map<Long, long[]> saldos, Set<Long> tocadas, List<Pendiente> movimientos) {
+        if (movimientos.isEmpty()) {
+            return;
+        }
+        List<Object[]> filas = new ArrayList<>(tocadas.size());
+        saldos.forEach((id, saldo) -> {
+            if (tocadas.contains(id)) {
+                filas.add(new Object[]{saldo[0], id});
+            }
+        });
+        jdbc.getJdbcTemplate().batchUpdate("update cuenta set saldo_centavos = ?, version = version + 1 where id = ?", filas,
+                FILAS_POR_LOTE_JDBC, (ps, fila) -> {
+                    ps.setLong(1, (Long) fila[0]);
+                    ps.setLong(2, (Long) fila[1]);
+                });
+
+        // Los INSERT de movimientos salen en lotes de hibernate.jdbc.batch_size al hacer flush
+        int n = 0;
+        for (Pendiente m : movimientos) {
+            em.persist(new Movimiento(em.getReference(Cuenta.class, m.cuentaId()), m.tipo(), m.montoCentavos(), m.saldoCentavos()));
+            if (++n % FILAS_POR_LOTE_JDBC == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+    }
+
+    // Los eventos salen después del commit (SaldoEventos); con el lote revertido no sale ninguno
+    private void publicar(Map<ClaveCuenta, Long> ids, Map<Long, long[]> saldos, Set<Long> tocadas) {
+        ids.forEach((clave, id) -> {
+            if (tocadas.contains(id)) {
+                // escribir() hizo un solo UPDATE por cuenta tocada: version + 1
+                long[] saldo = saldos.get(id);
+                eventos.publishEvent(new SaldoActualizado(clave.dui(), clave.numero(), saldo[0], saldo[1] + 1));
+            }
+        });
+    }
+
+    private record ClaveCuenta(String dui, String numero) {
+    }
+
+    private record Pendiente(Long cuentaId, TipoMovimiento tipo, long montoCentavos, long saldoCentavos) {
+    }
+}
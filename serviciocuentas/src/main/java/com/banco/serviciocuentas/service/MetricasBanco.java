@@ -0,0 +1,73 @@
+package com.banco.serviciocuentas.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Contadores de negocio publicados en /actuator/metrics y /actuator/prometheus:
+//   banco.movimientos{tipo}           operaciones confirmadas (abono, retiro, transferencia)
+//   banco.movimientos.monto{tipo}     suma de los montos confirmados, en centavos
+//   banco.saldo.insuficiente{tipo}    rechazos por falta de saldo
+//   banco.login{resultado}            exitoso, fallido u ocupado (pool de verificación lleno)
+// Los controladores los incrementan después de que el servicio confirmó la transacción.
+// Los contadores se crean una sola vez; incrementarlos no busca en el registro.
+@Service
+public class MetricasBanco {
+
+    private final Map<InstruccionLote.Tipo, Counter> movimientos = new EnumMap<>(InstruccionLote.Tipo.class);
+    private final Map<InstruccionLote.Tipo, Counter> montos = new EnumMap<>(InstruccionLote.Tipo.class);
+    private final Map<InstruccionLote.Tipo, Counter> saldoInsuficiente = new EnumMap<>(InstruccionLote.Tipo.class);
+    private final Counter loginExitoso;
+    private final Counter loginFallido;
+    private final Counter loginOcupado;
+
+    public MetricasBanco(MeterRegistry registry) {
+        for (InstruccionLote.Tipo tipo : InstruccionLote.Tipo.values()) {
+            movimientos.put(tipo, Counter.builder("banco.movimientos")
+                    .description("Movimientos de saldo confirmados")
+                    .tag("tipo", tipo.name())
+                    .register(registry));
+            montos.put(tipo, Counter.builder("banco.movimientos.monto")
+                    .description("Suma de los montos confirmados")
+                    .baseUnit("centavos")
+                    .tag("tipo", tipo.name())
+                    .register(registry));
+            if (tipo != InstruccionLote.Tipo.abono) {
+                saldoInsuficiente.put(tipo, Counter.builder("banco.saldo.insuficiente")
+                        .description("Operaciones rechazadas por saldo insuficiente")
+                        .tag("tipo", tipo.name())
+                        .register(registry));
+            }
+        }
+        loginExitoso = login(registry, "exitoso");
+        loginFallido = login(registry, "fallido");
+        loginOcupado = login(registry, "ocupado");
+    }
+
+    public void movimiento(InstruccionLote.Tipo tipo, long montoCentavos) {
+        movimientos.get(tipo).increment();
+        montos.get(tipo).increment(montoCentavos);
+    }
+
+    public void saldoInsuficiente(InstruccionLote.Tipo tipo) {
+        saldoInsuficiente.get(tipo).increment();
+    }
+
+    public void login(boolean exitoso) {
+        (exitoso ? loginExitoso : loginFallido).increment();
+    }
+
+    public void loginOcupado() {
+        loginOcupado.increment();
+    }
+
+    private static Counter login(MeterRegistry registry, String resultado) {
+        return Counter.builder("banco.login")
+                .description("Intentos de login por resultado")
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+}
@@ -0,0 +1,457 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Movimiento;
+import com.banco.serviciocuentas.model.PuntoDiario;
+import com.banco.serviciocuentas.model.TipoMovimiento;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.PuntoDiarioRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Motor opcional para las cuentas más calientes (cuentas recaudadoras de comercios), donde hasta el
+// UPDATE atómico de SaldoService hace fila detrás del bloqueo de la fila de cuenta.
+// Se activa listando las cuentas en saldos.motor.cuentas (dui/numero); las demás siguen por SaldoService.
+// - Cada cuenta pertenece a una partición (posición % particiones) con un único hilo escritor y su cola.
+//   Los saldos viven en un long[]; solo el hilo de la partición escribe los suyos, sin bloqueos.
+// - El hilo toma de la cola todo lo pendiente (hasta MAX_GRUPO), lo aplica, lo agrega a su diario
+//   mapeado en memoria (DiarioSaldos) y hace un solo fsync por el grupo antes de responder (group commit).
+//   Un abono confirmado al cliente ya está en disco.
+// - Cada saldos.motor.volcado se vuelcan a la base, en una transacción, los movimientos, el saldo
+//   final de cada cuenta tocada y la secuencia del diario alcanzada (PuntoDiario). Mientras tanto,
+//   los GET que leen la base pueden mostrar un saldo atrasado en hasta ese intervalo.
+// - Al arrancar se cargan los saldos de la base, se reaplican los registros del diario posteriores al
+//   PuntoDiario y se vuelcan de inmediato. Al cerrar se vacían las colas y se vuelca todo.
+// - Si un fsync falla, o el hilo muere por cualquier Throwable (también un Error), la partición se
+//   detiene: el grupo en curso falla, y lo encolado y lo que llegue después se rechaza (503). Al
+//   reiniciar, el diario decide qué movimientos se aplicaron.
+// - Quien pide un movimiento espera a lo sumo saldos.motor.espera. Si vence y el movimiento seguía en
+//   la cola, se retira y se rechaza (503, no se aplicó); si el hilo ya lo había tomado, el resultado
+//   es SIN_CONFIRMAR: puede aplicarse igual.
+// - La vuelta del diario se hace antes de agregar un grupo, nunca a mitad: si el volcado previo falla,
+//   solo se rechaza ese grupo, que todavía no está en el diario, y la partición sigue.
+// - Las cuentas del motor no admiten transferencias, lotes ni borrado: sus saldos en la base no
+//   están al día y se pisarían con el volcado (CuentaController responde 409).
+// Cambiar saldos.motor.particiones solo después de un cierre ordenado (con todo volcado).
+@Service
+public class MotorSaldos implements DisposableBean {
+
+    static final int MAX_GRUPO = 256;
+    private static final int FILAS_POR_LOTE_JDBC = 500;
+
+    private final Map<String, Integer> posiciones = new HashMap<>();
+    private final Map<Long, Integer> posicionPorId = new HashMap<>();
+    private final long[] ids;
+    private final String[] duis;
+    private final String[] numeros;
+    private final Cliente[] clientes;
+    private final long[] saldos;
+    private final Particion[] particiones;
+
+    private final PuntoDiarioRepository puntoRepo;
+    private final JdbcTemplate jdbc;
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher eventos;
+    private final ThreadPoolTaskScheduler volcador;
+    private final Duration espera;
+
+    public MotorSaldos(CuentaRepository cuentaRepo,
+                       PuntoDiarioRepository puntoRepo,
+                       JdbcTemplate jdbc,
+                       EntityManager em,
+                       PlatformTransactionManager txManager,
+                       ApplicationEventPublisher eventos,
+                       @Value("${saldos.motor.cuentas:}") List<String> cuentas,
+                       @Value("${saldos.motor.particiones:2}") int nParticiones,
+                       @Value("${saldos.motor.directorio:diario}") Path directorio,
+                       @Value("${saldos.motor.registros-diario:1000000}") int registrosDiario,
+                       @Value("${saldos.motor.cola:4096}") int cola,
+                       @Value("${saldos.motor.volcado:200ms}") Duration volcado,
+                       @Value("${saldos.motor.espera:5s}") Duration espera) {
+        this.puntoRepo = puntoRepo;
+        this.jdbc = jdbc;
+        this.em = em;
+        this.tx = new TransactionTemplate(txManager);
+        this.eventos = eventos;
+        this.espera = espera;
+
+        int n = cuentas.size();
+        this.ids = new long[n];
+        this.duis = new String[n];
+        this.numeros = new String[n];
+        this.clientes = new Cliente[n];
+        this.saldos = new long[n];
+        for (int i = 0; i < n; i++) {
+            String[] partes = cuentas.get(i).trim().split("/");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("saldos.motor.cuentas: se espera dui/numero y se recibió " + cuentas.get(i));
+            }
+            Cuenta cuenta = cuentaRepo.findByClienteDuiAndNumero(partes[0], partes[1]).orElseThrow(() ->
+                    new IllegalStateException("saldos.motor.cuentas: no existe la cuenta " + partes[1] + " del cliente " + partes[0]));
+            ids[i] = cuenta.getId();
+            duis[i] = partes[0];
+            numeros[i] = partes[1];
+            clientes[i] = cuenta.getCliente();
+            saldos[i] = cuenta.getSaldoCentavos();
+            posiciones.put(clave(partes[0], partes[1]), i);
+            posicionPorId.put(cuenta.getId(), i);
+        }
+
+        if (n == 0) {
+            this.particiones = new Particion[0];
+            this.volcador = null;
+            return;
+        }
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear " + directorio, e);
+        }
+        this.particiones = new Particion[Math.min(nParticiones, n)];
+        for (int p = 0; p < particiones.length; p++) {
+            particiones[p] = recuperar(p, new DiarioSaldos(directorio.resolve("diario-" + p + ".log"), registrosDiario), cola);
+        }
+        for (Particion p : particiones) {
+            p.hilo.start();
+        }
+        this.volcador = new ThreadPoolTaskScheduler();
+        this.volcador.setThreadNamePrefix("motor-volcado-");
+        this.volcador.initialize();
+        this.volcador.scheduleWithFixedDelay(this::volcarTodo, Instant.now().plus(volcado), volcado);
+    }
+
+    public boolean administra(String dui, String numero) {
+        return !posiciones.isEmpty() && dui != null && numero != null && posiciones.containsKey(clave(dui, numero));
+    }
+
+    public boolean administraId(long cuentaId) {
+        return posicionPorId.containsKey(cuentaId);
+    }
+
+    // Solo para cuentas del motor (administra); bloquea hasta que el movimiento está en el diario
+    public ResultadoMovimiento abonar(String dui, String numero, long montoCentavos) {
+        return ejecutar(dui, numero, TipoMovimiento.abono, montoCentavos);
+    }
+
+    public ResultadoMovimiento retirar(String dui, String numero, long montoCentavos) {
+        return ejecutar(dui, numero, TipoMovimiento.retiro, montoCentavos);
+    }
+
+    private ResultadoMovimiento ejecutar(String dui, String numero, TipoMovimiento tipo, long montoCentavos) {
+        int posicion = posiciones.get(clave(dui, numero));
+        Particion p = particiones[posicion % particiones.length];
+        p.verificarActiva();
+        CompletableFuture<ResultadoMovimiento> resultado = new CompletableFuture<>();
+        Operacion op = new Operacion(posicion, tipo, montoCentavos, resultado);
+        long limite = System.nanoTime() + espera.toNanos();
+        try {
+            if (!p.cola.offer(op, espera.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("La partición " + p.numero + " del motor de saldos está saturada");
+            }
+            // Si se detuvo justo después del offer, nadie más va a tomar la operación
+            if (!p.activa) {
+                p.rechazarPendientes();
+            }
+            return resultado.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (p.cola.remove(op)) {
+                throw new RejectedExecutionException("El motor de saldos no respondió a tiempo; el movimiento no se aplicó");
+            }
+            return ResultadoMovimiento.sinConfirmar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Movimiento interrumpido", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Saldo de una cuenta del motor, visto desde fuera del hilo escritor (para pruebas y diagnóstico)
+    long saldo(String dui, String numero) {
+        return saldos[posiciones.get(clave(dui, numero))];
+    }
+
+    // Operaciones en la cola de la partición de una cuenta que su hilo escritor aún no tomó (para pruebas)
+    int enCola(String dui, String numero) {
+        return particiones[posiciones.get(clave(dui, numero)) % particiones.length].cola.size();
+    }
+
+    private Particion recuperar(int numero, DiarioSaldos diario, int cola) {
+        long punto = puntoRepo.findById(numero).map(PuntoDiario::getSecuencia).orElse(0L);
+        List<DiarioSaldos.Registro> registros = diario.leer(punto);
+        Particion p = new Particion(numero, diario, cola);
+        p.secuencia = punto;
+        for (DiarioSaldos.Registro r : registros) {
+            Integer posicion = posicionPorId.get(r.cuentaId());
+            if (posicion != null) {
+                saldos[posicion] = r.saldoCentavos();
+            }
+            p.secuencia = r.secuencia();
+        }
+        p.agregarPorVolcar(registros);
+        volcar(p);
+        return p;
+    }
+
+    private void volcarTodo() {
+        for (Particion p : particiones) {
+            volcar(p);
+        }
+    }
+
+    // Un volcado a la vez por partición; si falla, los registros vuelven a la lista para el siguiente
+    private void volcar(Particion p) {
+        synchronized (p.volcado) {
+            List<DiarioSaldos.Registro> lote = p.tomarPorVolcar();
+            if (lote.isEmpty()) {
+                return;
+            }
+            try {
+                tx.executeWithoutResult(status -> escribir(p.numero, lote));
+            } catch (RuntimeException e) {
+                p.devolverPorVolcar(lote);
+                throw e;
+            }
+        }
+    }
+
+    private void escribir(int particion, List<DiarioSaldos.Registro> lote) {
+        Map<Long, Long> finales = new LinkedHashMap<>();
+        int n = 0;
+        for (DiarioSaldos.Registro r : lote) {
+            em.persist(new Movimiento(em.getReference(Cuenta.class, r.cuentaId()), r.tipo(), r.montoCentavos(),
+                    r.saldoCentavos(), Instant.EPOCH.plus(r.fechaMicros(), ChronoUnit.MICROS)));
+            finales.put(r.cuentaId(), r.saldoCentavos());
+            if (++n % FILAS_POR_LOTE_JDBC == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        List<Object[]> filas = new ArrayList<>(finales.size());
+        finales.forEach((id, saldo) -> filas.add(new Object[]{saldo, id}));
+        jdbc.batchUpdate("update cuenta set saldo_centavos = ?, version = version + 1 where id = ?", filas);
+        em.merge(new PuntoDiario(particion, lote.get(lote.size() - 1).secuencia()));
+    }
+
+    // Como una caída: detiene los hilos sin volcar ni cerrar los diarios (pruebas de recuperación)
+    void detenerSinVolcar() throws InterruptedException {
+        volcador.shutdown();
+        for (Particion p : particiones) {
+            p.activa = false;
+            p.hilo.interrupt();
+            p.hilo.join();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        if (volcador != null) {
+            volcador.shutdown();
+        }
+        for (Particion p : particiones) {
+            p.activa = false;
+        }
+        for (Particion p : particiones) {
+            p.hilo.join();
+            volcar(p);
+            p.diario.close();
+        }
+    }
+
+    // Copia desprendida para la respuesta; no es la entidad administrada por JPA
+    private Cuenta cuenta(int posicion, long saldo) {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setId(ids[posicion]);
+        cuenta.setNumero(numeros[posicion]);
+        cuenta.setSaldoCentavos(saldo);
+        cuenta.setCliente(clientes[posicion]);
+        return cuenta;
+    }
+
+    private static String clave(String dui, String numero) {
+        return dui + "/" + numero;
+    }
+
+    private static long ahoraMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+    private record Operacion(int posicion, TipoMovimiento tipo, long montoCentavos,
+                             CompletableFuture<ResultadoMovimiento> resultado) {
+    }
+
+    private final class Particion implements Runnable {
+
+        final int numero;
+        final DiarioSaldos diario;
+        final BlockingQueue<Operacion> cola;
+        final Thread hilo;
+        final Object volcado = new Object();
+        // Un grupo completo tiene que caber en el diario recién reiniciado
+        final int maxGrupo;
+        volatile boolean activa = true;
+        // Solo la toca el hilo escritor (y recuperar, antes de arrancarlo)
+        long secuencia;
+        // Registros ya en el diario que faltan en la base; los comparte con el volcador
+        private List<DiarioSaldos.Registro> porVolcar = new ArrayList<>();
+
+        Particion(int numero, DiarioSaldos diario, int capacidad) {
+            this.numero = numero;
+            this.diario = diario;
+            this.cola = new ArrayBlockingQueue<>(capacidad);
+            this.maxGrupo = Math.min(MAX_GRUPO, diario.registros());
+            this.hilo = new Thread(this, "motor-saldos-" + numero);
+            this.hilo.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Operacion> grupo = new ArrayList<>(maxGrupo);
+            try {
+                while (activa || !cola.isEmpty()) {
+                    Operacion primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                    if (primera == null) {
+                        continue;
+                    }
+                    grupo.add(primera);
+                    cola.drainTo(grupo, maxGrupo - 1);
+                    aplicar(grupo);
+                    grupo.clear();
+                }
+            } catch (InterruptedException e) {
+                // detenerSinVolcar
+            } catch (Throwable e) {
+                // También un Error (memoria, InternalError del diario mapeado): sin hilo nadie va a responder
+                IllegalStateException fallo = new IllegalStateException(
+                        "La partición " + numero + " del motor de saldos falló", e);
+                grupo.forEach(op -> op.resultado().completeExceptionally(fallo));
+            } finally {
+                activa = false;
+                rechazarPendientes();
+            }
+        }
+
+        private void aplicar(List<Operacion> grupo) {
+            if (!diario.cabe(grupo.size()) && !reiniciarDiario(grupo)) {
+                return;
+            }
+            List<DiarioSaldos.Registro> nuevos = new ArrayList<>(grupo.size());
+            ResultadoMovimiento[] resultados = new ResultadoMovimiento[grupo.size()];
+            long[] secuencias = new long[grupo.size()];
+            for (int i = 0; i < grupo.size(); i++) {
+                Operacion op = grupo.get(i);
+                int pos = op.posicion();
+                long saldo = saldos[pos];
+                if (op.tipo() == TipoMovimiento.retiro) {
+                    if (saldo < op.montoCentavos()) {
+                        resultados[i] = ResultadoMovimiento.saldoInsuficiente(cuenta(pos, saldo));
+                        continue;
+                    }
+                    saldo -= op.montoCentavos();
+                } else {
+                    // Se rechaza sola y antes del diario: una excepción aquí tumbaría el grupo ya anotado
+                    if (saldo > Long.MAX_VALUE - op.montoCentavos()) {
+                        resultados[i] = ResultadoMovimiento.saldoMaximoExcedido(cuenta(pos, saldo));
+                        continue;
+                    }
+                    saldo += op.montoCentavos();
+                }
+                DiarioSaldos.Registro r = new DiarioSaldos.Registro(++secuencia, ids[pos], op.tipo(),
+                        op.montoCentavos(), saldo, ahoraMicros());
+                diario.agregar(r);
+                nuevos.add(r);
+                saldos[pos] = saldo;
+                resultados[i] = ResultadoMovimiento.exitoso(cuenta(pos, saldo));
+                secuencias[i] = r.secuencia();
+            }
+            diario.confirmar();
+            agregarPorVolcar(nuevos);
+            for (int i = 0; i < grupo.size(); i++) {
+                ResultadoMovimiento r = resultados[i];
+                if (r.estado() == ResultadoMovimiento.Estado.EXITOSO) {
+                    int pos = grupo.get(i).posicion();
+                    // Sin UPDATE por movimiento: la version del evento es la secuencia del registro en el diario
+                    eventos.publishEvent(new SaldoActualizado(duis[pos], numeros[pos], r.cuenta().getSaldoCentavos(),
+                            secuencias[i]));
+                }
+                grupo.get(i).resultado().complete(r);
+            }
+        }
+
+        // Antes de volver al inicio del archivo, todo lo anterior tiene que estar en la base. Lo anterior
+        // ya está confirmado y en porVolcar; si el volcado falla se rechaza solo este grupo, que aún no
+        // entró al diario, y el próximo grupo lo vuelve a intentar
+        private boolean reiniciarDiario(List<Operacion> grupo) {
+            try {
+                volcar(this);
+            } catch (RuntimeException e) {
+                RejectedExecutionException rechazo = new RejectedExecutionException(
+                        "No se pudo volcar la partición " + numero + " del motor de saldos; el movimiento no se aplicó", e);
+                grupo.forEach(op -> op.resultado().completeExceptionally(rechazo));
+                return false;
+            }
+            diario.reiniciar();
+            return true;
+        }
+
+        void verificarActiva() {
+            if (!activa) {
+                throw new RejectedExecutionException("La partición " + numero + " del motor de saldos está detenida");
+            }
+        }
+
+        void rechazarPendientes() {
+            RejectedExecutionException detenida = new RejectedExecutionException(
+                    "La partición " + numero + " del motor de saldos está detenida");
+            Operacion op;
+            while ((op = cola.poll()) != null) {
+                op.resultado().completeExceptionally(detenida);
+            }
+        }
+
+        synchronized void agregarPorVolcar(List<DiarioSaldos.Registro> registros) {
+            porVolcar.addAll(registros);
+        }
+
+        synchronized List<DiarioSaldos.Registro> tomarPorVolcar() {
+            List<DiarioSaldos.Registro> lote = porVolcar;
+            porVolcar = new ArrayList<>();
+            return lote;
+        }
+
+        synchronized void devolverPorVolcar(List<DiarioSaldos.Registro> lote) {
+            lote.addAll(porVolcar);
+            porVolcar = lote;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.banco.serviciocuentas.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Exporta una consulta Stream<> del repositorio como NDJSON (un objeto JSON por línea).
+// Las filas se escriben a medida que llegan del cursor y el contexto de persistencia
+// se limpia cada bloque, así la memoria usada no crece con el tamaño de la tabla.
+@Service
+public class NdjsonExportador {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final int FILAS_POR_BLOQUE = 500;
+
+    private final EntityManager em;
+    private final ObjectWriter writer;
+    private final ObjectMapper mapper;
+    private final TransactionTemplate tx;
+
+    public NdjsonExportador(EntityManager em, ObjectMapper mapper, PlatformTransactionManager txManager) {
+        this.em = em;
+        this.mapper = mapper;
+        // Sin flush por cada objeto; vaciamos el buffer una vez por bloque
+        this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.tx = new TransactionTemplate(txManager);
+        this.tx.setReadOnly(true);
+    }
+
+    // El Stream<> de Spring Data necesita una transacción abierta mientras se recorre,
+    // por eso la consulta se ejecuta dentro del hilo que escribe la respuesta.
+    public <T> StreamingResponseBody exportar(Supplier<Stream<T>> consulta) {
+        return out -> tx.executeWithoutResult(status -> escribir(consulta, out));
+    }
+
+    private <T> void escribir(Supplier<Stream<T>> consulta, OutputStream out) {
+        try (Stream<T> filas = consulta.get();
+             JsonGenerator gen = mapper.createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(null);
+            int escritas = 0;
+            for (Iterator<T> it = filas.iterator(); it.hasNext(); ) {
+                writer.writeValue(gen, it.next());
+                gen.writeRaw('\n');
+                if (++escritas % FILAS_POR_BLOQUE == 0) {
+                    gen.flush();
+                    em.clear();
+                }
+            }
+            gen.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.banco.serviciocuentas.service;
+
+import java.time.LocalDate;
+
+// Resultado de una ejecución del cierre diario. 'tramosPrevios' son los que ya estaban hechos
+// (cierre reanudado); con 'tramosFallidos' > 0 el cierre queda abierto y se puede volver a ejecutar.
+// 'cuentas' y 'cuentasPorSegundo' cuentan solo lo procesado en esta ejecución.
+public record ResultadoCierre(
+        LocalDate fecha,
+        boolean terminado,
+        int tramos,
+        int tramosPrevios,
+        int tramosFallidos,
+        long cuentas,
+        double segundos,
+        double cuentasPorSegundo
+) {
+}
@@ -0,0 +1,23 @@
+package com.banco.serviciocuentas.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Resultado de una importación masiva: totales más las filas rechazadas con su línea y motivo.
+// 'rechazos' se corta en importacion.max-rechazos; 'rechazadas' siempre es el total.
+public record ResultadoImportacion(
+        long filas,
+        long clientes,
+        long cuentas,
+        long credenciales,
+        long rechazadas,
+        List<Rechazo> rechazos,
+        double segundos,
+        double filasPorSegundo
+) {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Rechazo(long linea, String dui, String motivo) {
+    }
+}
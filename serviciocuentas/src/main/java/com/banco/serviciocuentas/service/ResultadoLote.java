@@ -0,0 +1,32 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Dinero;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+// Resultado de un lote: un elemento por instrucción, en el mismo orden en que llegaron
+public record ResultadoLote(int aplicadas, int rechazadas, List<Item> resultados) {
+
+    public enum Estado {
+        aplicado,
+        // En modo atómico, instrucción válida que no se aplicó porque otra del lote falló
+        revertido,
+        instruccion_invalida,
+        cuenta_no_encontrada,
+        saldo_insuficiente,
+        // El abono (o el crédito de una transferencia) desbordaría el saldo de la cuenta
+        saldo_maximo_excedido
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(
+            int indice,
+            Estado estado,
+            @JsonProperty("saldo") @JsonSerialize(using = Dinero.Serializador.class) Long saldoCentavos,
+            @JsonProperty("saldoDestino") @JsonSerialize(using = Dinero.Serializador.class) Long saldoDestinoCentavos
+    ) {
+    }
+}
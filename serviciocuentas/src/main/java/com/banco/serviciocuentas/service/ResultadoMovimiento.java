@@ -0,0 +1,39 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cuenta;
+
+// Resultado de aplicar un abono o retiro sobre una cuenta.
+// 'cuenta' trae el saldo ya actualizado cuando el estado es EXITOSO,
+// y el saldo vigente cuando es SALDO_INSUFICIENTE o SALDO_MAXIMO_EXCEDIDO (abono que desbordaría el saldo).
+// SIN_CONFIRMAR solo lo da MotorSaldos cuando venció la espera con el movimiento ya tomado por su hilo:
+// puede haberse aplicado o no.
+public record ResultadoMovimiento(Estado estado, Cuenta cuenta) {
+
+    public enum Estado {
+        EXITOSO,
+        CUENTA_NO_ENCONTRADA,
+        SALDO_INSUFICIENTE,
+        SALDO_MAXIMO_EXCEDIDO,
+        SIN_CONFIRMAR
+    }
+
+    static ResultadoMovimiento exitoso(Cuenta cuenta) {
+        return new ResultadoMovimiento(Estado.EXITOSO, cuenta);
+    }
+
+    static ResultadoMovimiento cuentaNoEncontrada() {
+        return new ResultadoMovimiento(Estado.CUENTA_NO_ENCONTRADA, null);
+    }
+
+    static ResultadoMovimiento saldoInsuficiente(Cuenta cuenta) {
+        return new ResultadoMovimiento(Estado.SALDO_INSUFICIENTE, cuenta);
+    }
+
+    static ResultadoMovimiento saldoMaximoExcedido(Cuenta cuenta) {
+        return new ResultadoMovimiento(Estado.SALDO_MAXIMO_EXCEDIDO, cuenta);
+    }
+
+    static ResultadoMovimiento sinConfirmar() {
+        return new ResultadoMovimiento(Estado.SIN_CONFIRMAR, null);
+    }
+}
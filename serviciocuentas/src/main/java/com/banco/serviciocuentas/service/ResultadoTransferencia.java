@@ -0,0 +1,17 @@
+package com.banco.serviciocuentas.service;
+
+// Resultado de una transferencia; los saldos son los de ambas cuentas al terminar
+// (o los vigentes si el estado es SALDO_INSUFICIENTE)
+public record ResultadoTransferencia(Estado estado, long saldoOrigenCentavos, long saldoDestinoCentavos) {
+
+    public enum Estado {
+        EXITOSA,
+        ORIGEN_NO_ENCONTRADO,
+        DESTINO_NO_ENCONTRADO,
+        SALDO_INSUFICIENTE
+    }
+
+    static ResultadoTransferencia sinCuenta(Estado estado) {
+        return new ResultadoTransferencia(estado, 0, 0);
+    }
+}
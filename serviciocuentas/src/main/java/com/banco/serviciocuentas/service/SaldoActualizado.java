@@ -0,0 +1,20 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Dinero;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+// Saldo final de una cuenta tras un movimiento. Lo publican SaldoService y LoteService dentro
+// de la transacción; SaldoEventos lo reparte a los suscriptores del DUI solo después del commit.
+// Es también el cuerpo JSON del evento SSE "saldo".
+// 'version' crece con cada cambio de saldo de la cuenta: la columna version (@Version) que dejó el
+// UPDATE, o la secuencia del diario para las cuentas de MotorSaldos. Dos commits sobre la misma
+// cuenta pueden entregar sus eventos en otro orden; el cliente descarta el que traiga una version
+// menor o igual a la última que mostró de esa cuenta. Solo se compara dentro de la misma cuenta.
+public record SaldoActualizado(
+        String dui,
+        String numero,
+        @JsonProperty("saldo") @JsonSerialize(using = Dinero.Serializador.class) long saldoCentavos,
+        long version
+) {
+}
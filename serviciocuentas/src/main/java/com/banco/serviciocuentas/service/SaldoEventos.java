@@ -0,0 +1,205 @@
+package com.banco.serviciocuentas.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Reparte los cambios de saldo a los suscriptores SSE de cada DUI (GET /api/cuentas/cliente/{dui}/eventos),
+// así el front end deja de consultar el saldo en ciclo.
+// - Solo se publica lo confirmado: el evento llega después del commit (TransactionalEventListener);
+//   los de MotorSaldos, que no usa transacción, llegan ya escritos en su diario (fallbackExecution).
+// - Los eventos de una misma cuenta pueden llegar en desorden (commits concurrentes, reconexiones):
+//   cada uno lleva la version de la cuenta y el cliente descarta el que no supere la última que mostró.
+// - Cada evento se serializa una vez y el mismo contenido se encola a todos los suscriptores del DUI.
+// - Cada suscriptor tiene una cola acotada que vacía un pool pequeño y propio; un suscriptor idle no
+//   ocupa hilos. Si un cliente lento deja llenar su cola, se le cierra la conexión (su EventSource
+//   reconecta y vuelve a pedir el saldo con GET) en vez de acumular memoria o frenar a los demás.
+// - Un latido periódico (comentario SSE) detecta las conexiones muertas y mantiene abiertos los proxies.
+// Métricas: banco.sse.suscripciones (abiertas) y banco.sse.descartadas (cerradas por lentas o caídas).
+// Los pools no se publican como beans para no desplazar al executor por defecto de Spring Boot.
+@Service
+public class SaldoEventos implements DisposableBean {
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> LATIDO = SseEmitter.event().comment("").build();
+
+    private final Map<String, Set<Suscriptor>> porDui = new ConcurrentHashMap<>();
+    private final AtomicInteger abiertas = new AtomicInteger();
+    private final Counter descartadas;
+    private final ObjectMapper mapper;
+    private final ThreadPoolTaskExecutor envios;
+    private final ThreadPoolTaskScheduler latidos;
+    private final long timeoutMs;
+    private final int capacidad;
+
+    public SaldoEventos(ObjectMapper mapper,
+                        MeterRegistry registry,
+                        @Value("${eventos.sse.hilos:2}") int hilos,
+                        @Value("${eventos.sse.cola:16}") int capacidad,
+                        @Value("${eventos.sse.timeout:30m}") Duration timeout,
+                        @Value("${eventos.sse.latido:30s}") Duration latido) {
+        this.mapper = mapper;
+        this.capacidad = capacidad;
+        this.timeoutMs = timeout.toMillis();
+        this.envios = new ThreadPoolTaskExecutor();
+        this.envios.setCorePoolSize(hilos);
+        this.envios.setMaxPoolSize(hilos);
+        this.envios.setThreadNamePrefix("sse-");
+        this.envios.initialize();
+        this.latidos = new ThreadPoolTaskScheduler();
+        this.latidos.setThreadNamePrefix("sse-latido-");
+        this.latidos.initialize();
+        this.latidos.scheduleWithFixedDelay(this::latir, latido);
+        Gauge.builder("banco.sse.suscripciones", abiertas, AtomicInteger::get)
+                .description("Suscripciones SSE abiertas")
+                .register(registry);
+        this.descartadas = Counter.builder("banco.sse.descartadas")
+                .description("Suscripciones SSE cerradas por cliente lento o conexión caída")
+                .register(registry);
+    }
+
+    public SseEmitter suscribir(String dui) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor s = new Suscriptor(dui, emitter, capacidad);
+        emitter.onCompletion(() -> quitar(s));
+        emitter.onTimeout(() -> quitar(s));
+        emitter.onError(e -> quitar(s));
+        // Dentro de compute: quitar() puede estar borrando el conjunto vacío de este mismo DUI
+        porDui.compute(dui, (k, suscriptores) -> {
+            Set<Suscriptor> conjunto = suscriptores != null ? suscriptores : ConcurrentHashMap.newKeySet();
+            conjunto.add(s);
+            return conjunto;
+        });
+        abiertas.incrementAndGet();
+        return emitter;
+    }
+
+    public int suscripciones() {
+        return abiertas.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publicar(SaldoActualizado evento) {
+        Set<Suscriptor> suscriptores = porDui.get(evento.dui());
+        if (suscriptores == null || suscriptores.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> datos;
+        try {
+            datos = SseEmitter.event().name("saldo").data(mapper.writeValueAsString(evento)).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar " + evento, e);
+        }
+        for (Suscriptor s : suscriptores) {
+            encolar(s, datos);
+        }
+    }
+
+    private void latir() {
+        for (Set<Suscriptor> suscriptores : porDui.values()) {
+            for (Suscriptor s : suscriptores) {
+                encolar(s, LATIDO);
+            }
+        }
+    }
+
+    private void encolar(Suscriptor s, Set<ResponseBodyEmitter.DataWithMediaType> datos) {
+        if (!s.pendientes.offer(datos)) {
+            descartar(s);
+            return;
+        }
+        programar(s);
+    }
+
+    // Un solo vaciado en curso por suscriptor: los envíos a un mismo emitter salen en orden
+    private void programar(Suscriptor s) {
+        if (s.programado.compareAndSet(false, true)) {
+            try {
+                envios.execute(() -> vaciar(s));
+            } catch (TaskRejectedException e) {
+                s.programado.set(false);
+                descartar(s);
+            }
+        }
+    }
+
+    private void vaciar(Suscriptor s) {
+        Set<ResponseBodyEmitter.DataWithMediaType> datos;
+        while ((datos = s.pendientes.poll()) != null) {
+            try {
+                s.emitter.send(datos);
+            } catch (IOException | IllegalStateException e) {
+                // Conexión cerrada por el cliente o emitter ya completado
+                descartar(s);
+                return;
+            }
+        }
+        s.programado.set(false);
+        // Lo encolado entre el último poll y el set(false) no quedó programado
+        if (!s.pendientes.isEmpty()) {
+            programar(s);
+        }
+    }
+
+    private void descartar(Suscriptor s) {
+        if (quitar(s)) {
+            descartadas.increment();
+            s.pendientes.clear();
+            s.emitter.complete();
+        }
+    }
+
+    // true solo la primera vez; los callbacks del emitter y el descarte pueden llegar los dos
+    private boolean quitar(Suscriptor s) {
+        if (!s.activo.compareAndSet(true, false)) {
+            return false;
+        }
+        porDui.computeIfPresent(s.dui, (dui, suscriptores) -> {
+            suscriptores.remove(s);
+            return suscriptores.isEmpty() ? null : suscriptores;
+        });
+        abiertas.decrementAndGet();
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        latidos.shutdown();
+        envios.shutdown();
+        porDui.values().forEach(suscriptores -> suscriptores.forEach(s -> s.emitter.complete()));
+    }
+
+    private static final class Suscriptor {
+        final String dui;
+        final SseEmitter emitter;
+        final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pendientes;
+        final AtomicBoolean programado = new AtomicBoolean();
+        final AtomicBoolean activo = new AtomicBoolean(true);
+
+        Suscriptor(String dui, SseEmitter emitter, int capacidad) {
+            this.dui = dui;
+            this.emitter = emitter;
+            this.pendientes = new ArrayBlockingQueue<>(capacidad);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Movimiento;
+import com.banco.serviciocuentas.model.TipoMovimiento;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Aplica abonos y retiros como un único UPDATE condicional en la base de datos
+// (saldo = saldo + ? / saldo = saldo - ? WHERE saldo >= ?), en vez de leer el saldo,
+// cambiarlo en Java y guardarlo. Así dos movimientos concurrentes sobre la misma
+// cuenta no se pisan: el motor serializa los UPDATE con el bloqueo de fila.
+// Cada movimiento exitoso queda registrado en 'movimiento' dentro de la misma transacción
+// y publica un SaldoActualizado que SaldoEventos entrega a los suscriptores tras el commit.
+@Service
+public class SaldoService {
+
+    // Reintentos ante deadlock / timeout de bloqueo / fallo de serialización en transferencias
+    static final int MAX_INTENTOS = 5;
+
+    private final CuentaRepository cuentaRepo;
+    private final MovimientoRepository movimientoRepo;
+    private final BloqueoCuentas bloqueo;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher eventos;
+
+    public SaldoService(CuentaRepository cuentaRepo,
+                        MovimientoRepository movimientoRepo,
+                        BloqueoCuentas bloqueo,
+                        PlatformTransactionManager txManager,
+                        ApplicationEventPublisher eventos) {
+        this.cuentaRepo = cuentaRepo;
+        this.movimientoRepo = movimientoRepo;
+        this.bloqueo = bloqueo;
+        this.tx = new TransactionTemplate(txManager);
+        this.eventos = eventos;
+    }
+
+    @Transactional
+    public ResultadoMovimiento abonar(String dui, String numero, long montoCentavos) {
+        Optional<Long> id = cuentaRepo.findIdByClienteDuiAndNumero(dui, numero);
+        if (id.isEmpty()) {
+            return ResultadoMovimiento.cuentaNoEncontrada();
+        }
+        int actualizadas = cuentaRepo.sumarSaldoSiCabe(id.get(), montoCentavos, Long.MAX_VALUE - montoCentavos);
+        Cuenta cuenta = cuentaRepo.findById(id.get()).orElseThrow();
+        // Como en MotorSaldos: el abono que desbordaría el saldo se rechaza en vez de fallar en la base
+        if (actualizadas == 0) {
+            return ResultadoMovimiento.saldoMaximoExcedido(cuenta);
+        }
+        movimientoRepo.save(new Movimiento(cuenta, TipoMovimiento.abono, montoCentavos, cuenta.getSaldoCentavos()));
+        eventos.publishEvent(new SaldoActualizado(dui, numero, cuenta.getSaldoCentavos(), cuenta.getVersion()));
+        return ResultadoMovimiento.exitoso(cuenta);
+    }
+
+    @Transactional
+    public ResultadoMovimiento retirar(String dui, String numero, long montoCentavos) {
+        Optional<Long> id = cuentaRepo.findIdByClienteDuiAndNumero(dui, numero);
+        if (id.isEmpty()) {
+            return ResultadoMovimiento.cuentaNoEncontrada();
+        }
+        int actualizadas = cuentaRepo.restarSaldoSiAlcanza(id.get(), montoCentavos);
+        // Si el UPDATE aplicó, la fila queda bloqueada hasta el commit y el saldo leído aquí es el definitivo.
+        // Si no (saldo insuficiente) no hay bloqueo: es solo el saldo vigente al leer, para el mensaje de error,
+        // y otro movimiento concurrente puede cambiarlo antes de responder
+        Cuenta cuenta = cuentaRepo.findById(id.get()).orElseThrow();
+        if (actualizadas == 0) {
+            return ResultadoMovimiento.saldoInsuficiente(cuenta);
+        }
+        movimientoRepo.save(new Movimiento(cuenta, TipoMovimiento.retiro, montoCentavos, cuenta.getSaldoCentavos()));
+        eventos.publishEvent(new SaldoActualizado(dui, numero, cuenta.getSaldoCentavos(), cuenta.getVersion()));
+        return ResultadoMovimiento.exitoso(cuenta);
+    }
+
+    // Débito y crédito en una sola transacción. Las dos filas se bloquean en orden de id
+    // (BloqueoCuentas), así transferencias concurrentes en sentidos opuestos no se bloquean
+    // en ciclo. Si aun así la base aborta la transacción por deadlock, timeout de bloqueo
+    // o fallo de serialización, se reintenta completa con una espera corta y aleatoria.
+    public ResultadoTransferencia transferir(String duiOrigen, String numeroOrigen,
+                                             String duiDestino, String numeroDestino,
+                                             long montoCentavos) {
+        for (int intento = 1; ; intento++) {
+            try {
+                return tx.execute(status ->
+                        transferirEnTransaccion(duiOrigen, numeroOrigen, duiDestino, numeroDestino, montoCentavos));
+            } catch (ConcurrencyFailureException e) {
+                if (intento >= MAX_INTENTOS) {
+                    throw e;
+                }
+                esperar(intento);
+            }
+        }
+    }
+
+    private ResultadoTransferencia transferirEnTransaccion(String duiOrigen, String numeroOrigen,
+                                                           String duiDestino, String numeroDestino,
+                                                           long montoCentavos) {
+        Optional<Long> origen = cuentaRepo.findIdByClienteDuiAndNumero(duiOrigen, numeroOrigen);
+        if (origen.isEmpty()) {
+            return ResultadoTransferencia.sinCuenta(ResultadoTransferencia.Estado.ORIGEN_NO_ENCONTRADO);
+        }
+        Optional<Long> destino = cuentaRepo.findIdByClienteDuiAndNumero(duiDestino, numeroDestino);
+        if (destino.isEmpty()) {
+            return ResultadoTransferencia.sinCuenta(ResultadoTransferencia.Estado.DESTINO_NO_ENCONTRADO);
+        }
+
+        Map<Long, long[]> saldos = bloqueo.bloquear(List.of(origen.get(), destino.get()));
+        long[] saldoOrigen = saldos.get(origen.get());
+        long[] saldoDestino = saldos.get(destino.get());
+        if (saldoOrigen == null) {
+            return ResultadoTransferencia.sinCuenta(ResultadoTransferencia.Estado.ORIGEN_NO_ENCONTRADO);
+        }
+        if (saldoDestino == null) {
+            return ResultadoTransferencia.sinCuenta(ResultadoTransferencia.Estado.DESTINO_NO_ENCONTRADO);
+        }
+        if (saldoOrigen[0] < montoCentavos) {
+            return new ResultadoTransferencia(ResultadoTransferencia.Estado.SALDO_INSUFICIENTE,
+                    saldoOrigen[0], saldoDestino[0]);
+        }
+
+        // Con ambas filas bloqueadas los saldos leídos son los definitivos
+        // Cada UPDATE suma 1 a la version de su fila
+        cuentaRepo.sumarSaldo(origen.get(), -montoCentavos);
+        saldoOrigen[1]++;
+        cuentaRepo.sumarSaldo(destino.get(), montoCentavos);
+        saldoDestino[1]++;
+        long nuevoOrigen = saldoOrigen[0] - montoCentavos;
+        long nuevoDestino = saldoDestino[0] + montoCentavos;
+        movimientoRepo.save(new Movimiento(cuentaRepo.getReferenceById(origen.get()),
+                TipoMovimiento.cargo_transferencia, montoCentavos, nuevoOrigen));
+        movimientoRepo.save(new Movimiento(cuentaRepo.getReferenceById(destino.get()),
+                TipoMovimiento.abono_transferencia, montoCentavos, nuevoDestino));
+        eventos.publishEvent(new SaldoActualizado(duiOrigen, numeroOrigen, nuevoOrigen, saldoOrigen[1]));
+        eventos.publishEvent(new SaldoActualizado(duiDestino, numeroDestino, nuevoDestino, saldoDestino[1]));
+        return new ResultadoTransferencia(ResultadoTransferencia.Estado.EXITOSA, nuevoOrigen, nuevoDestino);
+    }
+
+    // Backoff exponencial con jitter: 5-10 ms, 10-20 ms, 20-40 ms...
+    private static void esperar(int intento) {
+        long base = 5L << (intento - 1);
+        try {
+            Thread.sleep(base + ThreadLocalRandom.current().nextLong(base + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Transferencia interrumpida", e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+// Tokens de sesión firmados (JWT compacto HS256: cabecera.contenido.firma en base64url).
+// El contenido lleva el id de credenciales, el tipo de cuenta y el DUI del cliente, así que
+// validar un token no consulta la base: se recalcula el HMAC, se compara en tiempo constante
+// y se revisa la expiración.
+// - El Mac con la clave ya inicializada se guarda como prototipo y se clona por operación
+//   (Mac no es seguro entre hilos y clonarlo evita repetir la preparación de la clave).
+// - Solo se acepta la cabecera exacta que emite este servicio; un token con otro "alg" se rechaza.
+// - Sin seguridad.token.secreto se genera una clave aleatoria al arrancar: los tokens dejan de
+//   valer al reiniciar y no sirven entre instancias, suficiente solo para desarrollo.
+@Service
+public class TokenService {
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+    // Cabecera fija ya codificada, con el punto separador incluido
+    private static final String CABECERA = B64.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8)) + ".";
+
+    private final Mac prototipo;
+    private final Duration duracion;
+    private final ObjectMapper mapper;
+
+    public TokenService(@Value("${seguridad.token.secreto:}") String secreto,
+                        @Value("${seguridad.token.duracion:8h}") Duration duracion,
+                        ObjectMapper mapper) throws GeneralSecurityException {
+        byte[] clave;
+        if (secreto.isBlank()) {
+            clave = new byte[32];
+            new SecureRandom().nextBytes(clave);
+        } else {
+            clave = Base64.getDecoder().decode(secreto);
+            if (clave.length < 32) {
+                throw new IllegalArgumentException("seguridad.token.secreto debe tener al menos 32 bytes (en base64)");
+            }
+        }
+        this.prototipo = Mac.getInstance(ALGORITMO);
+        this.prototipo.init(new SecretKeySpec(clave, ALGORITMO));
+        this.duracion = duracion;
+        this.mapper = mapper;
+    }
+
+    public String emitir(Credenciales credenciales) {
+        long ahora = System.currentTimeMillis() / 1000;
+        Contenido contenido = new Contenido(credenciales.getId(), credenciales.getTipoCuenta(),
+                credenciales.getClienteDui(), ahora, ahora + duracion.toSeconds());
+        String cuerpo;
+        try {
+            cuerpo = CABECERA + B64.encodeToString(mapper.writeValueAsBytes(contenido));
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo serializar el token", e);
+        }
+        return cuerpo + "." + B64.encodeToString(firmar(cuerpo));
+    }
+
+    // Vacío si el token está mal formado, la firma no coincide o ya expiró
+    public Optional<Sesion> validar(String token) {
+        if (token == null || !token.startsWith(CABECERA)) {
+            return Optional.empty();
+        }
+        int ultimoPunto = token.lastIndexOf('.');
+        if (ultimoPunto < CABECERA.length()) {
+            return Optional.empty();
+        }
+        try {
+            byte[] firma = B64_DECODER.decode(token.substring(ultimoPunto + 1));
+            if (!MessageDigest.isEqual(firma, firmar(token.substring(0, ultimoPunto)))) {
+                return Optional.empty();
+            }
+            Contenido c = mapper.readValue(B64_DECODER.decode(token.substring(CABECERA.length(), ultimoPunto)), Contenido.class);
+            if (c.exp() <= System.currentTimeMillis() / 1000 || c.tipo() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new Sesion(c.sub(), c.tipo(), c.dui()));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] firmar(String cuerpo) {
+        try {
+            Mac mac = (Mac) prototipo.clone();
+            return mac.doFinal(cuerpo.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Nombres cortos de JWT: sub, iat, exp
+    private record Contenido(Long sub, TipoCuenta tipo, String dui, long iat, long exp) {
+    }
+
+    public record Sesion(Long credencialesId, TipoCuenta tipo, String clienteDui) {
+
+        // Los empleados operan sobre cualquier cliente; un cliente solo sobre su propio DUI
+        public boolean puedeAcceder(String dui) {
+            return tipo == TipoCuenta.empleado || (clienteDui != null && clienteDui.equals(dui));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.banco.serviciocuentas;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Dinero;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import com.banco.serviciocuentas.service.ContrasenaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Carga mixta de lectura y escritura sobre HTTP contra la aplicación completa con H2 embebido.
+// Modelo abierto: las peticiones salen a una tasa fija sin esperar las respuestas anteriores, y la
+// latencia se mide desde el instante programado (no desde el envío real), así una pausa del servidor
+// se refleja en la cola en lugar de esconderse (omisión coordinada).
+// Al final verifica que el dinero cuadra con los abonos y retiros aceptados.
+// Solo corre con -Pcarga. Parámetros (-D):
+//   carga.tasa        peticiones por segundo (50)
+//   carga.duracion    segundos medidos (20)
+//   carga.calentamiento segundos previos a la misma tasa, fuera de los histogramas (10)
+//   carga.clientes    clientes con una cuenta cada uno; menos clientes = más contención (50)
+//   carga.mezcla      pesos por operación (consulta:40,listado:5,abono:25,retiro:28,login:2)
+//   carga.p99-max-ms  presupuesto de p99 para todas las operaciones juntas (1000)
+// Los histogramas completos quedan en target/carga/*.hgrm.
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CargaHttpLoadTest {
+
+    private static final int TASA = Integer.getInteger("carga.tasa", 50);
+    private static final int DURACION_S = Integer.getInteger("carga.duracion", 20);
+    private static final int CALENTAMIENTO_S = Integer.getInteger("carga.calentamiento", 10);
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 50);
+    private static final String MEZCLA = System.getProperty("carga.mezcla",
+            "consulta:40,listado:5,abono:25,retiro:28,login:2");
+    private static final long P99_MAX_MS = Long.getLong("carga.p99-max-ms", 1000);
+
+    private static final long SALDO_INICIAL = 100_00;
+    private static final long MONTO_MAXIMO = 50_00;
+    private static final String CORREO_EMPLEADO = "empleado.carga@banco.com";
+    private static final String CORREO_CLIENTE = "cliente.carga@banco.com";
+    private static final String CONTRASENA = "carga";
+
+    enum Operacion { consulta, listado, abono, retiro, login }
+
+    @LocalServerPort
+    private int puerto;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+    @Autowired
+    private CredencialesRepository credRepo;
+    @Autowired
+    private ContrasenaService contrasenas;
+    @Autowired
+    private ObjectMapper mapper;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private String token;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setDui(dui(i));
+            cliente.setPrimerNombre("Cliente");
+            cliente.setApellido("Carga");
+            cliente.setFechaNacimiento(LocalDate.of(1985, 6, 15));
+            clienteRepo.save(cliente);
+
+            Cuenta cuenta = new Cuenta();
+            cuenta.setNumero("0001");
+            cuenta.setSaldoCentavos(SALDO_INICIAL);
+            cuenta.setCliente(cliente);
+            cuentaRepo.save(cuenta);
+        }
+        credRepo.save(new Credenciales(CORREO_EMPLEADO, contrasenas.hashear(CONTRASENA), TipoCuenta.empleado, null));
+        credRepo.save(new Credenciales(CORREO_CLIENTE, contrasenas.hashear(CONTRASENA), TipoCuenta.cliente, dui(0)));
+
+        HttpResponse<byte[]> login = http.send(login(CORREO_EMPLEADO), HttpResponse.BodyHandlers.ofByteArray());
+        token = mapper.readTree(login.body()).get("token").asText();
+    }
+
+    @AfterEach
+    void limpiar() {
+        movimientoRepo.deleteAll();
+        credRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void cargaMixtaMantieneLosSaldosYLaLatencia() throws Exception {
+        Operacion[] ruleta = ruleta(MEZCLA);
+        Map<Operacion, Histogram> latencias = new EnumMap<>(Operacion.class);
+        for (Operacion op : Operacion.values()) {
+            latencias.put(op, new ConcurrentHistogram(3));
+        }
+        AtomicLong abonado = new AtomicLong();
+        AtomicLong retirado = new AtomicLong();
+        AtomicLong movimientos = new AtomicLong();
+        AtomicLong errores = new AtomicLong();
+        Map<String, AtomicLong> erroresPorEstado = new ConcurrentHashMap<>();
+
+        long total = (long) TASA * (CALENTAMIENTO_S + DURACION_S);
+        long intervalo = TimeUnit.SECONDS.toNanos(1) / TASA;
+        List<CompletableFuture<Void>> enVuelo = new ArrayList<>((int) total);
+        long inicio = System.nanoTime();
+        // El calentamiento cuenta para los saldos pero no para la latencia
+        long inicioMedicion = inicio + TimeUnit.SECONDS.toNanos(CALENTAMIENTO_S);
+        for (long i = 0; i < total; i++) {
+            long programado = inicio + i * intervalo;
+            long espera = programado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Operacion op = ruleta[random.nextInt(ruleta.length)];
+            String dui = dui(random.nextInt(CLIENTES));
+            long monto = 1 + random.nextLong(MONTO_MAXIMO);
+            enVuelo.add(http.sendAsync(peticion(op, dui, monto), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (programado >= inicioMedicion) {
+                            latencias.get(op).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - programado));
+                        }
+                        int estado = error == null ? response.statusCode() : -1;
+                        if (estado == 200 && op == Operacion.abono) {
+                            abonado.addAndGet(monto);
+                            movimientos.incrementAndGet();
+                        } else if (estado == 200 && op == Operacion.retiro) {
+                            retirado.addAndGet(monto);
+                            movimientos.incrementAndGet();
+                        } else if (estado != 200 && !(op == Operacion.retiro && estado == 400)) {
+                            // Un 400 en retiro es saldo insuficiente, esperado; cualquier otro estado es un error
+                            errores.incrementAndGet();
+                            erroresPorEstado.computeIfAbsent(op + " " + (error == null ? estado : error.getClass().getSimpleName()),
+                                    k -> new AtomicLong()).incrementAndGet();
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(enVuelo.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+        double segundos = (System.nanoTime() - inicioMedicion) / 1e9;
+
+        Histogram todas = new Histogram(3);
+        File directorio = new File("target/carga");
+        directorio.mkdirs();
+        System.out.printf("carga: %d peticiones en %.1f s (%.0f/s objetivo %d/s), %d errores %s%n",
+                (long) TASA * DURACION_S, segundos, TASA * DURACION_S / segundos, TASA, errores.get(), erroresPorEstado);
+        System.out.printf("%-9s %8s %9s %9s %9s %9s%n", "operación", "n", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<Operacion, Histogram> e : latencias.entrySet()) {
+            Histogram h = e.getValue();
+            todas.add(h);
+            imprimir(e.getKey().name(), h);
+            try (PrintStream salida = new PrintStream(new File(directorio, e.getKey() + ".hgrm"))) {
+                h.outputPercentileDistribution(salida, 1000.0);
+            }
+        }
+        imprimir("todas", todas);
+
+        List<Cuenta> cuentas = cuentaRepo.findAll();
+        assertThat(errores.get()).isZero();
+        assertThat(cuentas.stream().mapToLong(Cuenta::getSaldoCentavos).sum())
+                .isEqualTo(CLIENTES * SALDO_INICIAL + abonado.get() - retirado.get());
+        assertThat(cuentas).allSatisfy(c -> assertThat(c.getSaldoCentavos()).isNotNegative());
+        assertThat(movimientoRepo.count()).isEqualTo(movimientos.get());
+        assertThat(todas.getValueAtPercentile(99) / 1000).isLessThanOrEqualTo(P99_MAX_MS);
+    }
+
+    private HttpRequest peticion(Operacion op, String dui, long monto) {
+        String base = "http://localhost:" + puerto;
+        return switch (op) {
+            case consulta -> HttpRequest.newBuilder(URI.create(base + "/api/clientes/" + dui))
+                    .header("Authorization", "Bearer " + token).GET().build();
+            case listado -> HttpRequest.newBuilder(URI.create(base + "/api/clientes?size=50"))
+                    .header("Authorization", "Bearer " + token).GET().build();
+            case abono, retiro -> HttpRequest.newBuilder(URI.create(base + "/api/cuentas/cliente/" + dui
+                            + (op == Operacion.abono ? "/abonarefectivo" : "/retirarefectivo")))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + token)
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"numero\":\"0001\",\"monto\":" + Dinero.formatear(monto) + "}"))
+                    .build();
+            case login -> login(CORREO_CLIENTE);
+        };
+    }
+
+    private HttpRequest login(String correo) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + "/api/credenciales/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"correo\":\"" + correo + "\",\"contrasena\":\"" + CONTRASENA + "\"}"))
+                .build();
+    }
+
+    // "consulta:40,abono:25" -> arreglo con cada operación repetida según su peso
+    private static Operacion[] ruleta(String mezcla) {
+        List<Operacion> ruleta = new ArrayList<>();
+        for (String parte : mezcla.split(",")) {
+            String[] par = parte.trim().split(":");
+            Operacion op = Operacion.valueOf(par[0]);
+            for (int i = Integer.parseInt(par[1]); i > 0; i--) {
+                ruleta.add(op);
+            }
+        }
+        return ruleta.toArray(Operacion[]::new);
+    }
+
+    private static void imprimir(String nombre, Histogram h) {
+        System.out.printf("%-9s %8d %9.1f %9.1f %9.1f %9.1f%n", nombre, h.getTotalCount(),
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0);
+    }
+
+    private static String dui(int i) {
+        return String.format("%08d-%d", i, i % 10);
+    }
+}
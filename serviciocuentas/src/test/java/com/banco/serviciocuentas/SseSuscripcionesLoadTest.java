@@ -0,0 +1,251 @@
+package com.banco.serviciocuentas;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import com.banco.serviciocuentas.service.ContrasenaService;
+import com.banco.serviciocuentas.service.SaldoEventos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Muchas suscripciones SSE idle abiertas a la vez sobre HTTP real contra la aplicación completa:
+// mide la memoria de heap que cuesta cada conexión abierta (Tomcat + SseEmitter + SaldoEventos),
+// comprueba que un abono llega a todas y que al cerrarse los clientes las suscripciones se liberan.
+// Los clientes son sockets NIO mínimos en la misma JVM; su costo entra en la medición y es una
+// fracción pequeña del total. Cada conexión usa dos descriptores (cliente y servidor), así que la
+// cantidad se recorta al límite de archivos abiertos del proceso (ulimit -n).
+// La mayor parte del costo son los buffers que Tomcat mantiene mientras la petición asíncrona sigue
+// abierta (lectura/escritura del socket, cabeceras, buffers de Request/Response): ~100 KB de los
+// ~120 KB medidos por conexión; la cola y el registro de SaldoEventos son unos cientos de bytes.
+// Solo corre con -Pcarga. Parámetros (-D):
+//   carga.sse.suscripciones  conexiones a abrir (20000)
+//   carga.sse.kb-max         presupuesto de heap por conexión en KB (160)
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.max-connections=100000",
+        "eventos.sse.latido=2s"
+})
+@ActiveProfiles("test")
+class SseSuscripcionesLoadTest {
+
+    private static final int SUSCRIPCIONES = Integer.getInteger("carga.sse.suscripciones", 20_000);
+    private static final long KB_MAX = Long.getLong("carga.sse.kb-max", 160);
+    // Descriptores que dejamos para H2, jars, logs y el resto de la JVM
+    private static final long DESCRIPTORES_RESERVADOS = 1000;
+
+    private static final String DUI = "12345678-9";
+    private static final String CORREO = "empleado.sse@banco.com";
+    private static final String CONTRASENA = "sse";
+
+    @LocalServerPort
+    private int puerto;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+    @Autowired
+    private CredencialesRepository credRepo;
+    @Autowired
+    private ContrasenaService contrasenas;
+    @Autowired
+    private SaldoEventos saldoEventos;
+    @Autowired
+    private ObjectMapper mapper;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final List<SocketChannel> conexiones = new ArrayList<>();
+    private String token;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        Cliente cliente = new Cliente();
+        cliente.setDui(DUI);
+        cliente.setPrimerNombre("Cliente");
+        cliente.setApellido("Sse");
+        cliente.setFechaNacimiento(LocalDate.of(1985, 6, 15));
+        clienteRepo.save(cliente);
+
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumero("0001");
+        cuenta.setSaldoCentavos(100_00);
+        cuenta.setCliente(cliente);
+        cuentaRepo.save(cuenta);
+
+        credRepo.save(new Credenciales(CORREO, contrasenas.hashear(CONTRASENA), TipoCuenta.empleado, null));
+        HttpResponse<byte[]> login = http.send(post("/api/credenciales/login",
+                "{\"correo\":\"" + CORREO + "\",\"contrasena\":\"" + CONTRASENA + "\"}"),
+                HttpResponse.BodyHandlers.ofByteArray());
+        token = mapper.readTree(login.body()).get("token").asText();
+    }
+
+    @AfterEach
+    void limpiar() throws IOException {
+        cerrarConexiones();
+        movimientoRepo.deleteAll();
+        credRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void suscripcionesIdleCuestanPocoYRecibenLosAbonos() throws Exception {
+        int n = suscripcionesPosibles();
+        long antes = heapUsado();
+
+        byte[] peticion = ("GET /api/cuentas/cliente/" + DUI + "/eventos HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Authorization: Bearer " + token + "\r\n"
+                + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            SocketChannel canal = SocketChannel.open(new InetSocketAddress("localhost", puerto));
+            conexiones.add(canal);
+            canal.write(ByteBuffer.wrap(peticion));
+        }
+        for (SocketChannel canal : conexiones) {
+            assertThat(leerCabeceras(canal)).startsWith("HTTP/1.1 200").contains("text/event-stream");
+        }
+        esperar(() -> saldoEventos.suscripciones() == n, 30);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long despues = heapUsado();
+        double kbPorConexion = (despues - antes) / 1024.0 / n;
+        System.out.printf("sse: %d suscripciones abiertas en %.1f s, heap +%d MB, %.1f KB por conexión%n",
+                n, segundos, (despues - antes) >> 20, kbPorConexion);
+
+        HttpResponse<String> abono = http.send(post("/api/cuentas/cliente/" + DUI + "/abonarefectivo",
+                "{\"numero\":\"0001\",\"monto\":1.25}"), HttpResponse.BodyHandlers.ofString());
+        assertThat(abono.statusCode()).isEqualTo(200);
+        assertThat(recibidos("event:saldo", "\"saldo\":101.25", 60)).isEqualTo(n);
+
+        cerrarConexiones();
+        // El cierre lo detecta Tomcat o, a más tardar, el siguiente latido que no se puede escribir
+        esperar(() -> saldoEventos.suscripciones() == 0, 30);
+
+        assertThat(kbPorConexion).isLessThanOrEqualTo(KB_MAX);
+    }
+
+    // Cuenta cuántas conexiones recibieron un evento con ambos textos antes del plazo
+    private int recibidos(String evento, String dato, int segundos) throws IOException {
+        int completas = 0;
+        try (Selector selector = Selector.open()) {
+            for (SocketChannel canal : conexiones) {
+                canal.configureBlocking(false);
+                canal.register(selector, SelectionKey.OP_READ, new StringBuilder());
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+            while (completas < conexiones.size() && System.nanoTime() < limite) {
+                selector.select(1000);
+                for (SelectionKey key : selector.selectedKeys()) {
+                    StringBuilder leido = (StringBuilder) key.attachment();
+                    buffer.clear();
+                    if (((SocketChannel) key.channel()).read(buffer) < 0) {
+                        key.cancel();
+                        continue;
+                    }
+                    leido.append(StandardCharsets.UTF_8.decode(buffer.flip()));
+                    if (leido.indexOf(evento) >= 0 && leido.indexOf(dato) >= 0) {
+                        completas++;
+                        key.cancel();
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        }
+        return completas;
+    }
+
+    private static String leerCabeceras(SocketChannel canal) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        StringBuilder texto = new StringBuilder();
+        while (texto.indexOf("\r\n\r\n") < 0) {
+            buffer.clear();
+            if (canal.read(buffer) < 0) {
+                break;
+            }
+            texto.append(StandardCharsets.US_ASCII.decode(buffer.flip()));
+        }
+        return texto.toString();
+    }
+
+    private void cerrarConexiones() throws IOException {
+        for (SocketChannel canal : conexiones) {
+            canal.close();
+        }
+        conexiones.clear();
+    }
+
+    private static int suscripcionesPosibles() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof UnixOperatingSystemMXBean os) {
+            long libres = os.getMaxFileDescriptorCount() - os.getOpenFileDescriptorCount() - DESCRIPTORES_RESERVADOS;
+            if (libres / 2 < SUSCRIPCIONES) {
+                System.out.printf("sse: el límite de descriptores (%d) alcanza para %d suscripciones de %d pedidas%n",
+                        os.getMaxFileDescriptorCount(), libres / 2, SUSCRIPCIONES);
+                return (int) (libres / 2);
+            }
+        }
+        return SUSCRIPCIONES;
+    }
+
+    private static long heapUsado() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void esperar(BooleanSupplier condicion, int segundos) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("tiempo de espera agotado").isLessThan(limite);
+            Thread.sleep(100);
+        }
+    }
+
+    private HttpRequest post(String ruta, String json) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+}
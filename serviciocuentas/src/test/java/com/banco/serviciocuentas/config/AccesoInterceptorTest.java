@@ -0,0 +1,157 @@
+package com.banco.serviciocuentas.config;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import com.banco.serviciocuentas.service.ContrasenaService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Acceso por endpoint resuelto: sin token solo el login; un cliente opera solo sus cuentas,
+// también en transferir y lote y aunque la URL venga disfrazada; listados y cierres son de empleados.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class AccesoInterceptorTest {
+
+    private static final String PROPIO = "05000001-1";
+    private static final String AJENO = "05000002-2";
+
+    @LocalServerPort
+    private int puerto;
+    @Autowired
+    private TestRestTemplate rest;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+    @Autowired
+    private CredencialesRepository credRepo;
+    @Autowired
+    private ContrasenaService contrasenas;
+
+    private String token;
+
+    @BeforeEach
+    void preparar() {
+        crear(PROPIO);
+        crear(AJENO);
+        credRepo.save(new Credenciales("cliente@correo.com", contrasenas.hashear("clave"), TipoCuenta.cliente, PROPIO));
+        token = rest.postForObject("/api/credenciales/login",
+                Map.of("correo", "cliente@correo.com", "contrasena", "clave"), JsonNode.class).get("token").asText();
+    }
+
+    @AfterEach
+    void limpiar() {
+        movimientoRepo.deleteAll();
+        credRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void clienteSoloOperaSusCuentas() {
+        assertThat(estado(HttpMethod.POST, "/api/cuentas/transferir", null, transferencia(AJENO, PROPIO)))
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(estado(HttpMethod.POST, "/api/cuentas/transferir", token, transferencia(AJENO, PROPIO)))
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(estado(HttpMethod.POST, "/api/cuentas/transferir", token, transferencia(PROPIO, AJENO)))
+                .isEqualTo(HttpStatus.OK);
+        assertThat(estado(HttpMethod.POST, "/api/cuentas/lote", token, Map.of("atomico", false, "instrucciones", List.of(
+                Map.of("tipo", "abono", "dui", PROPIO, "numero", "0001", "monto", 1),
+                Map.of("tipo", "retiro", "dui", AJENO, "numero", "0001", "monto", 1)))))
+                .isEqualTo(HttpStatus.FORBIDDEN);
+
+        for (String ruta : List.of("/api/cuentas/cliente/" + AJENO, "//api/cuentas/cliente/" + AJENO,
+                "/api/cuentas/cliente;jsessionid=x/" + AJENO, "/api/cuentas/%63liente/" + AJENO)) {
+            // Si Spring la enruta al endpoint, el interceptor la rechaza; si no, no llega a ningún lado
+            assertThat(estado(HttpMethod.GET, ruta, token, null)).as(ruta)
+                    .isIn(HttpStatus.FORBIDDEN, HttpStatus.NOT_FOUND);
+        }
+        assertThat(estado(HttpMethod.GET, "/api/clientes", token, null)).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(estado(HttpMethod.POST, "/api/cierres", null, null)).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void clienteNoAdministraNiSuPropioDui() {
+        assertThat(estado(HttpMethod.GET, "/api/clientes/" + PROPIO, token, null)).isEqualTo(HttpStatus.OK);
+        assertThat(estado(HttpMethod.GET, "/api/cuentas/cliente/" + PROPIO, token, null)).isEqualTo(HttpStatus.OK);
+
+        Map<String, Object> cliente = Map.of("dui", PROPIO, "primerNombre", "Ana", "apellido", "Pérez",
+                "fechaNacimiento", "1990-01-01");
+        Map<String, Object> credenciales = Map.of("correo", "cliente@correo.com", "contrasena", "otra",
+                "tipoCuenta", "empleado", "clienteDui", PROPIO);
+        assertThat(estado(HttpMethod.PUT, "/api/clientes/" + PROPIO, token, cliente)).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(estado(HttpMethod.DELETE, "/api/clientes/" + PROPIO, token, null)).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(estado(HttpMethod.POST, "/api/clientes/" + PROPIO + "/archivo", token, null))
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(estado(HttpMethod.GET, "/api/credenciales/" + PROPIO, token, null)).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(estado(HttpMethod.PUT, "/api/credenciales/" + PROPIO, token, credenciales))
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(estado(HttpMethod.DELETE, "/api/credenciales/" + PROPIO, token, null))
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        // Abrir una cuenta con saldo inicial sería crear dinero
+        assertThat(estado(HttpMethod.POST, "/api/cuentas/cliente/" + PROPIO, token,
+                Map.of("numero", "0002", "saldo", 1_000_000))).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(estado(HttpMethod.DELETE, "/api/cuentas/cliente/" + PROPIO + "/0001", token, null))
+                .isEqualTo(HttpStatus.FORBIDDEN);
+
+        assertThat(clienteRepo.existsByDui(PROPIO)).isTrue();
+        assertThat(cuentaRepo.findByClienteDuiAndNumero(PROPIO, "0002")).isEmpty();
+        assertThat(credRepo.findByClienteDui(PROPIO)).hasSize(1);
+    }
+
+    private HttpStatusCode estado(HttpMethod metodo, String ruta, String token, Object cuerpo) {
+        HttpHeaders headers = new HttpHeaders();
+        if (token != null) {
+            headers.setBearerAuth(token);
+        }
+        // URI ya armada: la ruta llega tal cual, sin normalizar ni volver a codificar
+        return rest.exchange(URI.create("http://localhost:" + puerto + ruta), metodo, new HttpEntity<>(cuerpo, headers),
+                String.class).getStatusCode();
+    }
+
+    private static Map<String, Object> transferencia(String origen, String destino) {
+        return Map.of("duiOrigen", origen, "numeroOrigen", "0001", "duiDestino", destino, "numeroDestino", "0001",
+                "monto", 1);
+    }
+
+    private void crear(String dui) {
+        Cliente cliente = new Cliente();
+        cliente.setDui(dui);
+        cliente.setPrimerNombre("Ana");
+        cliente.setApellido("Pérez");
+        cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        clienteRepo.save(cliente);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumero("0001");
+        cuenta.setSaldoCentavos(10_00);
+        cuenta.setCliente(cliente);
+        cuentaRepo.save(cuenta);
+    }
+}
@@ -0,0 +1,128 @@
+package com.banco.serviciocuentas.config;
+
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.service.ClienteCache;
+import com.banco.serviciocuentas.service.ContrasenaService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Primario y réplica como dos bases H2 en memoria distintas. La "replicación" es manual (replicar()),
+// así cualquier lectura que vaya a la réplica antes de replicar no ve lo recién escrito.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "datasource.replicas.urls=" + DataSourceRuteadoTest.URL_REPLICA)
+@ActiveProfiles("test")
+class DataSourceRuteadoTest {
+
+    static final String URL_REPLICA = "jdbc:h2:mem:banco_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String DUI = "12345678-9";
+
+    @Autowired
+    private TestRestTemplate rest;
+    @Autowired
+    private HikariDataSource primario;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CredencialesRepository credRepo;
+    @Autowired
+    private ClienteCache clienteCache;
+    @Autowired
+    private ContrasenaService contrasenas;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(URL_REPLICA, "sa", ""));
+    private String escritor;
+    private String lector;
+
+    @BeforeEach
+    void preparar() {
+        credRepo.save(new Credenciales("escritor@banco.com", contrasenas.hashear("clave"), TipoCuenta.empleado, null));
+        credRepo.save(new Credenciales("lector@banco.com", contrasenas.hashear("clave"), TipoCuenta.empleado, null));
+        escritor = token("escritor@banco.com");
+        lector = token("lector@banco.com");
+        replicar();
+    }
+
+    @AfterEach
+    void limpiar() {
+        credRepo.deleteAll();
+        clienteRepo.deleteAll();
+        clienteCache.invalidar(DUI);
+        replica.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void lecturasVanALaReplicaYQuienEscribeLeeDelPrimario() {
+        ResponseEntity<String> creado = exchange(HttpMethod.POST, "/api/clientes", escritor, Map.of(
+                "dui", DUI, "primerNombre", "Ana", "apellido", "Lopez", "fechaNacimiento", "1990-01-01"));
+        assertThat(creado.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        // La escritura fue al primario y la réplica todavía no la tiene
+        assertThat(exchange(HttpMethod.GET, "/api/clientes/" + DUI, lector, null).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        // Quien escribió lee del primario durante la ventana de lectura propia
+        assertThat(exchange(HttpMethod.GET, "/api/clientes/" + DUI, escritor, null).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        replicar();
+        assertThat(exchange(HttpMethod.GET, "/api/clientes/" + DUI, lector, null).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void elCacheDeClientesNoSeLlenaDesdeLaReplica() {
+        exchange(HttpMethod.POST, "/api/clientes", escritor, Map.of(
+                "dui", DUI, "primerNombre", "Ana", "apellido", "Lopez", "fechaNacimiento", "1990-01-01"));
+        replicar();
+        assertThat(exchange(HttpMethod.PUT, "/api/clientes/" + DUI, escritor, Map.of(
+                "dui", DUI, "primerNombre", "Eva", "apellido", "Lopez", "fechaNacimiento", "1990-01-01"))
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // La réplica sigue con "Ana"; el cache se carga del primario y no guarda el dato viejo
+        assertThat(exchange(HttpMethod.GET, "/api/clientes/" + DUI, lector, null).getBody()).contains("Eva");
+        replicar();
+        assertThat(exchange(HttpMethod.GET, "/api/clientes/" + DUI, lector, null).getBody()).contains("Eva");
+    }
+
+    // Copia esquema y datos del primario a la réplica, como lo haría la replicación de MySQL
+    private void replicar() {
+        replica.execute("DROP ALL OBJECTS");
+        for (String sentencia : new JdbcTemplate(primario).queryForList("SCRIPT", String.class)) {
+            if (!sentencia.startsWith("--")) {
+                replica.execute(sentencia);
+            }
+        }
+    }
+
+    private String token(String correo) {
+        JsonNode login = rest.postForObject("/api/credenciales/login",
+                Map.of("correo", correo, "contrasena", "clave"), JsonNode.class);
+        return login.get("token").asText();
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod metodo, String ruta, String token, Object cuerpo) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return rest.exchange(ruta, metodo, new HttpEntity<>(cuerpo, headers), String.class);
+    }
+}
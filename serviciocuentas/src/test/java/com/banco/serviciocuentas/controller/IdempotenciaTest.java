@@ -0,0 +1,134 @@
+package com.banco.serviciocuentas.controller;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import com.banco.serviciocuentas.service.ContrasenaService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Reintentos con Idempotency-Key sobre HTTP, con la tabla idempotencia activa (idempotencia.persistente=true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "idempotencia.persistente=true")
+@ActiveProfiles("test")
+class IdempotenciaTest {
+
+    private static final String DUI = "12345678-9";
+    private static final String RUTA = "/api/cuentas/cliente/" + DUI;
+
+    @Autowired
+    private TestRestTemplate rest;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+    @Autowired
+    private CredencialesRepository credRepo;
+    @Autowired
+    private ContrasenaService contrasenas;
+
+    private String token;
+
+    @BeforeEach
+    void preparar() {
+        // En MySQL la crea migraciones/005_idempotencia.sql; Hibernate no la conoce
+        jdbc.execute("CREATE TABLE IF NOT EXISTS idempotencia (llave VARCHAR(300) PRIMARY KEY, huella CHAR(32) NOT NULL, "
+                + "estado INT, location VARCHAR(255), cuerpo BLOB, creada TIMESTAMP(6) NOT NULL)");
+
+        Cliente cliente = new Cliente();
+        cliente.setDui(DUI);
+        cliente.setPrimerNombre("Ana");
+        cliente.setApellido("Pérez");
+        cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        clienteRepo.save(cliente);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumero("0001");
+        cuenta.setSaldoCentavos(10_00);
+        cuenta.setCliente(cliente);
+        cuentaRepo.save(cuenta);
+
+        credRepo.save(new Credenciales("empleado@banco.com", contrasenas.hashear("clave"), TipoCuenta.empleado, null));
+        token = rest.postForObject("/api/credenciales/login",
+                Map.of("correo", "empleado@banco.com", "contrasena", "clave"), JsonNode.class).get("token").asText();
+    }
+
+    @AfterEach
+    void limpiar() {
+        jdbc.execute("DROP TABLE idempotencia");
+        movimientoRepo.deleteAll();
+        credRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void reintentoDeAbonoDevuelveLaRespuestaGuardadaSinAbonarDeNuevo() {
+        ResponseEntity<String> primera = post("/abonarefectivo", "k-1", Map.of("numero", "0001", "monto", 5));
+        ResponseEntity<String> segunda = post("/abonarefectivo", "k-1", Map.of("numero", "0001", "monto", 5));
+
+        assertThat(primera.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(segunda.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(segunda.getBody()).isEqualTo(primera.getBody());
+        assertThat(primera.getHeaders().getFirst(Idempotencia.HEADER_REPETIDA)).isNull();
+        assertThat(segunda.getHeaders().getFirst(Idempotencia.HEADER_REPETIDA)).isEqualTo("true");
+        assertThat(saldo()).isEqualTo(15_00);
+        assertThat(movimientoRepo.count()).isEqualTo(1);
+        assertThat(jdbc.queryForObject("select estado from idempotencia", Integer.class)).isEqualTo(200);
+
+        // Otra llave es otra operación
+        assertThat(post("/abonarefectivo", "k-2", Map.of("numero", "0001", "monto", 5)).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(saldo()).isEqualTo(20_00);
+    }
+
+    @Test
+    void laMismaLlaveConOtroPedidoSeRechazaYLosRechazosTambienSeRepiten() {
+        ResponseEntity<String> sinSaldo = post("/retirarefectivo", "k-3", Map.of("numero", "0001", "monto", 50));
+        assertThat(sinSaldo.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(post("/retirarefectivo", "k-3", Map.of("numero", "0001", "monto", 1)).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+
+        // Aunque ahora alcance, el reintento del retiro rechazado sigue rechazado
+        post("/abonarefectivo", "k-4", Map.of("numero", "0001", "monto", 100));
+        ResponseEntity<String> reintento = post("/retirarefectivo", "k-3", Map.of("numero", "0001", "monto", 50));
+        assertThat(reintento.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(reintento.getBody()).isEqualTo(sinSaldo.getBody());
+        assertThat(saldo()).isEqualTo(110_00);
+    }
+
+    private long saldo() {
+        return cuentaRepo.findByClienteDuiAndNumero(DUI, "0001").orElseThrow().getSaldoCentavos();
+    }
+
+    private ResponseEntity<String> post(String ruta, String clave, Object cuerpo) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.set(Idempotencia.HEADER, clave);
+        return rest.postForEntity(RUTA + ruta, new HttpEntity<>(cuerpo, headers), String.class);
+    }
+}
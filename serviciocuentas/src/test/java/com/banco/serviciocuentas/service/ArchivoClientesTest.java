@@ -0,0 +1,144 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Movimiento;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.model.TipoMovimiento;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Borrado y archivo por conjunto: credenciales (llave por cliente_dui), cuentas y movimientos salen
+// junto con el cliente, y el archivo masivo en bloques de un cliente elige solo a los inactivos sin saldo.
+@SpringBootTest(properties = "archivo.bloque=1")
+@ActiveProfiles("test")
+class ArchivoClientesTest {
+
+    private static final Instant HACE_TRES_ANIOS = Instant.now().minus(3 * 365, ChronoUnit.DAYS);
+    private static final Instant CORTE = Instant.now().minus(2 * 365, ChronoUnit.DAYS);
+    private static final List<String> ARCHIVO = List.of("cliente_archivo", "cuenta_archivo", "movimiento_archivo",
+            "estado_cuenta_archivo", "credenciales_archivo");
+
+    @Autowired
+    private ArchivoClientes archivo;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+    @Autowired
+    private CredencialesRepository credRepo;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void crearTablasDeArchivo() {
+        // En MySQL las crea migraciones/009_archivo.sql; Hibernate no las conoce
+        jdbc.execute("CREATE TABLE IF NOT EXISTS cliente_archivo (id BIGINT PRIMARY KEY, dui VARCHAR(10) NOT NULL, "
+                + "primer_nombre VARCHAR(12) NOT NULL, apellido VARCHAR(12) NOT NULL, fecha_nacimiento DATE NOT NULL, "
+                + "archivado TIMESTAMP(6) NOT NULL)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS cuenta_archivo (id BIGINT PRIMARY KEY, numero VARCHAR(20) NOT NULL, "
+                + "saldo_centavos BIGINT NOT NULL, cliente_id BIGINT, archivado TIMESTAMP(6) NOT NULL)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS movimiento_archivo (id BIGINT PRIMARY KEY, cuenta_id BIGINT NOT NULL, "
+                + "tipo VARCHAR(20) NOT NULL, monto_centavos BIGINT NOT NULL, saldo_centavos BIGINT NOT NULL, "
+                + "fecha TIMESTAMP(6) NOT NULL)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS estado_cuenta_archivo (id BIGINT PRIMARY KEY, cuenta_id BIGINT NOT NULL, "
+                + "fecha DATE NOT NULL, saldo_inicial BIGINT NOT NULL, abonos BIGINT NOT NULL, cargos BIGINT NOT NULL, "
+                + "movimientos INT NOT NULL, saldo_final BIGINT NOT NULL, interes BIGINT NOT NULL, comision BIGINT NOT NULL)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS credenciales_archivo (id BIGINT PRIMARY KEY, correo VARCHAR(50) NOT NULL, "
+                + "contrasena VARCHAR(100) NOT NULL, tipo_cuenta VARCHAR(10) NOT NULL, cliente_dui VARCHAR(10), "
+                + "archivado TIMESTAMP(6) NOT NULL)");
+    }
+
+    @AfterEach
+    void limpiar() {
+        ARCHIVO.forEach(tabla -> jdbc.update("delete from " + tabla));
+        credRepo.deleteAll();
+        movimientoRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void eliminaSinHistorialYArchivaConHistorial() {
+        crear("03000001-1", 0, null);
+        assertThat(archivo.eliminar("03000001-1")).isEqualTo(ArchivoClientes.Estado.hecho);
+        assertThat(clienteRepo.existsByDui("03000001-1")).isFalse();
+        assertThat(cuentaRepo.count()).isZero();
+        assertThat(credRepo.count()).isZero();
+        assertThat(archivo.eliminar("03000001-1")).isEqualTo(ArchivoClientes.Estado.no_encontrado);
+
+        crear("03000002-2", 500, Instant.now());
+        assertThat(archivo.eliminar("03000002-2")).isEqualTo(ArchivoClientes.Estado.con_movimientos);
+        assertThat(archivo.archivar("03000002-2")).isEqualTo(ArchivoClientes.Estado.hecho);
+        assertThat(clienteRepo.existsByDui("03000002-2")).isFalse();
+        assertThat(movimientoRepo.count()).isZero();
+        assertThat(filas("cliente_archivo")).isEqualTo(1);
+        assertThat(filas("cuenta_archivo")).isEqualTo(1);
+        assertThat(filas("movimiento_archivo")).isEqualTo(1);
+        assertThat(filas("credenciales_archivo")).isEqualTo(1);
+        assertThat(jdbc.queryForObject("select saldo_centavos from cuenta_archivo", Long.class)).isEqualTo(500);
+    }
+
+    @Test
+    void archivaEnBloquesSoloInactivosSinSaldo() {
+        crear("04000001-1", 0, HACE_TRES_ANIOS);
+        crear("04000002-2", 0, HACE_TRES_ANIOS);
+        crear("04000003-3", 100, HACE_TRES_ANIOS);
+        crear("04000004-4", 0, Instant.now());
+        crear("04000005-5", 0, null);
+
+        ArchivoClientes.ResultadoArchivo resultado = archivo.archivarInactivos(CORTE, 100);
+        assertThat(resultado.clientes()).isEqualTo(2);
+        assertThat(resultado.movimientos()).isEqualTo(2);
+        assertThat(jdbc.queryForList("select dui from cliente_archivo order by dui", String.class))
+                .containsExactly("04000001-1", "04000002-2");
+        assertThat(jdbc.queryForList("select dui from cliente order by dui", String.class))
+                .containsExactly("04000003-3", "04000004-4", "04000005-5");
+        assertThat(filas("credenciales_archivo")).isEqualTo(2);
+
+        // Nada más que archivar
+        assertThat(archivo.archivarInactivos(CORTE, 100).clientes()).isZero();
+    }
+
+    // Cliente con una cuenta de 'saldo', credenciales y, si 'movimiento' no es null, un abono en esa fecha
+    private void crear(String dui, long saldo, Instant movimiento) {
+        Cliente cliente = new Cliente();
+        cliente.setDui(dui);
+        cliente.setPrimerNombre("Cliente");
+        cliente.setApellido("Archivo");
+        cliente.setFechaNacimiento(LocalDate.of(1960, 1, 1));
+        clienteRepo.save(cliente);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumero("0001");
+        cuenta.setSaldoCentavos(saldo);
+        cuenta.setCliente(cliente);
+        cuentaRepo.save(cuenta);
+        credRepo.save(new Credenciales(dui + "@correo.com", "{noop}clave", TipoCuenta.cliente, dui));
+        if (movimiento != null) {
+            movimientoRepo.save(new Movimiento(cuenta, TipoMovimiento.abono, 100, saldo, movimiento));
+        }
+    }
+
+    private long filas(String tabla) {
+        return jdbc.queryForObject("select count(*) from " + tabla, Long.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.TextoBusqueda;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Latencia de GET /api/clientes/search (sin HTTP) sobre una tabla grande de clientes: prefijos de
+// 1 a 3 letras (los peores, con cientos de miles de coincidencias), nombre + apellido y DUI, con
+// tres páginas seguidas de 20. Imprime p50/p99/máximo; el costo por página no debe crecer con la
+// cantidad de coincidencias porque cada consulta es un rango de índice con LIMIT.
+// Solo corre con -Pcarga. Parámetros (-D): carga.busqueda.clientes (1 000 000; el objetivo es
+// 10 000 000, que con H2 en memoria necesita unos 8 GB de heap: -DargLine=-Xmx10g), carga.busqueda.consultas (2000)
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("test")
+class BusquedaClientesLoadTest {
+
+    private static final int CLIENTES = Integer.getInteger("carga.busqueda.clientes", 1_000_000);
+    private static final int CONSULTAS = Integer.getInteger("carga.busqueda.consultas", 2_000);
+    private static final int TAMANO = 20;
+    private static final int LOTE = 5_000;
+    private static final String[] NOMBRES = {"María", "José", "Juan", "Ana", "Carlos", "Marta", "Luis", "Sofía",
+            "Mario", "Rosa", "Jorge", "Elena", "Óscar", "Lucía", "Ramón", "Inés", "Andrés", "Beatriz"};
+    private static final String[] APELLIDOS = {"López", "Martínez", "Hernández", "García", "Núñez", "Pérez",
+            "Ramírez", "Flores", "Marín", "Rivas", "Gómez", "Cruz", "Ávalos", "Orellana", "Chávez", "Mejía"};
+
+    @Autowired
+    private BusquedaClientes busqueda;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void limpiar() {
+        jdbc.update("delete from cliente");
+    }
+
+    @Test
+    void latenciaConMuchosClientes() {
+        SplittableRandom azar = new SplittableRandom(42);
+        long t0 = System.nanoTime();
+        List<Object[]> lote = new ArrayList<>(LOTE);
+        for (int i = 0; i < CLIENTES; i++) {
+            // Sufijo con el número para que los nombres no sean todos iguales dentro de cada prefijo
+            String nombre = NOMBRES[azar.nextInt(NOMBRES.length)] + (char) ('a' + i % 26);
+            String apellido = APELLIDOS[azar.nextInt(APELLIDOS.length)] + (char) ('a' + i / 26 % 26);
+            lote.add(new Object[]{String.format("%08d-%d", i, i % 10), nombre, apellido,
+                    Date.valueOf(LocalDate.of(1950 + i % 50, 1 + i % 12, 1 + i % 28)),
+                    TextoBusqueda.normalizar(nombre), TextoBusqueda.normalizar(apellido)});
+            if (lote.size() == LOTE || i == CLIENTES - 1) {
+                jdbc.batchUpdate("insert into cliente (dui, primer_nombre, apellido, fecha_nacimiento, version, "
+                        + "primer_nombre_busqueda, apellido_busqueda) values (?, ?, ?, ?, 0, ?, ?)", lote);
+                lote.clear();
+            }
+        }
+        System.out.printf("%d clientes cargados en %.1f s%n", CLIENTES, (System.nanoTime() - t0) / 1e9);
+
+        String[] textos = {"m", "ma", "mar", "lo", "Núñ", "jose", "ana r", "mar lop", "0", "0001", "ZZZ"};
+        Histogram latencias = new Histogram(3);
+        long encontrados = 0;
+        for (int i = 0; i < CONSULTAS; i++) {
+            String texto = textos[azar.nextInt(textos.length)];
+            String token = null;
+            for (int pagina = 0; pagina < 3; pagina++) {
+                long inicio = System.nanoTime();
+                BusquedaClientes.Pagina resultado = busqueda.buscar(texto, token, TAMANO);
+                latencias.recordValue((System.nanoTime() - inicio) / 1_000);
+                encontrados += resultado.clientes().size();
+                token = resultado.siguiente();
+                if (token == null) {
+                    break;
+                }
+            }
+        }
+        System.out.printf("%d páginas de búsqueda sobre %d clientes: p50 %.2f ms, p99 %.2f ms, máx %.2f ms%n",
+                latencias.getTotalCount(), CLIENTES, latencias.getValueAtPercentile(50) / 1e3,
+                latencias.getValueAtPercentile(99) / 1e3, latencias.getMaxValue() / 1e3);
+        assertThat(encontrados).isPositive();
+    }
+}
@@ -0,0 +1,85 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.repository.ClienteEncontrado;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Prefijos sin tildes ni mayúsculas sobre nombre, apellido y DUI, y páginas de a dos que cruzan
+// del recorrido por apellido al de nombre sin repetir ni perder clientes.
+@SpringBootTest
+@ActiveProfiles("test")
+class BusquedaClientesTest {
+
+    @Autowired
+    private BusquedaClientes busqueda;
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @BeforeEach
+    void crearClientes() {
+        crear("01000001-1", "María", "López");
+        crear("01000002-2", "Mario", "Núñez");
+        crear("01000003-3", "José", "Martínez");
+        crear("02000004-4", "Marta", "Marín");
+        crear("02000005-5", "Ana", "Pérez");
+    }
+
+    @AfterEach
+    void limpiar() {
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void buscaPorPrefijoSinTildesYPagina() {
+        // Primero por apellido (Marín, Martínez), luego por nombre (María, Mario); Marta Marín una sola vez
+        assertThat(duis(todas("MAR", 2))).containsExactly("02000004-4", "01000003-3", "01000001-1", "01000002-2");
+        assertThat(duis(todas("nun", 2))).containsExactly("01000002-2");
+        assertThat(duis(todas("maría lóp", 2))).containsExactly("01000001-1");
+        assertThat(duis(todas("lopez ma", 2))).containsExactly("01000001-1");
+        assertThat(duis(todas("02", 1))).containsExactly("02000004-4", "02000005-5");
+        assertThat(todas("m%", 10)).isEmpty();
+
+        // Un cambio de apellido se refleja en la búsqueda
+        Cliente ana = clienteRepo.findByDui("02000005-5").orElseThrow();
+        ana.setApellido("Márquez");
+        clienteRepo.save(ana);
+        assertThat(duis(todas("marq", 10))).containsExactly("02000005-5");
+    }
+
+    private List<ClienteEncontrado> todas(String texto, int tamano) {
+        List<ClienteEncontrado> encontrados = new ArrayList<>();
+        String token = null;
+        do {
+            BusquedaClientes.Pagina pagina = busqueda.buscar(texto, token, tamano);
+            assertThat(pagina.clientes()).hasSizeLessThanOrEqualTo(tamano);
+            encontrados.addAll(pagina.clientes());
+            token = pagina.siguiente();
+        } while (token != null);
+        return encontrados;
+    }
+
+    private static List<String> duis(List<ClienteEncontrado> clientes) {
+        return clientes.stream().map(ClienteEncontrado::dui).toList();
+    }
+
+    private void crear(String dui, String nombre, String apellido) {
+        Cliente cliente = new Cliente();
+        cliente.setDui(dui);
+        cliente.setPrimerNombre(nombre);
+        cliente.setApellido(apellido);
+        cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        clienteRepo.save(cliente);
+    }
+}
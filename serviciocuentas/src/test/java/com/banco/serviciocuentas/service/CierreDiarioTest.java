@@ -0,0 +1,149 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Movimiento;
+import com.banco.serviciocuentas.model.TipoMovimiento;
+import com.banco.serviciocuentas.repository.CierreRepository;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Cierre del último día de un mes con tasa de 0.1 % diario y comisión de 1.00: saldo al cierre
+// reconstruido aunque haya movimientos del día siguiente, comisión solo si el saldo alcanza, y
+// reanudación de un cierre interrumpido sin aplicar dos veces el tramo ya hecho.
+@SpringBootTest
+@ActiveProfiles("test")
+class CierreDiarioTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2026, 1, 31);
+    private static final Instant DURANTE = Instant.parse("2026-01-31T15:00:00Z");
+    private static final Instant DESPUES = Instant.parse("2026-02-01T09:00:00Z");
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+    @Autowired
+    private CierreRepository cierreRepo;
+    @Autowired
+    private MotorSaldos motor;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    private Cuenta conMovimientos;
+    private Cuenta sinSaldo;
+    private Cuenta yaCerrada;
+
+    @BeforeEach
+    void crearCuentas() {
+        conMovimientos = crearCuenta("00000005-5", 100_000);
+        sinSaldo = crearCuenta("00000006-6", 50);
+        yaCerrada = crearCuenta("00000007-7", 10_000);
+        movimientoRepo.save(new Movimiento(conMovimientos, TipoMovimiento.abono, 20_000, 104_000, DURANTE));
+        movimientoRepo.save(new Movimiento(conMovimientos, TipoMovimiento.retiro, 5_000, 99_000, DURANTE.plusSeconds(60)));
+        movimientoRepo.save(new Movimiento(conMovimientos, TipoMovimiento.abono, 1_000, 100_000, DESPUES));
+    }
+
+    @AfterEach
+    void limpiar() {
+        jdbc.update("delete from estado_cuenta");
+        jdbc.update("delete from cierre_tramo");
+        cierreRepo.deleteAll();
+        movimientoRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void aplicaInteresYComisionYSeReanudaSinRepetir() {
+        CierreDiario cierre = new CierreDiario(cierreRepo, movimientoRepo, motor, jdbc, em, txManager,
+                new SimpleMeterRegistry(), 2, 1, new BigDecimal("0.365"), 100, ZoneOffset.UTC, "-");
+        // Un cierre anterior alcanzó a confirmar el tramo (de una cuenta) de 'yaCerrada' antes de caerse
+        jdbc.update("insert into cierre (fecha, tamano_tramo, max_id, iniciado) values (?, 1, ?, ?)",
+                FECHA, yaCerrada.getId(), Instant.now());
+        jdbc.update("insert into cierre_tramo (fecha, desde_id, hasta_id, cuentas) values (?, ?, ?, 1)",
+                FECHA, yaCerrada.getId(), yaCerrada.getId());
+
+        ResultadoCierre resultado = cierre.ejecutar(FECHA).orElseThrow();
+        assertThat(resultado.terminado()).isTrue();
+        assertThat(resultado.tramosPrevios()).isEqualTo(1);
+        assertThat(resultado.cuentas()).isEqualTo(2);
+
+        // 99 000 al cierre (el abono del 1 de febrero no cuenta): +99 de interés, -100 de comisión
+        assertThat(saldo(conMovimientos)).isEqualTo(99_999);
+        assertThat(jdbc.queryForMap("select saldo_inicial, abonos, cargos, movimientos, saldo_final, interes, comision "
+                + "from estado_cuenta where cuenta_id = ?", conMovimientos.getId()))
+                .containsAllEntriesOf(Map.of("SALDO_INICIAL", 84_000L, "ABONOS", 20_000L, "CARGOS", 5_000L,
+                        "MOVIMIENTOS", 2, "SALDO_FINAL", 99_000L, "INTERES", 99L, "COMISION", 100L));
+        // Interés y comisión van después del abono del 1 de febrero y el saldo corrido del libro cuadra fila a fila
+        List<Map<String, Object>> libro = jdbc.queryForList("select tipo, monto_centavos, saldo_centavos "
+                + "from movimiento where cuenta_id = ? order by fecha, id", conMovimientos.getId());
+        assertThat(libro).extracting(f -> f.get("TIPO").toString())
+                .containsExactly("abono", "retiro", "abono", "interes", "comision");
+        assertThat(libro).extracting(f -> f.get("SALDO_CENTAVOS"))
+                .containsExactly(104_000L, 99_000L, 100_000L, 100_099L, 99_999L);
+        for (int i = 1; i < libro.size(); i++) {
+            long monto = (Long) libro.get(i).get("MONTO_CENTAVOS");
+            long signo = List.of("abono", "interes").contains(libro.get(i).get("TIPO").toString()) ? 1 : -1;
+            assertThat(libro.get(i).get("SALDO_CENTAVOS")).as("fila %d", i)
+                    .isEqualTo((Long) libro.get(i - 1).get("SALDO_CENTAVOS") + signo * monto);
+        }
+        // Interés redondeado a cero y comisión sin cubrir: no se cobra
+        assertThat(saldo(sinSaldo)).isEqualTo(50);
+        assertThat(jdbc.queryForObject("select comision from estado_cuenta where cuenta_id = ?", Long.class,
+                sinSaldo.getId())).isZero();
+        // El tramo ya confirmado no se vuelve a aplicar
+        assertThat(saldo(yaCerrada)).isEqualTo(10_000);
+        assertThat(jdbc.queryForObject("select count(*) from estado_cuenta where cuenta_id = ?", Long.class,
+                yaCerrada.getId())).isZero();
+
+        // Repetirlo sobre la fecha cerrada no cambia nada
+        assertThat(cierre.ejecutar(FECHA).orElseThrow().cuentas()).isZero();
+        assertThat(saldo(conMovimientos)).isEqualTo(99_999);
+        assertThat(movimientoRepo.count()).isEqualTo(5);
+    }
+
+    private Cuenta crearCuenta(String dui, long saldo) {
+        Cliente cliente = new Cliente();
+        cliente.setDui(dui);
+        cliente.setPrimerNombre("Ahorrante");
+        cliente.setApellido("Cierre");
+        cliente.setFechaNacimiento(LocalDate.of(1985, 5, 5));
+        clienteRepo.save(cliente);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumero("0001");
+        cuenta.setSaldoCentavos(saldo);
+        cuenta.setCliente(cliente);
+        return cuentaRepo.save(cuenta);
+    }
+
+    private long saldo(Cuenta cuenta) {
+        return jdbc.queryForObject("select saldo_centavos from cuenta where id = ?", Long.class, cuenta.getId());
+    }
+}
@@ -0,0 +1,95 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Credenciales;
+import com.banco.serviciocuentas.model.TipoCuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Instalación nueva: sin credenciales en la base, solo con seguridad.admin.* configurado. El empleado
+// inicial entra, registra un cliente con su cuenta y sus credenciales, y ese cliente ya puede operar.
+// Se arma EmpleadoInicial a mano con esos valores (como al arrancar) para compartir el contexto de las
+// demás pruebas web: otro contexto volvería a generar el esquema de la base H2 compartida.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class EmpleadoInicialTest {
+
+    private static final String DUI = "06000001-1";
+
+    @Autowired
+    private TestRestTemplate rest;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+    @Autowired
+    private CredencialesRepository credRepo;
+    @Autowired
+    private ContrasenaService contrasenas;
+
+    @AfterEach
+    void limpiar() {
+        movimientoRepo.deleteAll();
+        credRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void unaBaseNuevaSePuedeUsarConElEmpleadoInicial() throws Exception {
+        EmpleadoInicial empleadoInicial = new EmpleadoInicial(credRepo, contrasenas, "admin@banco.com", "inicial");
+        assertThat(credRepo.count()).isZero();
+        empleadoInicial.run(null);
+        assertThat(credRepo.findByCorreo("admin@banco.com")).get()
+                .extracting(Credenciales::getTipoCuenta).isEqualTo(TipoCuenta.empleado);
+        // Arrancar otra vez no crea un segundo empleado
+        empleadoInicial.run(null);
+        assertThat(credRepo.count()).isEqualTo(1);
+
+        String empleado = login("admin@banco.com", "inicial");
+        assertThat(estado(HttpMethod.POST, "/api/clientes", empleado, Map.of(
+                "dui", DUI, "primerNombre", "Ana", "apellido", "Lopez", "fechaNacimiento", "1990-01-01")))
+                .isEqualTo(HttpStatus.CREATED);
+        assertThat(estado(HttpMethod.POST, "/api/cuentas/cliente/" + DUI, empleado,
+                Map.of("numero", "0001", "saldo", 0))).isEqualTo(HttpStatus.CREATED);
+        assertThat(estado(HttpMethod.POST, "/api/credenciales", empleado, Map.of(
+                "correo", "ana@correo.com", "contrasena", "clave", "tipoCuenta", "cliente", "clienteDui", DUI)))
+                .isEqualTo(HttpStatus.CREATED);
+
+        String cliente = login("ana@correo.com", "clave");
+        assertThat(estado(HttpMethod.POST, "/api/cuentas/cliente/" + DUI + "/abonarefectivo", cliente,
+                Map.of("numero", "0001", "monto", 25))).isEqualTo(HttpStatus.OK);
+        assertThat(estado(HttpMethod.GET, "/api/cuentas/cliente/" + DUI, cliente, null)).isEqualTo(HttpStatus.OK);
+    }
+
+    private String login(String correo, String contrasena) {
+        JsonNode login = rest.postForObject("/api/credenciales/login",
+                Map.of("correo", correo, "contrasena", contrasena), JsonNode.class);
+        return login.get("token").asText();
+    }
+
+    private HttpStatusCode estado(HttpMethod metodo, String ruta, String token, Object cuerpo) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return rest.exchange(ruta, metodo, new HttpEntity<>(cuerpo, headers), String.class).getStatusCode();
+    }
+}
@@ -0,0 +1,98 @@
+package com.banco.serviciocuentas.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Importación CSV de un banco socio: clientes con una cuenta y credenciales (hash ya calculado),
+// generados mientras se leen, así el archivo nunca existe completo en memoria. Imprime filas por
+// segundo; el objetivo es un millón de clientes en minutos.
+// Solo corre con -Pcarga. Parámetros (-D): carga.importacion.clientes (1 000 000)
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("test")
+class ImportadorClientesLoadTest {
+
+    private static final int CLIENTES = Integer.getInteger("carga.importacion.clientes", 1_000_000);
+    // Hash bcrypt ya calculado (costo 10): se copia tal cual, sin recalcularlo
+    private static final String HASH = "{bcrypt}$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    @Autowired
+    private ImportadorClientes importador;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void limpiar() {
+        jdbc.update("delete from credenciales");
+        jdbc.update("delete from cuenta");
+        jdbc.update("delete from cliente");
+    }
+
+    @Test
+    void unMillonDeClientesConCuentaYCredenciales() throws Exception {
+        ResultadoImportacion resultado = importador.importar(new CsvGenerado(CLIENTES), ImportadorClientes.Formato.csv);
+
+        System.out.printf("%d filas importadas en %.1f s (%.0f filas/s)%n",
+                resultado.filas(), resultado.segundos(), resultado.filasPorSegundo());
+        assertThat(resultado.rechazadas()).isZero();
+        assertThat(resultado.clientes()).isEqualTo(CLIENTES);
+        assertThat(jdbc.queryForObject("select count(*) from cuenta", Long.class)).isEqualTo(CLIENTES);
+        assertThat(jdbc.queryForObject("select count(*) from credenciales", Long.class)).isEqualTo(CLIENTES);
+    }
+
+    // Archivo CSV de 'filas' clientes producido línea por línea al leerlo
+    private static final class CsvGenerado extends InputStream {
+
+        private final int filas;
+        private int siguiente = -1;
+        private byte[] linea = new byte[0];
+        private int posicion;
+
+        CsvGenerado(int filas) {
+            this.filas = filas;
+        }
+
+        @Override
+        public int read() {
+            if (posicion == linea.length && !avanzar()) {
+                return -1;
+            }
+            return linea[posicion++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int largo) {
+            if (posicion == linea.length && !avanzar()) {
+                return -1;
+            }
+            int n = Math.min(largo, linea.length - posicion);
+            System.arraycopy(linea, posicion, destino, desde, n);
+            posicion += n;
+            return n;
+        }
+
+        private boolean avanzar() {
+            if (siguiente >= filas) {
+                return false;
+            }
+            String texto = siguiente < 0
+                    ? "dui,primer_nombre,apellido,fecha_nacimiento,numero,saldo,correo,contrasena\n"
+                    : String.format("%08d-%d,Cliente,Pérez,1980-01-01,0001,100.00,c%d@socio.com,%s\n",
+                    siguiente, siguiente % 10, siguiente, HASH);
+            siguiente++;
+            linea = texto.getBytes(StandardCharsets.UTF_8);
+            posicion = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CredencialesRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Importación CSV y NDJSON en bloques de dos filas: filas que agregan cuentas al cliente anterior
+// (también cruzando bloques), campos entre comillas, duplicados contra la base y dentro del archivo,
+// y rechazos por fila que no detienen el resto.
+@SpringBootTest(properties = "importacion.bloque=2")
+@ActiveProfiles("test")
+class ImportadorClientesTest {
+
+    // Hash bcrypt ya calculado: se guarda tal cual. {noop} y otros prefijos se rechazan
+    private static final String HASH = "{bcrypt}$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    @Autowired
+    private ImportadorClientes importador;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private CredencialesRepository credRepo;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @AfterEach
+    void limpiar() {
+        credRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void importaCsvYNdjsonRechazandoPorFila() throws Exception {
+        Cliente existente = new Cliente();
+        existente.setDui("09000000-9");
+        existente.setPrimerNombre("Ya");
+        existente.setApellido("Existe");
+        existente.setFechaNacimiento(LocalDate.of(1970, 1, 1));
+        clienteRepo.save(existente);
+
+        String csv = """
+                dui,primer_nombre,apellido,fecha_nacimiento,numero,saldo,correo,contrasena
+                01000001-1,María,López,1992-11-05,0001,150.25,maria@correo.com,%s
+                01000001-1,,,,0002,10,,
+                01000001-1,,,,0003,,,
+                09000000-9,Otro,Cliente,1980-01-01,0001,1,,
+                01000002-2,"Ana, \"\"Anita\"\"",Pérez,1990-02-30,0001,1,,
+                01000003-3,José,Núñez,1985-07-01,,,,
+                01000003-3,José,Núñez,1985-07-01,0001,-5,,
+                01000004-4,Luis,Rivas,1975-03-03,0001,0.5,maria@correo.com,x
+                01000005-5,Eva,Mena,1991-01-01,0001,1,eva@correo.com,{noop}x
+                """.formatted(HASH);
+        ResultadoImportacion resultado = importador.importar(flujo(csv), ImportadorClientes.Formato.csv);
+
+        assertThat(resultado.filas()).isEqualTo(9);
+        assertThat(resultado.clientes()).isEqualTo(2);
+        assertThat(resultado.cuentas()).isEqualTo(3);
+        assertThat(resultado.credenciales()).isEqualTo(1);
+        assertThat(resultado.rechazos()).extracting(ResultadoImportacion.Rechazo::linea, ResultadoImportacion.Rechazo::dui)
+                .containsExactly(tuple(5L, "09000000-9"), tuple(6L, "01000002-2"), tuple(8L, "01000003-3"),
+                        tuple(9L, "01000004-4"), tuple(10L, "01000005-5"));
+        assertThat(saldos("01000001-1")).isEqualTo(15_025 + 1_000);
+        assertThat(jdbc.queryForObject("select apellido_busqueda from cliente where dui = '01000001-1'", String.class))
+                .isEqualTo("lopez");
+        assertThat(credRepo.findByClienteDui("01000001-1")).singleElement()
+                .satisfies(c -> assertThat(c.getContrasena()).isEqualTo(HASH));
+
+        String ndjson = """
+                {"dui": "01000002-2", "primerNombre": "Ana, \\"Anita\\"", "apellido": "Pérez", "fechaNacimiento": "1990-02-28", "numero": "0001", "saldo": 12.5}
+                no es json
+                {"dui": "01000001-1", "primerNombre": "María", "apellido": "López", "fechaNacimiento": "1992-11-05"}
+                """;
+        resultado = importador.importar(flujo(ndjson), ImportadorClientes.Formato.ndjson);
+        assertThat(resultado.clientes()).isEqualTo(1);
+        assertThat(resultado.rechazos()).extracting(ResultadoImportacion.Rechazo::linea).containsExactly(2L, 3L);
+        assertThat(clienteRepo.findByDui("01000002-2").orElseThrow().getPrimerNombre()).isEqualTo("Ana, \"Anita\"");
+        assertThat(saldos("01000002-2")).isEqualTo(1_250);
+    }
+
+    private long saldos(String dui) {
+        return jdbc.queryForObject("select sum(c.saldo_centavos) from cuenta c join cliente cl on cl.id = c.cliente_id "
+                + "where cl.dui = ?", Long.class, dui);
+    }
+
+    private static ByteArrayInputStream flujo(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
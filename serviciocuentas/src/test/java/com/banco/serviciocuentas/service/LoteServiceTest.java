@@ -0,0 +1,91 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.model.Dinero;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Un crédito que desbordaría el saldo se rechaza solo (sin escribir un saldo negativo) y un monto
+// sobre Dinero.MONTO_MAXIMO_CENTAVOS es una instrucción inválida; el resto del lote se aplica.
+@SpringBootTest
+@ActiveProfiles("test")
+class LoteServiceTest {
+
+    private static final String DUI = "05000001-1";
+    private static final long CASI_MAXIMO = Long.MAX_VALUE - 1_000;
+
+    @Autowired
+    private LoteService loteService;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+
+    @BeforeEach
+    void crearCuentas() {
+        Cliente cliente = new Cliente();
+        cliente.setDui(DUI);
+        cliente.setPrimerNombre("Cliente");
+        cliente.setApellido("Lote");
+        cliente.setFechaNacimiento(LocalDate.of(1980, 1, 1));
+        clienteRepo.save(cliente);
+        crearCuenta(cliente, "0001", CASI_MAXIMO);
+        crearCuenta(cliente, "0002", 50_000);
+    }
+
+    @AfterEach
+    void limpiar() {
+        movimientoRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void rechazaSoloLosCreditosQueDesbordanElSaldo() {
+        ResultadoLote resultado = loteService.aplicar(List.of(
+                new InstruccionLote(InstruccionLote.Tipo.abono, DUI, "0001", null, null, 5_000),
+                new InstruccionLote(InstruccionLote.Tipo.transferencia, DUI, "0002", DUI, "0001", 5_000),
+                new InstruccionLote(InstruccionLote.Tipo.abono, DUI, "0002", null, null, Dinero.MONTO_MAXIMO_CENTAVOS + 1),
+                new InstruccionLote(InstruccionLote.Tipo.retiro, DUI, "0001", null, null, 500),
+                new InstruccionLote(InstruccionLote.Tipo.abono, DUI, "0002", null, null, 1_000)
+        ), false);
+
+        assertThat(resultado.resultados()).extracting(ResultadoLote.Item::estado).containsExactly(
+                ResultadoLote.Estado.saldo_maximo_excedido,
+                ResultadoLote.Estado.saldo_maximo_excedido,
+                ResultadoLote.Estado.instruccion_invalida,
+                ResultadoLote.Estado.aplicado,
+                ResultadoLote.Estado.aplicado);
+        assertThat(resultado.aplicadas()).isEqualTo(2);
+        assertThat(saldo("0001")).isEqualTo(CASI_MAXIMO - 500);
+        assertThat(saldo("0002")).isEqualTo(51_000);
+        assertThat(movimientoRepo.count()).isEqualTo(2);
+    }
+
+    private void crearCuenta(Cliente cliente, String numero, long saldo) {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumero(numero);
+        cuenta.setSaldoCentavos(saldo);
+        cuenta.setCliente(cliente);
+        cuentaRepo.save(cuenta);
+    }
+
+    private long saldo(String numero) {
+        return cuentaRepo.findByClienteDuiAndNumero(DUI, numero).orElseThrow().getSaldoCentavos();
+    }
+}
@@ -0,0 +1,148 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import com.banco.serviciocuentas.repository.PuntoDiarioRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Abonos concurrentes sobre una sola cuenta caliente: el camino de siempre (SaldoService, un UPDATE
+// por abono detrás del bloqueo de la fila) contra MotorSaldos (hilo escritor único + diario con
+// group commit). Imprime operaciones por segundo de cada uno y verifica que no se pierde ninguna.
+// Con H2 en memoria el camino JPA no paga red ni disco y el motor sí paga un fsync por grupo, así que
+// la diferencia contra MySQL real es mayor que la que se ve aquí.
+// Solo corre con -Pcarga. Parámetros (-D): carga.motor.hilos (32), carga.motor.operaciones (500 por hilo)
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("test")
+class MotorSaldosLoadTest {
+
+    private static final int HILOS = Integer.getInteger("carga.motor.hilos", 32);
+    private static final int OPERACIONES_POR_HILO = Integer.getInteger("carga.motor.operaciones", 500);
+    private static final String DUI_JPA = "00000003-3";
+    private static final String DUI_MOTOR = "00000004-4";
+    private static final String NUMERO = "0001";
+
+    @Autowired
+    private SaldoService saldoService;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+    @Autowired
+    private PuntoDiarioRepository puntoRepo;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private PlatformTransactionManager txManager;
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @TempDir
+    private Path directorio;
+
+    @BeforeEach
+    void crearCuentas() {
+        crearCuenta(DUI_JPA);
+        crearCuenta(DUI_MOTOR);
+    }
+
+    @AfterEach
+    void limpiar() {
+        movimientoRepo.deleteAll();
+        puntoRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void motorContraCaminoJpaEnUnaCuentaCaliente() throws Exception {
+        int total = HILOS * OPERACIONES_POR_HILO;
+
+        double jpa = opsPorSegundo(() -> saldoService.abonar(DUI_JPA, NUMERO, 1).cuenta().getSaldoCentavos());
+
+        MotorSaldos motor = new MotorSaldos(cuentaRepo, puntoRepo, jdbc, em, txManager, eventos,
+                List.of(DUI_MOTOR + "/" + NUMERO), 2, directorio, 1_000_000, 4096, Duration.ofMillis(200), Duration.ofSeconds(5));
+        double enMotor;
+        try {
+            enMotor = opsPorSegundo(() -> motor.abonar(DUI_MOTOR, NUMERO, 1).cuenta().getSaldoCentavos());
+        } finally {
+            motor.destroy();
+        }
+
+        System.out.printf("cuenta caliente, %d hilos, %d abonos: JPA %.0f ops/s, motor %.0f ops/s (x%.1f)%n",
+                HILOS, total, jpa, enMotor, enMotor / jpa);
+        assertThat(saldoEnBase(DUI_JPA)).isEqualTo(total);
+        assertThat(saldoEnBase(DUI_MOTOR)).isEqualTo(total);
+        assertThat(movimientoRepo.count()).isEqualTo(2L * total);
+    }
+
+    private double opsPorSegundo(LongSupplier abono) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> futuros = new ArrayList<>();
+            long inicio = System.nanoTime();
+            for (int h = 0; h < HILOS; h++) {
+                futuros.add(pool.submit(() -> {
+                    for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                        abono.getAsLong();
+                    }
+                }));
+            }
+            for (Future<?> f : futuros) {
+                f.get(5, TimeUnit.MINUTES);
+            }
+            return HILOS * OPERACIONES_POR_HILO / ((System.nanoTime() - inicio) / 1e9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void crearCuenta(String dui) {
+        Cliente cliente = new Cliente();
+        cliente.setDui(dui);
+        cliente.setPrimerNombre("Comercio");
+        cliente.setApellido("Carga");
+        cliente.setFechaNacimiento(LocalDate.of(1980, 1, 1));
+        clienteRepo.save(cliente);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumero(NUMERO);
+        cuenta.setSaldoCentavos(0);
+        cuenta.setCliente(cliente);
+        cuentaRepo.save(cuenta);
+    }
+
+    private long saldoEnBase(String dui) {
+        return cuentaRepo.findByClienteDuiAndNumero(dui, NUMERO).orElseThrow().getSaldoCentavos();
+    }
+}
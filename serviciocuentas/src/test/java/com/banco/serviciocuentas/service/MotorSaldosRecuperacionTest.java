@@ -0,0 +1,244 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import com.banco.serviciocuentas.repository.PuntoDiarioRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Caídas del motor de saldos: lo confirmado al cliente está en el diario y, al arrancar de nuevo,
+// llega a la base exactamente una vez. El volcado periódico queda en 1 h para que solo vuelquen
+// la recuperación y la vuelta del diario. Un Error en el hilo escritor no deja peticiones esperando,
+// y un abono que desbordaría el saldo se rechaza solo, sin tumbar al resto de su grupo.
+@SpringBootTest
+@ActiveProfiles("test")
+class MotorSaldosRecuperacionTest {
+
+    private static final String DUI = "00000002-2";
+    private static final String NUMERO = "0001";
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+    @Autowired
+    private PuntoDiarioRepository puntoRepo;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private PlatformTransactionManager txManager;
+    @Autowired
+    private ApplicationEventPublisher eventos;
+
+    @TempDir
+    private Path directorio;
+
+    @BeforeEach
+    void crearCuenta() {
+        Cliente cliente = new Cliente();
+        cliente.setDui(DUI);
+        cliente.setPrimerNombre("Comercio");
+        cliente.setApellido("Recaudador");
+        cliente.setFechaNacimiento(LocalDate.of(1980, 1, 1));
+        clienteRepo.save(cliente);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumero(NUMERO);
+        cuenta.setSaldoCentavos(1_000);
+        cuenta.setCliente(cliente);
+        cuentaRepo.save(cuenta);
+    }
+
+    @AfterEach
+    void limpiar() {
+        movimientoRepo.deleteAll();
+        puntoRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void loConfirmadoSobreviveLaCaidaYSeVuelcaUnaSolaVez() throws Exception {
+        MotorSaldos motor = motor(1000);
+        for (int i = 0; i < 100; i++) {
+            assertThat(motor.abonar(DUI, NUMERO, 10).estado()).isEqualTo(ResultadoMovimiento.Estado.EXITOSO);
+        }
+        assertThat(motor.retirar(DUI, NUMERO, 5_000).estado()).isEqualTo(ResultadoMovimiento.Estado.SALDO_INSUFICIENTE);
+        assertThat(motor.retirar(DUI, NUMERO, 500).cuenta().getSaldoCentavos()).isEqualTo(1_500);
+        motor.detenerSinVolcar();
+        // Nada llegó a la base antes de la caída
+        assertThat(saldoEnBase()).isEqualTo(1_000);
+        assertThat(movimientoRepo.count()).isZero();
+
+        MotorSaldos recuperado = motor(1000);
+        assertThat(recuperado.saldo(DUI, NUMERO)).isEqualTo(1_500);
+        assertThat(saldoEnBase()).isEqualTo(1_500);
+        assertThat(movimientoRepo.count()).isEqualTo(101);
+        assertThat(puntoRepo.findById(0).orElseThrow().getSecuencia()).isEqualTo(101);
+        assertThat(recuperado.abonar(DUI, NUMERO, 1).cuenta().getSaldoCentavos()).isEqualTo(1_501);
+        recuperado.destroy();
+
+        // Arrancar otra vez no repite lo ya volcado
+        MotorSaldos otraVez = motor(1000);
+        assertThat(otraVez.saldo(DUI, NUMERO)).isEqualTo(1_501);
+        assertThat(movimientoRepo.count()).isEqualTo(102);
+        otraVez.destroy();
+    }
+
+    @Test
+    void unRegistroCortadoPorLaCaidaSeDescarta() throws Exception {
+        MotorSaldos motor = motor(1000);
+        for (int i = 0; i < 3; i++) {
+            motor.abonar(DUI, NUMERO, 100);
+        }
+        motor.detenerSinVolcar();
+        // La caída cortó la escritura del tercer registro: su CRC ya no coincide
+        try (RandomAccessFile archivo = new RandomAccessFile(directorio.resolve("diario-0.log").toFile(), "rw")) {
+            archivo.seek(2L * DiarioSaldos.TAMANO_REGISTRO + 20);
+            archivo.write(0x7f);
+        }
+
+        MotorSaldos recuperado = motor(1000);
+        assertThat(recuperado.saldo(DUI, NUMERO)).isEqualTo(1_200);
+        assertThat(movimientoRepo.count()).isEqualTo(2);
+        // El siguiente movimiento ocupa el lugar del registro cortado
+        recuperado.abonar(DUI, NUMERO, 1);
+        recuperado.detenerSinVolcar();
+        MotorSaldos otraVez = motor(1000);
+        assertThat(otraVez.saldo(DUI, NUMERO)).isEqualTo(1_201);
+        assertThat(movimientoRepo.count()).isEqualTo(3);
+        otraVez.destroy();
+    }
+
+    @Test
+    void elDiarioLlenoVuelcaYVuelveAlInicio() throws Exception {
+        MotorSaldos motor = motor(8);
+        for (int i = 0; i < 50; i++) {
+            motor.abonar(DUI, NUMERO, 1);
+        }
+        motor.detenerSinVolcar();
+        // Las vueltas del diario ya volcaron todo menos la última
+        assertThat(movimientoRepo.count()).isBetween(42L, 49L);
+
+        MotorSaldos recuperado = motor(8);
+        assertThat(recuperado.saldo(DUI, NUMERO)).isEqualTo(1_050);
+        assertThat(saldoEnBase()).isEqualTo(1_050);
+        assertThat(movimientoRepo.count()).isEqualTo(50);
+        recuperado.destroy();
+    }
+
+    @Test
+    void unErrorEnElHiloDetieneLaParticionSinDejarPeticionesColgadas() throws Exception {
+        // El Error llega después del fsync: el movimiento quedó en el diario y se recupera al arrancar
+        MotorSaldos motor = motor(1000, evento -> {
+            throw new InternalError("falla del diario mapeado");
+        });
+        assertThatThrownBy(() -> motor.abonar(DUI, NUMERO, 10))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseInstanceOf(InternalError.class);
+        assertThatThrownBy(() -> motor.abonar(DUI, NUMERO, 10)).isInstanceOf(RejectedExecutionException.class);
+        motor.detenerSinVolcar();
+
+        MotorSaldos recuperado = motor(1000);
+        assertThat(recuperado.saldo(DUI, NUMERO)).isEqualTo(1_010);
+        recuperado.destroy();
+    }
+
+    @Test
+    void unAbonoQueDesbordaSeRechazaSoloDentroDeSuGrupo() throws Exception {
+        // El primer evento detiene al hilo escritor; mientras tanto las siguientes se juntan en la cola
+        CountDownLatch detenido = new CountDownLatch(1);
+        CountDownLatch seguir = new CountDownLatch(1);
+        MotorSaldos motor = motor(1000, evento -> {
+            detenido.countDown();
+            try {
+                seguir.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<CompletableFuture<ResultadoMovimiento>> resultados = new ArrayList<>();
+        resultados.add(abonarEnHilo(motor, 10));
+        assertThat(detenido.await(5, TimeUnit.SECONDS)).isTrue();
+        long[] montos = {20, Long.MAX_VALUE, 30};
+        for (int i = 0; i < montos.length; i++) {
+            resultados.add(abonarEnHilo(motor, montos[i]));
+            // Cada abono entra a la cola antes de lanzar el siguiente: el orden de la cola es el de la lista
+            esperarEnCola(motor, i + 1);
+        }
+        seguir.countDown();
+
+        List<ResultadoMovimiento.Estado> estados = new ArrayList<>();
+        for (CompletableFuture<ResultadoMovimiento> r : resultados) {
+            estados.add(r.get(5, TimeUnit.SECONDS).estado());
+        }
+        assertThat(estados).containsExactly(
+                ResultadoMovimiento.Estado.EXITOSO, ResultadoMovimiento.Estado.EXITOSO,
+                ResultadoMovimiento.Estado.SALDO_MAXIMO_EXCEDIDO, ResultadoMovimiento.Estado.EXITOSO);
+        assertThat(resultados.get(2).join().cuenta().getSaldoCentavos()).isEqualTo(1_030);
+        // La partición sigue atendiendo y el rechazado no quedó en el diario
+        assertThat(motor.abonar(DUI, NUMERO, 1).cuenta().getSaldoCentavos()).isEqualTo(1_061);
+        motor.detenerSinVolcar();
+
+        MotorSaldos recuperado = motor(1000);
+        assertThat(recuperado.saldo(DUI, NUMERO)).isEqualTo(1_061);
+        assertThat(movimientoRepo.count()).isEqualTo(4);
+        recuperado.destroy();
+    }
+
+    private static CompletableFuture<ResultadoMovimiento> abonarEnHilo(MotorSaldos motor, long monto) {
+        return CompletableFuture.supplyAsync(() -> motor.abonar(DUI, NUMERO, monto), runnable -> new Thread(runnable).start());
+    }
+
+    // Con el hilo escritor detenido, la cola de la partición solo crece con los abonos lanzados
+    private static void esperarEnCola(MotorSaldos motor, int operaciones) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (motor.enCola(DUI, NUMERO) < operaciones) {
+            assertThat(System.nanoTime()).as("abonos en cola").isLessThan(limite);
+            Thread.sleep(1);
+        }
+    }
+
+    private MotorSaldos motor(int registrosDiario) {
+        return motor(registrosDiario, eventos);
+    }
+
+    private MotorSaldos motor(int registrosDiario, ApplicationEventPublisher eventos) {
+        return new MotorSaldos(cuentaRepo, puntoRepo, jdbc, em, txManager, eventos,
+                List.of(DUI + "/" + NUMERO), 2, directorio, registrosDiario, 1024, Duration.ofHours(1),
+                Duration.ofSeconds(5));
+    }
+
+    private long saldoEnBase() {
+        return jdbc.queryForObject("select saldo_centavos from cuenta where numero = ?", Long.class, NUMERO);
+    }
+}
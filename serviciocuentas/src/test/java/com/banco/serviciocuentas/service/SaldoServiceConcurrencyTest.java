@@ -0,0 +1,141 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Golpea una sola cuenta desde muchos hilos y verifica que no se pierdan movimientos.
+@SpringBootTest
+@ActiveProfiles("test")
+class SaldoServiceConcurrencyTest {
+
+    private static final String DUI = "00000001-1";
+    private static final String NUMERO = "0001";
+    private static final int HILOS = 16;
+    private static final int OPERACIONES_POR_HILO = 250;
+
+    @Autowired
+    private SaldoService saldoService;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+
+    @BeforeEach
+    void crearCuenta() {
+        Cliente cliente = new Cliente();
+        cliente.setDui(DUI);
+        cliente.setPrimerNombre("Ana");
+        cliente.setApellido("Pérez");
+        cliente.setFechaNacimiento(LocalDate.of(1990, 1, 1));
+        clienteRepo.save(cliente);
+
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumero(NUMERO);
+        cuenta.setSaldoCentavos(0);
+        cuenta.setCliente(cliente);
+        cuentaRepo.save(cuenta);
+    }
+
+    @AfterEach
+    void limpiar() {
+        movimientoRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void abonosConcurrentesNoSePierden() throws Exception {
+        long inicio = System.nanoTime();
+        List<Integer> exitosos = enParalelo(() -> saldoService.abonar(DUI, NUMERO, 100));
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        int total = HILOS * OPERACIONES_POR_HILO;
+        assertThat(exitosos.stream().mapToInt(Integer::intValue).sum()).isEqualTo(total);
+        assertThat(saldoActual()).isEqualTo(total * 100L);
+        assertThat(movimientoRepo.count()).isEqualTo(total);
+
+        double porSegundo = total / segundos;
+        System.out.printf("abonar: %d operaciones en %.2f s (%.0f ops/s)%n", total, segundos, porSegundo);
+        assertThat(porSegundo).isGreaterThan(100);
+    }
+
+    @Test
+    void retirosConcurrentesNuncaDejanSaldoNegativo() throws Exception {
+        int disponibles = HILOS * OPERACIONES_POR_HILO / 2;
+        saldoService.abonar(DUI, NUMERO, disponibles * 100L);
+
+        List<Integer> exitosos = enParalelo(() -> saldoService.retirar(DUI, NUMERO, 100));
+
+        // Exactamente la mitad de los retiros debe pasar y el saldo quedar en cero
+        assertThat(exitosos.stream().mapToInt(Integer::intValue).sum()).isEqualTo(disponibles);
+        assertThat(saldoActual()).isZero();
+        // Un abono inicial más un movimiento por cada retiro exitoso; los rechazados no dejan rastro
+        assertThat(movimientoRepo.count()).isEqualTo(disponibles + 1L);
+    }
+
+    @Test
+    void unAbonoQueDesbordaSeRechazaSinTocarLaCuenta() {
+        saldoService.abonar(DUI, NUMERO, Long.MAX_VALUE - 1_000);
+
+        ResultadoMovimiento rechazado = saldoService.abonar(DUI, NUMERO, 5_000);
+        assertThat(rechazado.estado()).isEqualTo(ResultadoMovimiento.Estado.SALDO_MAXIMO_EXCEDIDO);
+        assertThat(rechazado.cuenta().getSaldoCentavos()).isEqualTo(Long.MAX_VALUE - 1_000);
+        assertThat(saldoActual()).isEqualTo(Long.MAX_VALUE - 1_000);
+        assertThat(movimientoRepo.count()).isEqualTo(1);
+        // Lo que cabe se sigue aplicando
+        assertThat(saldoService.abonar(DUI, NUMERO, 1_000).estado()).isEqualTo(ResultadoMovimiento.Estado.EXITOSO);
+        assertThat(saldoActual()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    // Ejecuta la operación OPERACIONES_POR_HILO veces en cada hilo y cuenta los movimientos exitosos por hilo
+    private List<Integer> enParalelo(Callable<ResultadoMovimiento> operacion) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<Integer>> futuros = new ArrayList<>();
+            for (int h = 0; h < HILOS; h++) {
+                futuros.add(pool.submit(() -> {
+                    int exitosos = 0;
+                    for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                        if (operacion.call().estado() == ResultadoMovimiento.Estado.EXITOSO) {
+                            exitosos++;
+                        }
+                    }
+                    return exitosos;
+                }));
+            }
+            List<Integer> resultados = new ArrayList<>();
+            for (Future<Integer> f : futuros) {
+                resultados.add(f.get(2, TimeUnit.MINUTES));
+            }
+            return resultados;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long saldoActual() {
+        return cuentaRepo.findByClienteDuiAndNumero(DUI, NUMERO).orElseThrow().getSaldoCentavos();
+    }
+}
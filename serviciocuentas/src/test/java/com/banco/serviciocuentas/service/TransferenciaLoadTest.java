@@ -0,0 +1,120 @@
+package com.banco.serviciocuentas.service;
+
+import com.banco.serviciocuentas.model.Cliente;
+import com.banco.serviciocuentas.model.Cuenta;
+import com.banco.serviciocuentas.repository.ClienteRepository;
+import com.banco.serviciocuentas.repository.CuentaRepository;
+import com.banco.serviciocuentas.repository.MovimientoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Miles de transferencias aleatorias concurrentes entre pocas cuentas (muchas en sentidos
+// opuestos): el total de dinero no cambia, ninguna cuenta queda negativa y la latencia
+// p99 se mantiene dentro del presupuesto.
+@SpringBootTest
+@ActiveProfiles("test")
+class TransferenciaLoadTest {
+
+    private static final int CUENTAS = 10;
+    private static final long SALDO_INICIAL = 1_000_00;
+    private static final int HILOS = 8;
+    private static final int TRANSFERENCIAS_POR_HILO = 250;
+    // Generoso a propósito: la prueba corre en máquinas de CI compartidas
+    private static final long PRESUPUESTO_P99_MS = 500;
+
+    @Autowired
+    private SaldoService saldoService;
+    @Autowired
+    private ClienteRepository clienteRepo;
+    @Autowired
+    private CuentaRepository cuentaRepo;
+    @Autowired
+    private MovimientoRepository movimientoRepo;
+
+    @BeforeEach
+    void crearCuentas() {
+        for (int i = 0; i < CUENTAS; i++) {
+            Cliente cliente = new Cliente();
+            cliente.setDui(dui(i));
+            cliente.setPrimerNombre("Cliente");
+            cliente.setApellido("Carga");
+            cliente.setFechaNacimiento(LocalDate.of(1985, 6, 15));
+            clienteRepo.save(cliente);
+
+            Cuenta cuenta = new Cuenta();
+            cuenta.setNumero("0001");
+            cuenta.setSaldoCentavos(SALDO_INICIAL);
+            cuenta.setCliente(cliente);
+            cuentaRepo.save(cuenta);
+        }
+    }
+
+    @AfterEach
+    void limpiar() {
+        movimientoRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @Test
+    void transferenciasConcurrentesConservanElTotal() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        List<Future<long[]>> futuros = new ArrayList<>();
+        long inicio = System.nanoTime();
+        for (int h = 0; h < HILOS; h++) {
+            futuros.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] latencias = new long[TRANSFERENCIAS_POR_HILO];
+                for (int i = 0; i < TRANSFERENCIAS_POR_HILO; i++) {
+                    int origen = random.nextInt(CUENTAS);
+                    int destino = (origen + 1 + random.nextInt(CUENTAS - 1)) % CUENTAS;
+                    long monto = 1 + random.nextLong(50_00);
+                    long t0 = System.nanoTime();
+                    saldoService.transferir(dui(origen), "0001", dui(destino), "0001", monto);
+                    latencias[i] = System.nanoTime() - t0;
+                }
+                return latencias;
+            }));
+        }
+        long[] todas = new long[HILOS * TRANSFERENCIAS_POR_HILO];
+        int k = 0;
+        for (Future<long[]> f : futuros) {
+            for (long l : f.get(5, TimeUnit.MINUTES)) {
+                todas[k++] = l;
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        pool.shutdown();
+
+        Arrays.sort(todas);
+        long p50 = TimeUnit.NANOSECONDS.toMillis(todas[todas.length / 2]);
+        long p99 = TimeUnit.NANOSECONDS.toMillis(todas[(int) (todas.length * 0.99)]);
+        System.out.printf("transferir: %d en %.2f s (%.0f ops/s), p50=%d ms, p99=%d ms%n",
+                todas.length, segundos, todas.length / segundos, p50, p99);
+
+        List<Cuenta> cuentas = cuentaRepo.findAll();
+        assertThat(cuentas.stream().mapToLong(Cuenta::getSaldoCentavos).sum()).isEqualTo(CUENTAS * SALDO_INICIAL);
+        assertThat(cuentas).allSatisfy(c -> assertThat(c.getSaldoCentavos()).isNotNegative());
+        assertThat(p99).isLessThanOrEqualTo(PRESUPUESTO_P99_MS);
+    }
+
+    private static String dui(int i) {
+        return String.format("%08d-%d", i, i % 10);
+    }
+}